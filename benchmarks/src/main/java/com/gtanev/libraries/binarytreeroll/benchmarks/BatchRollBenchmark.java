@@ -0,0 +1,131 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.roll.BatchRollExecutor;
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the throughput, in trees per second, of rolling a batch of independent trees with the
+ * immutable clockwise strategy: one at a time in a loop, and with a {@link BatchRollExecutor} in
+ * the common pool and in a fixed thread pool, through futures and through a publisher.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+@OperationsPerInvocation(BatchRollBenchmark.BATCH_SIZE)
+public class BatchRollBenchmark {
+
+  static final int BATCH_SIZE = 10_000;
+
+  @Param({"16", "1000", "10000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM"})
+  private TreeShape shape;
+
+  private List<BinaryTree<Integer>> trees;
+  private RollStrategy<Integer> strategy;
+  private ExecutorService threadPool;
+  private BatchRollExecutor commonPoolBatch;
+  private BatchRollExecutor threadPoolBatch;
+
+  @Setup
+  public void setUp() {
+    var parallelism = ForkJoinPool.getCommonPoolParallelism();
+    var tree = shape.build(size);
+    trees = new ArrayList<>(BATCH_SIZE);
+
+    for (var i = 0; i < BATCH_SIZE; i++) {
+      trees.add(tree.deepCopy());
+    }
+
+    strategy = RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE);
+    threadPool = Executors.newFixedThreadPool(parallelism);
+    commonPoolBatch = new BatchRollExecutor();
+    threadPoolBatch = new BatchRollExecutor(threadPool, 4 * parallelism);
+  }
+
+  @TearDown
+  public void tearDown() {
+    threadPool.shutdown();
+  }
+
+  @Benchmark
+  public void sequentialLoop(Blackhole blackhole) {
+    for (var tree : trees) {
+      blackhole.consume(tree.roll(strategy));
+    }
+  }
+
+  @Benchmark
+  public void commonPoolFutures(Blackhole blackhole) {
+    consume(commonPoolBatch.rollAll(trees, strategy), blackhole);
+  }
+
+  @Benchmark
+  public void threadPoolFutures(Blackhole blackhole) {
+    consume(threadPoolBatch.rollAll(trees, strategy), blackhole);
+  }
+
+  @Benchmark
+  public void commonPoolPublisher(Blackhole blackhole) throws InterruptedException {
+    var completed = new CountDownLatch(1);
+    commonPoolBatch.publish(trees, strategy).subscribe(new Flow.Subscriber<>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(BinaryTree<Integer> item) {
+        blackhole.consume(item);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        completed.countDown();
+      }
+
+      @Override
+      public void onComplete() {
+        completed.countDown();
+      }
+    });
+    completed.await();
+  }
+
+  private static void consume(List<CompletableFuture<BinaryTree<Integer>>> futures,
+      Blackhole blackhole) {
+    for (var future : futures) {
+      blackhole.consume(future.join());
+    }
+  }
+}
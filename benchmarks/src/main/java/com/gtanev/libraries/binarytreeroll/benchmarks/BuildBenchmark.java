@@ -0,0 +1,45 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building a binary tree of each shape from its level-order array.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BuildBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM", "LEFT_DEGENERATE", "RIGHT_DEGENERATE", "ZIGZAG"})
+  private TreeShape shape;
+
+  private Integer[] values;
+
+  @Setup
+  public void setUp() {
+    values = shape.levelOrder(size);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> of() {
+    return BinaryTree.of(values);
+  }
+}
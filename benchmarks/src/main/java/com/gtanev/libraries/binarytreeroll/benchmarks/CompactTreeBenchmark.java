@@ -0,0 +1,71 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollEngine;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.CompactBinaryTree;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares deep copies and fused immutable rolls that build linked trees with those that build
+ * {@link CompactBinaryTree}s. Run with {@code -prof gc} to compare the bytes allocated per node.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CompactTreeBenchmark {
+
+  @Param({"1000", "100000", "10000000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM", "LEFT_DEGENERATE"})
+  private TreeShape shape;
+
+  @Param({"CLOCKWISE", "COUNTERCLOCKWISE"})
+  private RollDirection direction;
+
+  private BinaryTree<Integer> tree;
+  private RollStrategy<Integer> fusedRoll;
+
+  @Setup
+  public void setUp() {
+    tree = shape.build(size);
+    fusedRoll = RollStrategyFactory.createImmutable(direction, RollEngine.FUSED);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> deepCopy() {
+    return tree.deepCopy();
+  }
+
+  @Benchmark
+  public CompactBinaryTree<Integer> compactCopy() {
+    return CompactBinaryTree.from(tree);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> fusedRoll() {
+    return tree.roll(fusedRoll);
+  }
+
+  @Benchmark
+  public CompactBinaryTree<Integer> compactRoll() {
+    return CompactBinaryTree.fromRolled(tree, direction);
+  }
+}
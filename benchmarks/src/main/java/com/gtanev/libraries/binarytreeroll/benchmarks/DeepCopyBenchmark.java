@@ -0,0 +1,77 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.NodePool;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the sequential, the fork-join and the node-reusing deep copies across tree shapes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DeepCopyBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM", "LEFT_DEGENERATE", "RIGHT_DEGENERATE", "ZIGZAG"})
+  private TreeShape shape;
+
+  @Param({"16384"})
+  private int threshold;
+
+  private BinaryTree<Integer> tree;
+  private ForkJoinPool pool;
+  private NodePool<Integer> nodePool;
+
+  @Setup
+  public void setUp() {
+    tree = shape.build(size);
+    pool = new ForkJoinPool();
+    nodePool = new NodePool<>();
+    nodePool.release(tree.deepCopy());
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> deepCopy() {
+    return tree.deepCopy();
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> parallelDeepCopy() {
+    return tree.deepCopy(pool, threshold);
+  }
+
+  /**
+   * Copies the tree from the node pool and releases the copy back into it, as a caller copying
+   * and discarding trees in a loop would.
+   */
+  @Benchmark
+  public int pooledDeepCopy() {
+    var copy = tree.deepCopy(nodePool);
+    nodePool.release(copy);
+    return nodePool.size();
+  }
+}
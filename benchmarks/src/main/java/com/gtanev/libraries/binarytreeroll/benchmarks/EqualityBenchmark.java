@@ -0,0 +1,52 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures comparing a binary tree with an equal deep copy of it, and hashing it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class EqualityBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM", "LEFT_DEGENERATE", "RIGHT_DEGENERATE", "ZIGZAG"})
+  private TreeShape shape;
+
+  private BinaryTree<Integer> tree;
+  private BinaryTree<Integer> copy;
+
+  @Setup
+  public void setUp() {
+    tree = shape.build(size);
+    copy = tree.deepCopy();
+  }
+
+  @Benchmark
+  public boolean equals() {
+    return tree.equals(copy);
+  }
+
+  @Benchmark
+  public int hashCode() {
+    return tree.hashCode();
+  }
+}
@@ -0,0 +1,90 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollEngine;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.HashConsedTree;
+import com.gtanev.libraries.binarytreeroll.tree.InternTable;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares copies and immutable rolls of linked trees with those of {@link HashConsedTree}s, on
+ * complete trees whose values are drawn at random from an alphabet of the given size, so that a
+ * small alphabet yields many repeated subtrees near the leaves. The hash-consed benchmarks build
+ * the tree with a fresh table on every invocation, so that no roll is remembered from an earlier
+ * one, except for {@code rememberedRoll}, which rolls a tree whose roll is already remembered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class HashConsBenchmark {
+
+  @Param({"100000", "1000000"})
+  private int size;
+
+  @Param({"2", "1000000"})
+  private int alphabet;
+
+  private BinaryTree<Integer> tree;
+  private HashConsedTree<Integer> hashConsedTree;
+  private HashConsedTree<Integer> rolledTree;
+  private RollStrategy<Integer> roll;
+
+  @Setup
+  public void setUp() {
+    var random = new Random(42);
+    var values = new Integer[size];
+
+    for (var i = 0; i < size; i++) {
+      values[i] = random.nextInt(alphabet);
+    }
+
+    tree = BinaryTree.of(values);
+    roll = RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE, RollEngine.FUSED);
+    hashConsedTree = HashConsedTree.of(tree, new InternTable<>());
+    rolledTree = hashConsedTree.roll(roll);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> deepCopy() {
+    return tree.deepCopy();
+  }
+
+  @Benchmark
+  public HashConsedTree<Integer> hashConsedCopy() {
+    return HashConsedTree.of(tree, new InternTable<>());
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> fusedRoll() {
+    return tree.roll(roll);
+  }
+
+  @Benchmark
+  public HashConsedTree<Integer> hashConsedCopyAndRoll() {
+    return HashConsedTree.of(tree, new InternTable<>()).roll(roll);
+  }
+
+  @Benchmark
+  public HashConsedTree<Integer> rememberedRoll() {
+    return rolledTree.roll(RollStrategyFactory.createImmutable(RollDirection.COUNTERCLOCKWISE))
+        .roll(roll);
+  }
+}
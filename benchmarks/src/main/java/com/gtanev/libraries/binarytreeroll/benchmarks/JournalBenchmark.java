@@ -0,0 +1,66 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.LinkJournal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares two ways of keeping the pre-roll tree to fall back to: an immutable roll, which rolls
+ * a deep copy, and a mutable roll of a journaled tree, which is rolled back to the version taken
+ * before it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xss1g"})
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM", "LEFT_DEGENERATE"})
+  private TreeShape shape;
+
+  private BinaryTree<Integer> tree;
+  private BinaryTree<Integer> journaledTree;
+  private RollStrategy<Integer> mutableRoll;
+  private RollStrategy<Integer> immutableRoll;
+
+  @Setup
+  public void setUp() {
+    tree = shape.build(size);
+    journaledTree = LinkJournal.copyOf(tree, 4 * size);
+    mutableRoll = RollStrategyFactory.create(RollDirection.CLOCKWISE);
+    immutableRoll = RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> immutableRoll() {
+    return tree.roll(immutableRoll);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> journaledRollAndRollback() {
+    var journal = journaledTree.getJournal();
+    var version = journal.version();
+    journaledTree.roll(mutableRoll);
+    journal.rollbackTo(version);
+    return journaledTree;
+  }
+}
@@ -0,0 +1,65 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares building a binary tree from a level-order array with building it incrementally from an
+ * iterator and from a stream of tokens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LevelOrderBuilderBenchmark {
+
+  @Param({"10000000"})
+  private int size;
+
+  private Integer[] values;
+  private List<Integer> valueList;
+  private byte[] tokens;
+
+  @Setup
+  public void setUp() {
+    values = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+    valueList = Arrays.asList(values);
+    tokens = Arrays.stream(values).map(String::valueOf).collect(Collectors.joining(","))
+        .getBytes(StandardCharsets.US_ASCII);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> ofArray() {
+    return BinaryTree.of(values, null);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> ofIterator() {
+    return BinaryTree.of(valueList.iterator(), null);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> readTokens() throws IOException {
+    return BinaryTree.read(new ByteArrayInputStream(tokens), "null", Integer::valueOf);
+  }
+}
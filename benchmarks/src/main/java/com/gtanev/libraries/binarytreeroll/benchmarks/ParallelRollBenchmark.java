@@ -0,0 +1,79 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollEngine;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the sequential iterative roll with the fork-join roll. Each invocation rolls the tree
+ * in place and back, so that every invocation starts from the same shape.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ParallelRollBenchmark {
+
+  @Param({"4000000"})
+  private int size;
+
+  @Param({"CLOCKWISE", "COUNTERCLOCKWISE"})
+  private RollDirection direction;
+
+  @Param({"16384"})
+  private int threshold;
+
+  private BinaryTree<Integer> tree;
+  private ForkJoinPool pool;
+  private RollStrategy<Integer> iterativeStrategy;
+  private RollStrategy<Integer> iterativeInverseStrategy;
+  private RollStrategy<Integer> parallelStrategy;
+  private RollStrategy<Integer> parallelInverseStrategy;
+
+  @Setup
+  public void setUp() {
+    tree = BinaryTree.of(IntStream.range(0, size).boxed().toArray(Integer[]::new));
+    pool = new ForkJoinPool();
+    var inverse = direction == RollDirection.CLOCKWISE
+        ? RollDirection.COUNTERCLOCKWISE : RollDirection.CLOCKWISE;
+
+    iterativeStrategy = RollStrategyFactory.create(direction, RollEngine.ITERATIVE);
+    iterativeInverseStrategy = RollStrategyFactory.create(inverse, RollEngine.ITERATIVE);
+    parallelStrategy = RollStrategyFactory.createParallel(direction, pool, threshold);
+    parallelInverseStrategy = RollStrategyFactory.createParallel(inverse, pool, threshold);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> iterativeRoll() {
+    return tree.roll(iterativeStrategy).roll(iterativeInverseStrategy);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> parallelRoll() {
+    return tree.roll(parallelStrategy).roll(parallelInverseStrategy);
+  }
+}
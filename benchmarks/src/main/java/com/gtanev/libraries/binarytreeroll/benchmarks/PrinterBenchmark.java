@@ -0,0 +1,69 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTreePrinter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures printing a diagram of a binary tree. The output goes to an {@link Appendable} that
+ * hands every appended sequence to a blackhole without copying it, so only the work of the printer
+ * itself is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PrinterBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM", "LEFT_DEGENERATE", "RIGHT_DEGENERATE", "ZIGZAG"})
+  private TreeShape shape;
+
+  private BinaryTree<Integer> tree;
+  private BinaryTreePrinter<Integer> printer;
+
+  @Setup
+  public void setUp(Blackhole blackhole) {
+    tree = shape.build(size);
+    printer = new BinaryTreePrinter<>(new Appendable() {
+      @Override
+      public Appendable append(CharSequence csq) {
+        blackhole.consume(csq);
+        return this;
+      }
+
+      @Override
+      public Appendable append(CharSequence csq, int start, int end) {
+        blackhole.consume(csq);
+        return this;
+      }
+
+      @Override
+      public Appendable append(char c) {
+        blackhole.consume(c);
+        return this;
+      }
+    });
+  }
+
+  @Benchmark
+  public void printTree() {
+    printer.printTree(tree);
+  }
+}
@@ -0,0 +1,67 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the mutable and the immutable strategies created by {@link RollStrategyFactory} with
+ * their default engine, in both directions. The mutable benchmark rolls the tree and rolls it back,
+ * so that every invocation starts from the same shape, and therefore measures two rolls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xss1g"})
+@State(Scope.Benchmark)
+public class RollBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM", "LEFT_DEGENERATE", "RIGHT_DEGENERATE", "ZIGZAG"})
+  private TreeShape shape;
+
+  @Param({"CLOCKWISE", "COUNTERCLOCKWISE"})
+  private RollDirection direction;
+
+  private BinaryTree<Integer> tree;
+  private RollStrategy<Integer> mutableRoll;
+  private RollStrategy<Integer> mutableRollBack;
+  private RollStrategy<Integer> immutableRoll;
+
+  @Setup
+  public void setUp() {
+    var opposite = direction == RollDirection.CLOCKWISE
+        ? RollDirection.COUNTERCLOCKWISE : RollDirection.CLOCKWISE;
+
+    tree = shape.build(size);
+    mutableRoll = RollStrategyFactory.create(direction);
+    mutableRollBack = RollStrategyFactory.create(opposite);
+    immutableRoll = RollStrategyFactory.createImmutable(direction);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> mutableRoll() {
+    return tree.roll(mutableRoll).roll(mutableRollBack);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> immutableRoll() {
+    return tree.roll(immutableRoll);
+  }
+}
@@ -0,0 +1,100 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollPlan;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a chain of immutable rolls, each rolling a fresh copy of the tree, with the
+ * {@link RollPlan} of the same chain. The chains are either all clockwise, which the plan cannot
+ * simplify, alternating, which it reduces to the identity, or random, with a fixed seed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xss1g"})
+@State(Scope.Benchmark)
+public class RollPlanBenchmark {
+
+  /**
+   * The kinds of chains of rolls.
+   */
+  public enum Chain {
+    CLOCKWISE,
+    ALTERNATING,
+    RANDOM
+  }
+
+  @Param({"10000", "1000000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM"})
+  private TreeShape shape;
+
+  @Param({"2", "4", "8", "16"})
+  private int length;
+
+  @Param({"CLOCKWISE", "ALTERNATING", "RANDOM"})
+  private Chain chain;
+
+  private BinaryTree<Integer> tree;
+  private List<RollStrategy<Integer>> strategies;
+  private RollPlan plan;
+
+  @Setup
+  public void setUp() {
+    var random = new Random(42);
+    var directions = new ArrayList<RollDirection>();
+
+    for (var i = 0; i < length; i++) {
+      directions.add(switch (chain) {
+        case CLOCKWISE -> RollDirection.CLOCKWISE;
+        case ALTERNATING -> RollDirection.values()[i % 2];
+        case RANDOM -> RollDirection.values()[random.nextInt(2)];
+      });
+    }
+
+    tree = shape.build(size);
+    strategies = new ArrayList<>();
+
+    for (var direction : directions) {
+      strategies.add(RollStrategyFactory.createImmutable(direction));
+    }
+
+    plan = RollPlan.of(directions);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> repeatedRolls() {
+    var rolledTree = tree;
+
+    for (var strategy : strategies) {
+      rolledTree = rolledTree.roll(strategy);
+    }
+
+    return rolledTree;
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> rollPlan() {
+    return plan.applyImmutable(tree);
+  }
+}
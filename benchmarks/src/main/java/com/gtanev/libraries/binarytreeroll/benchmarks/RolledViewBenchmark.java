@@ -0,0 +1,66 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollEngine;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.InorderVisitor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares traversing a zero-copy rolled view with rolling an immutable copy and traversing it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xss64m")
+@State(Scope.Benchmark)
+public class RolledViewBenchmark {
+
+  @Param({"1000000", "4000000"})
+  private int size;
+
+  @Param({"CLOCKWISE", "COUNTERCLOCKWISE"})
+  private RollDirection direction;
+
+  private BinaryTree<Integer> tree;
+  private RollStrategy<Integer> immutableStrategy;
+  private RollStrategy<Integer> fusedStrategy;
+
+  @Setup
+  public void setUp() {
+    tree = BinaryTree.of(IntStream.range(0, size).boxed().toArray(Integer[]::new));
+    immutableStrategy = RollStrategyFactory.createImmutable(direction);
+    fusedStrategy = RollStrategyFactory.createImmutable(direction, RollEngine.FUSED);
+  }
+
+  @Benchmark
+  public void rolledView(Blackhole blackhole) {
+    tree.rolledView(direction).traverse(new InorderVisitor<>(blackhole::consume));
+  }
+
+  @Benchmark
+  public void immutableRoll(Blackhole blackhole) {
+    tree.roll(immutableStrategy).traverse(new InorderVisitor<>(blackhole::consume));
+  }
+
+  @Benchmark
+  public void fusedImmutableRoll(Blackhole blackhole) {
+    tree.roll(fusedStrategy).traverse(new InorderVisitor<>(blackhole::consume));
+  }
+}
@@ -0,0 +1,56 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollEngine;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures mutable rolls whose strategies are requested from {@link RollStrategyFactory} on every
+ * invocation, as a caller without a strategy of its own would do. The factory returns shared
+ * strategies, and their handlers keep no state, so once the tree metadata and the stack of the
+ * thread are warm, the rolls should allocate nothing; run with {@code -prof gc} to check the
+ * {@code gc.alloc.rate.norm} of every benchmark. Each invocation rolls the tree and rolls it back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xss1g"})
+@State(Scope.Benchmark)
+public class SharedStrategyBenchmark {
+
+  @Param({"1000", "100000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM", "LEFT_DEGENERATE"})
+  private TreeShape shape;
+
+  @Param({"RECURSIVE", "ITERATIVE"})
+  private RollEngine engine;
+
+  private BinaryTree<Integer> tree;
+
+  @Setup
+  public void setUp() {
+    tree = shape.build(size);
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> rollWithFactoryStrategies() {
+    return tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE, engine))
+        .roll(RollStrategyFactory.create(RollDirection.COUNTERCLOCKWISE, engine));
+  }
+}
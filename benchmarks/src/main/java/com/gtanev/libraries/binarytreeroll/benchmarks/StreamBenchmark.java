@@ -0,0 +1,54 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.TraversalOrder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares sequential and parallel streams over the values of a tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StreamBenchmark {
+
+  @Param({"10000000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM"})
+  private TreeShape shape;
+
+  @Param({"PREORDER", "INORDER", "LEVEL_ORDER"})
+  private TraversalOrder order;
+
+  private BinaryTree<Integer> tree;
+
+  @Setup
+  public void setUp() {
+    tree = shape.build(size);
+  }
+
+  @Benchmark
+  public long sequentialStream() {
+    return tree.stream(order).mapToLong(Integer::longValue).sum();
+  }
+
+  @Benchmark
+  public long parallelStream() {
+    return tree.stream(order).parallel().mapToLong(Integer::longValue).sum();
+  }
+}
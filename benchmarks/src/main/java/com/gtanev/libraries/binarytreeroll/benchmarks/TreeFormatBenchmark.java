@@ -0,0 +1,71 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.io.DotTreeFormat;
+import com.gtanev.libraries.binarytreeroll.io.JsonTreeFormat;
+import com.gtanev.libraries.binarytreeroll.io.TokenTreeFormat;
+import com.gtanev.libraries.binarytreeroll.io.TreeFormat;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures exporting a complete binary tree in each text format, and importing it back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TreeFormatBenchmark {
+
+  @Param({"10000000"})
+  private int size;
+
+  @Param({"JSON_NESTED", "JSON_LEVEL_ORDER", "DOT", "TOKENS"})
+  private String format;
+
+  private TreeFormat<Integer> treeFormat;
+  private BinaryTree<Integer> tree;
+  private byte[] text;
+
+  @Setup
+  public void setUp() throws IOException {
+    treeFormat = switch (format) {
+      case "JSON_NESTED" -> JsonTreeFormat.nested(Integer::valueOf);
+      case "JSON_LEVEL_ORDER" -> JsonTreeFormat.levelOrder(Integer::valueOf);
+      case "DOT" -> new DotTreeFormat<>(Integer::valueOf);
+      default -> new TokenTreeFormat<>("null", Integer::valueOf);
+    };
+    tree = BinaryTree.of(IntStream.range(0, size).boxed().toArray(Integer[]::new));
+
+    var output = new ByteArrayOutputStream();
+    treeFormat.write(tree, output);
+    text = output.toByteArray();
+  }
+
+  @Benchmark
+  public void write() throws IOException {
+    treeFormat.write(tree, OutputStream.nullOutputStream());
+  }
+
+  @Benchmark
+  public BinaryTree<Integer> read() throws IOException {
+    return treeFormat.read(new ByteArrayInputStream(text));
+  }
+}
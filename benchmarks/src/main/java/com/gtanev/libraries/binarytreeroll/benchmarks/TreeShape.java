@@ -0,0 +1,152 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * The shapes of the trees used by the benchmarks, all holding the values from 0 to size - 1.
+ */
+public enum TreeShape {
+  /**
+   * A complete tree, filled level by level.
+   */
+  COMPLETE {
+    @Override
+    public BinaryTree<Integer> build(int size) {
+      return BinaryTree.of(IntStream.range(0, size).boxed().toArray(Integer[]::new));
+    }
+  },
+  /**
+   * A binary search tree built by inserting the values in a random order, with a fixed seed.
+   */
+  RANDOM {
+    @Override
+    public BinaryTree<Integer> build(int size) {
+      var values = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+      var random = new Random(42);
+
+      for (var i = size - 1; i > 0; i--) {
+        var j = random.nextInt(i + 1);
+        var value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+      }
+
+      var root = new Node<>(values[0]);
+
+      for (var i = 1; i < size; i++) {
+        var node = root;
+
+        while (true) {
+          var next = values[i] < node.getValue() ? node.getLeft() : node.getRight();
+
+          if (next == null) {
+            if (values[i] < node.getValue()) {
+              node.setLeft(new Node<>(values[i]));
+            } else {
+              node.setRight(new Node<>(values[i]));
+            }
+            break;
+          }
+
+          node = next;
+        }
+      }
+
+      return new BinaryTree<>(root);
+    }
+  },
+  /**
+   * A degenerate tree, in which every node is the left child of the previous one.
+   */
+  LEFT_DEGENERATE {
+    @Override
+    public BinaryTree<Integer> build(int size) {
+      return chain(size, false, true);
+    }
+  },
+  /**
+   * A degenerate tree, in which every node is the right child of the previous one.
+   */
+  RIGHT_DEGENERATE {
+    @Override
+    public BinaryTree<Integer> build(int size) {
+      return chain(size, true, true);
+    }
+  },
+  /**
+   * A degenerate tree, in which the nodes are alternately the left and the right child of the
+   * previous one.
+   */
+  ZIGZAG {
+    @Override
+    public BinaryTree<Integer> build(int size) {
+      return chain(size, false, false);
+    }
+  };
+
+  public abstract BinaryTree<Integer> build(int size);
+
+  /**
+   * Returns the values of a tree of this shape in the level-order layout accepted by
+   * {@link BinaryTree#of(Object[])}, with nulls marking the missing nodes.
+   */
+  public Integer[] levelOrder(int size) {
+    var values = new ArrayList<Integer>();
+    var queue = new ArrayDeque<Node<Integer>>();
+    var root = build(size).getRoot();
+    values.add(root.getValue());
+    queue.offer(root);
+
+    while (!queue.isEmpty()) {
+      var node = queue.poll();
+
+      for (var child : Arrays.asList(node.getLeft(), node.getRight())) {
+        values.add(child != null ? child.getValue() : null);
+
+        if (child != null) {
+          queue.offer(child);
+        }
+      }
+    }
+
+    var length = values.size();
+
+    while (values.get(length - 1) == null) {
+      length--;
+    }
+
+    return values.subList(0, length).toArray(Integer[]::new);
+  }
+
+  /**
+   * Builds a chain of nodes, in which the first child is a right child if {@code startRight} is
+   * set, and every next one is on the same side if {@code sameSide} is set, or on the other side
+   * otherwise.
+   */
+  private static BinaryTree<Integer> chain(int size, boolean startRight, boolean sameSide) {
+    var root = new Node<>(0);
+    var node = root;
+    var right = startRight;
+
+    for (var i = 1; i < size; i++) {
+      var child = new Node<>(i);
+
+      if (right) {
+        node.setRight(child);
+      } else {
+        node.setLeft(child);
+      }
+
+      node = child;
+      right = sameSide == right;
+    }
+
+    return new BinaryTree<>(root);
+  }
+}
@@ -0,0 +1,96 @@
+package com.gtanev.libraries.binarytreeroll.benchmarks;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.InorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.IterativeInorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.IterativePostorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.IterativePreorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.MorrisInorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.MorrisPostorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.MorrisPreorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.PostorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.PreorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.TraversalOrder;
+import com.gtanev.libraries.binarytreeroll.tree.Visitor;
+import com.gtanev.libraries.binarytreeroll.tree.VisitorAction;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the throughput of the recursive, the explicit-stack and the Morris visitors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xss1g"})
+@State(Scope.Benchmark)
+public class VisitorBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  private int size;
+
+  @Param({"COMPLETE", "RANDOM", "LEFT_DEGENERATE", "RIGHT_DEGENERATE", "ZIGZAG"})
+  private TreeShape shape;
+
+  @Param({"PREORDER", "INORDER", "POSTORDER"})
+  private TraversalOrder order;
+
+  private BinaryTree<Integer> tree;
+  private Blackhole blackhole;
+  private Visitor<Integer> recursiveVisitor;
+  private Visitor<Integer> iterativeVisitor;
+  private Visitor<Integer> morrisVisitor;
+
+  @Setup
+  public void setUp(Blackhole blackhole) {
+    this.tree = shape.build(size);
+    this.blackhole = blackhole;
+
+    VisitorAction<Integer> action = node -> this.blackhole.consume(node.getValue());
+
+    switch (order) {
+      case PREORDER -> {
+        recursiveVisitor = new PreorderVisitor<>(action);
+        iterativeVisitor = new IterativePreorderVisitor<>(action);
+        morrisVisitor = new MorrisPreorderVisitor<>(action);
+      }
+      case INORDER -> {
+        recursiveVisitor = new InorderVisitor<>(action);
+        iterativeVisitor = new IterativeInorderVisitor<>(action);
+        morrisVisitor = new MorrisInorderVisitor<>(action);
+      }
+      default -> {
+        recursiveVisitor = new PostorderVisitor<>(action);
+        iterativeVisitor = new IterativePostorderVisitor<>(action);
+        morrisVisitor = new MorrisPostorderVisitor<>(action);
+      }
+    }
+  }
+
+  @Benchmark
+  public void recursiveVisitor() {
+    tree.traverse(recursiveVisitor);
+  }
+
+  @Benchmark
+  public void iterativeVisitor() {
+    tree.traverse(iterativeVisitor);
+  }
+
+  @Benchmark
+  public void morrisVisitor() {
+    tree.traverse(morrisVisitor);
+  }
+}
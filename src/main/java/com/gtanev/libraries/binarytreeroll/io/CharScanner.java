@@ -0,0 +1,79 @@
+package com.gtanev.libraries.binarytreeroll.io;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads characters from a reader through a buffer of its own, with one character of lookahead.
+ */
+final class CharScanner {
+
+  static final int END = -1;
+
+  private final Reader reader;
+  private final char[] buffer = new char[8192];
+  private int position;
+  private int limit;
+
+  CharScanner(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Returns the next character without consuming it, or {@link #END} at the end of the input.
+   */
+  int peek() throws IOException {
+    if (position == limit && !fill()) {
+      return END;
+    }
+
+    return buffer[position];
+  }
+
+  /**
+   * Consumes and returns the next character, or returns {@link #END} at the end of the input.
+   */
+  int read() throws IOException {
+    var c = peek();
+
+    if (c != END) {
+      position++;
+    }
+
+    return c;
+  }
+
+  /**
+   * Skips any whitespace and returns the next character without consuming it.
+   */
+  int skipWhitespace() throws IOException {
+    int c;
+
+    while ((c = peek()) != END && Character.isWhitespace(c)) {
+      position++;
+    }
+
+    return c;
+  }
+
+  /**
+   * Reads the next characters into the buffer. A reader blocks until it has read at least one
+   * character, so one that returns none is an error rather than a reason to read again, which
+   * would spin for as long as it does so.
+   */
+  private boolean fill() throws IOException {
+    var count = reader.read(buffer);
+
+    if (count == 0) {
+      throw new IOException("The reader returned no characters without reaching the end.");
+    }
+
+    if (count < 0) {
+      return false;
+    }
+
+    position = 0;
+    limit = count;
+    return true;
+  }
+}
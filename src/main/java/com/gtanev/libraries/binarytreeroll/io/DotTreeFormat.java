@@ -0,0 +1,317 @@
+package com.gtanev.libraries.binarytreeroll.io;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Exports binary trees as Graphviz DOT digraphs, and imports the digraphs it exports.
+ *
+ * <p>The nodes are numbered and written in preorder, one statement per line, with the formatted
+ * value as the label of each node. Every node other than the root is followed by the edge from
+ * its parent, whose tail port is {@code sw} for a left child and {@code se} for a right child, so
+ * the rendered tree keeps the children on their sides:
+ *
+ * <pre>
+ * digraph tree {
+ *   n0 [label="1"];
+ *   n1 [label="2"];
+ *   n0 -&gt; n1 [tailport=sw];
+ * }
+ * </pre>
+ *
+ * <p>The digraph is written and read with an explicit stack, which grows with the height of the
+ * tree. Only digraphs in this layout can be read.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public final class DotTreeFormat<T> implements TreeFormat<T> {
+
+  private static final String LEFT_PORT = "sw";
+  private static final String RIGHT_PORT = "se";
+
+  private final Function<? super T, String> formatter;
+  private final Function<String, ? extends T> parser;
+
+  /**
+   * Creates a format which formats values with {@link String#valueOf}.
+   *
+   * @param parser the function that parses a label into a value
+   */
+  public DotTreeFormat(Function<String, ? extends T> parser) {
+    this(String::valueOf, parser);
+  }
+
+  /**
+   * Creates a format.
+   *
+   * @param formatter the function that formats a value into a label
+   * @param parser    the function that parses a label into a value
+   */
+  public DotTreeFormat(Function<? super T, String> formatter,
+      Function<String, ? extends T> parser) {
+    this.formatter = Objects.requireNonNull(formatter);
+    this.parser = Objects.requireNonNull(parser);
+  }
+
+  @Override
+  public void write(BinaryTree<T> tree, Writer writer) throws IOException {
+    writer.write("digraph tree {\n");
+
+    if (tree.getRoot() != null) {
+      var stack = new PathStack<T>();
+      stack.push(tree.getRoot(), -1, null);
+      var id = 0;
+
+      while (!stack.isEmpty()) {
+        var node = stack.node();
+        var parentId = stack.id();
+        var port = stack.port();
+        stack.pop();
+
+        writer.write("  n");
+        writer.write(Integer.toString(id));
+        writer.write(" [label=\"");
+        writeLabel(formatter.apply(node.getValue()), writer);
+        writer.write("\"];\n");
+
+        if (parentId >= 0) {
+          writer.write("  n");
+          writer.write(Integer.toString(parentId));
+          writer.write(" -> n");
+          writer.write(Integer.toString(id));
+          writer.write(" [tailport=");
+          writer.write(port);
+          writer.write("];\n");
+        }
+
+        if (node.getRight() != null) {
+          stack.push(node.getRight(), id, RIGHT_PORT);
+        }
+
+        if (node.getLeft() != null) {
+          stack.push(node.getLeft(), id, LEFT_PORT);
+        }
+
+        id++;
+      }
+    }
+
+    writer.write("}\n");
+  }
+
+  /**
+   * Reads the statements line by line. The stack holds the path from the root to the last node
+   * that has been linked, which the parent of the next node is always on, because the nodes come
+   * in preorder.
+   */
+  @Override
+  public BinaryTree<T> read(Reader reader) throws IOException {
+    var lines = new BufferedReader(reader);
+    var line = nextStatement(lines);
+
+    if (line == null || !line.startsWith("digraph")) {
+      throw new IOException("Malformed DOT tree: expected a digraph.");
+    }
+
+    var path = new PathStack<T>();
+    Node<T> root = null;
+    Node<T> pending = null;
+    var pendingId = -1;
+
+    while ((line = nextStatement(lines)) != null && !line.equals("}")) {
+      var arrow = line.indexOf("->");
+      var attributes = line.indexOf('[');
+
+      if (arrow < 0 || (attributes >= 0 && attributes < arrow)) {
+        if (pending != null) {
+          throw new IOException("Malformed DOT tree: node n" + pendingId + " has no parent.");
+        }
+
+        var node = new Node<T>(parser.apply(parseLabel(line)));
+        var id = parseId(line, 0);
+
+        if (root == null) {
+          root = node;
+          path.push(node, id, null);
+        } else {
+          pending = node;
+          pendingId = id;
+        }
+
+        continue;
+      }
+
+      var parentId = parseId(line, 0);
+      var childId = parseId(line, arrow + 2);
+
+      if (pending == null || childId != pendingId) {
+        throw new IOException("Malformed DOT tree: unexpected edge to n" + childId + ".");
+      }
+
+      while (!path.isEmpty() && path.id() != parentId) {
+        path.pop();
+      }
+
+      if (path.isEmpty()) {
+        throw new IOException("Malformed DOT tree: node n" + parentId + " is not an ancestor.");
+      }
+
+      var parent = path.node();
+
+      if (line.contains("tailport=" + LEFT_PORT) && parent.getLeft() == null) {
+        parent.setLeft(pending);
+      } else if (line.contains("tailport=" + RIGHT_PORT) && parent.getRight() == null) {
+        parent.setRight(pending);
+      } else {
+        throw new IOException("Malformed DOT tree: no free side for n" + childId + ".");
+      }
+
+      path.push(pending, pendingId, null);
+      pending = null;
+    }
+
+    if (line == null) {
+      throw new IOException("Malformed DOT tree: unterminated digraph.");
+    }
+
+    if (pending != null) {
+      throw new IOException("Malformed DOT tree: node n" + pendingId + " has no parent.");
+    }
+
+    return new BinaryTree<>(root);
+  }
+
+  private static void writeLabel(String label, Writer writer) throws IOException {
+    var start = 0;
+
+    for (var i = 0; i < label.length(); i++) {
+      var c = label.charAt(i);
+
+      if (c == '"' || c == '\\' || c == '\n') {
+        writer.write(label, start, i - start);
+        writer.write(c == '\n' ? "\\n" : "\\" + c);
+        start = i + 1;
+      }
+    }
+
+    writer.write(label, start, label.length() - start);
+  }
+
+  private static String nextStatement(BufferedReader lines) throws IOException {
+    String line;
+
+    while ((line = lines.readLine()) != null) {
+      line = line.strip();
+
+      if (!line.isEmpty()) {
+        return line;
+      }
+    }
+
+    return null;
+  }
+
+  private static int parseId(String line, int from) throws IOException {
+    var start = from;
+
+    while (start < line.length() && line.charAt(start) == ' ') {
+      start++;
+    }
+
+    var end = start + 1;
+
+    while (end < line.length() && Character.isDigit(line.charAt(end))) {
+      end++;
+    }
+
+    if (start >= line.length() || line.charAt(start) != 'n' || end == start + 1) {
+      throw new IOException("Malformed DOT tree: expected a node id in \"" + line + "\".");
+    }
+
+    return Integer.parseInt(line, start + 1, end, 10);
+  }
+
+  private static String parseLabel(String line) throws IOException {
+    var start = line.indexOf("label=\"");
+
+    if (start < 0) {
+      throw new IOException("Malformed DOT tree: expected a label in \"" + line + "\".");
+    }
+
+    var label = new StringBuilder();
+
+    for (var i = start + 7; i < line.length(); i++) {
+      var c = line.charAt(i);
+
+      if (c == '"') {
+        return label.toString();
+      }
+
+      if (c == '\\' && i + 1 < line.length()) {
+        c = line.charAt(++i);
+        label.append(c == 'n' ? '\n' : c);
+      } else {
+        label.append(c);
+      }
+    }
+
+    throw new IOException("Malformed DOT tree: unterminated label in \"" + line + "\".");
+  }
+
+  /**
+   * A stack of nodes with their ids, or the ids of their parents, and the ports of the edges to
+   * them, kept in parallel arrays.
+   */
+  private static final class PathStack<T> {
+
+    private Node<T>[] nodes;
+    private int[] ids = new int[16];
+    private String[] ports = new String[16];
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    PathStack() {
+      this.nodes = (Node<T>[]) new Node<?>[16];
+    }
+
+    void push(Node<T> node, int id, String port) {
+      if (size == nodes.length) {
+        nodes = Arrays.copyOf(nodes, size << 1);
+        ids = Arrays.copyOf(ids, size << 1);
+        ports = Arrays.copyOf(ports, size << 1);
+      }
+
+      nodes[size] = node;
+      ids[size] = id;
+      ports[size] = port;
+      size++;
+    }
+
+    Node<T> node() {
+      return nodes[size - 1];
+    }
+
+    int id() {
+      return ids[size - 1];
+    }
+
+    String port() {
+      return ports[size - 1];
+    }
+
+    void pop() {
+      nodes[--size] = null;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+  }
+}
@@ -0,0 +1,494 @@
+package com.gtanev.libraries.binarytreeroll.io;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Exports and imports binary trees as JSON, in one of two layouts:
+ *
+ * <ul>
+ *   <li>nested, where every node is an object with a {@code "value"} member and optional
+ *   {@code "left"} and {@code "right"} members holding its children, and an empty tree is
+ *   {@code null}, e.g. <code>{"value":1,"left":{"value":2},"right":{"value":3}}</code>;</li>
+ *   <li>level-order, where the tree is an array of values in the layout accepted by
+ *   {@link BinaryTree#of(Object[])}, with {@code null} marking the missing nodes, e.g.
+ *   {@code [1,null,2,3]}.</li>
+ * </ul>
+ *
+ * <p>Values that are numbers or booleans are written as they are formatted, and all other values
+ * as JSON strings. When a tree is read, the text of every number, boolean or string value, with the
+ * escapes of a string resolved, is passed to the parser, and {@code null} values are read as
+ * {@code null}.
+ *
+ * <p>The nested layout is written and read with an explicit stack, which grows with the height of
+ * the tree. The level-order layout is written and read with a queue, which grows with the width of
+ * the widest level of the tree.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public final class JsonTreeFormat<T> implements TreeFormat<T> {
+
+  private final boolean nested;
+  private final Function<? super T, String> formatter;
+  private final Function<String, ? extends T> parser;
+
+  private JsonTreeFormat(boolean nested, Function<? super T, String> formatter,
+      Function<String, ? extends T> parser) {
+    this.nested = nested;
+    this.formatter = Objects.requireNonNull(formatter);
+    this.parser = Objects.requireNonNull(parser);
+  }
+
+  /**
+   * Creates a format for the nested layout, which formats values with {@link String#valueOf}.
+   *
+   * @param parser the function that parses the text of a value
+   *
+   * @return the format
+   */
+  public static <T> JsonTreeFormat<T> nested(Function<String, ? extends T> parser) {
+    return new JsonTreeFormat<>(true, String::valueOf, parser);
+  }
+
+  /**
+   * Creates a format for the nested layout.
+   *
+   * @param formatter the function that formats a value
+   * @param parser    the function that parses the text of a value
+   *
+   * @return the format
+   */
+  public static <T> JsonTreeFormat<T> nested(Function<? super T, String> formatter,
+      Function<String, ? extends T> parser) {
+    return new JsonTreeFormat<>(true, formatter, parser);
+  }
+
+  /**
+   * Creates a format for the level-order layout, which formats values with {@link String#valueOf}.
+   *
+   * @param parser the function that parses the text of a value
+   *
+   * @return the format
+   */
+  public static <T> JsonTreeFormat<T> levelOrder(Function<String, ? extends T> parser) {
+    return new JsonTreeFormat<>(false, String::valueOf, parser);
+  }
+
+  /**
+   * Creates a format for the level-order layout.
+   *
+   * @param formatter the function that formats a value
+   * @param parser    the function that parses the text of a value
+   *
+   * @return the format
+   */
+  public static <T> JsonTreeFormat<T> levelOrder(Function<? super T, String> formatter,
+      Function<String, ? extends T> parser) {
+    return new JsonTreeFormat<>(false, formatter, parser);
+  }
+
+  @Override
+  public void write(BinaryTree<T> tree, Writer writer) throws IOException {
+    if (nested) {
+      writeNested(tree.getRoot(), writer);
+    } else {
+      writer.write('[');
+      LevelOrderWriter.write(tree.getRoot(), writer, ',', "null", this::writeValue);
+      writer.write(']');
+    }
+  }
+
+  @Override
+  public BinaryTree<T> read(Reader reader) throws IOException {
+    var lexer = new Lexer(new CharScanner(reader));
+    var tree = nested ? readNested(lexer) : readLevelOrder(lexer);
+    lexer.expect(Token.END);
+    return tree;
+  }
+
+  /**
+   * Writes the nodes in preorder. The stack holds the nodes still to be written, interleaved with
+   * the keys that precede them and the closing braces of the objects that are still open.
+   */
+  @SuppressWarnings("unchecked")
+  private void writeNested(Node<T> root, Writer writer) throws IOException {
+    if (root == null) {
+      writer.write("null");
+      return;
+    }
+
+    var stack = new ArrayDeque<>();
+    stack.push(root);
+
+    while (!stack.isEmpty()) {
+      var item = stack.pop();
+
+      if (item instanceof String text) {
+        writer.write(text);
+        continue;
+      }
+
+      var node = (Node<T>) item;
+      writer.write("{\"value\":");
+      writeValue(node.getValue(), writer);
+      stack.push("}");
+
+      if (node.getRight() != null) {
+        stack.push(node.getRight());
+        stack.push(",\"right\":");
+      }
+
+      if (node.getLeft() != null) {
+        stack.push(node.getLeft());
+        stack.push(",\"left\":");
+      }
+    }
+  }
+
+  private void writeValue(T value, Writer writer) throws IOException {
+    if (value == null) {
+      writer.write("null");
+    } else if (value instanceof Number || value instanceof Boolean) {
+      writer.write(formatter.apply(value));
+    } else {
+      writeString(formatter.apply(value), writer);
+    }
+  }
+
+  private static void writeString(String text, Writer writer) throws IOException {
+    writer.write('"');
+    var start = 0;
+
+    for (var i = 0; i < text.length(); i++) {
+      var c = text.charAt(i);
+
+      if (c == '"' || c == '\\' || c < 0x20) {
+        writer.write(text, start, i - start);
+        writer.write(escape(c));
+        start = i + 1;
+      }
+    }
+
+    writer.write(text, start, text.length() - start);
+    writer.write('"');
+  }
+
+  private static String escape(char c) {
+    return switch (c) {
+      case '"' -> "\\\"";
+      case '\\' -> "\\\\";
+      case '\b' -> "\\b";
+      case '\f' -> "\\f";
+      case '\n' -> "\\n";
+      case '\r' -> "\\r";
+      case '\t' -> "\\t";
+      default -> String.format("\\u%04x", (int) c);
+    };
+  }
+
+  /**
+   * Reads the nodes in preorder. The stack holds the objects that are still open, and a new node
+   * is linked to its parent as soon as its opening brace is read.
+   */
+  private BinaryTree<T> readNested(Lexer lexer) throws IOException {
+    var token = lexer.next();
+
+    if (lexer.isNull(token)) {
+      return new BinaryTree<>();
+    }
+
+    lexer.require(token, Token.BEGIN_OBJECT);
+    var root = new Node<T>();
+    var stack = new ArrayDeque<Node<T>>();
+    stack.push(root);
+    var afterMember = false;
+
+    while (!stack.isEmpty()) {
+      token = lexer.next();
+
+      if (token == Token.END_OBJECT) {
+        stack.pop();
+        afterMember = true;
+        continue;
+      }
+
+      if (afterMember) {
+        lexer.require(token, Token.COMMA);
+        token = lexer.next();
+      }
+
+      lexer.require(token, Token.STRING);
+      var member = lexer.member();
+      lexer.expect(Token.COLON);
+      var node = stack.peek();
+
+      if (member == Member.VALUE) {
+        node.setValue(readValue(lexer, lexer.next()));
+        afterMember = true;
+        continue;
+      }
+
+      token = lexer.next();
+
+      if (lexer.isNull(token)) {
+        afterMember = true;
+      } else {
+        lexer.require(token, Token.BEGIN_OBJECT);
+        var child = new Node<T>();
+
+        if (member == Member.LEFT) {
+          node.setLeft(child);
+        } else {
+          node.setRight(child);
+        }
+
+        stack.push(child);
+        afterMember = false;
+      }
+    }
+
+    return new BinaryTree<>(root);
+  }
+
+  private BinaryTree<T> readLevelOrder(Lexer lexer) throws IOException {
+    lexer.expect(Token.BEGIN_ARRAY);
+    var values = new LevelOrderValues(lexer);
+
+    try {
+      var tree = BinaryTree.of(values, null);
+
+      while (values.hasNext()) {
+        values.next();
+      }
+
+      return tree;
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private T readValue(Lexer lexer, Token token) throws IOException {
+    if (lexer.isNull(token)) {
+      return null;
+    }
+
+    if (token != Token.STRING && token != Token.LITERAL) {
+      throw new IOException("Malformed JSON tree: expected a value, found " + token + ".");
+    }
+
+    return parser.apply(lexer.text());
+  }
+
+  /**
+   * An iterator over the values of a level-order array, read one at a time as they are needed.
+   */
+  private final class LevelOrderValues implements Iterator<T> {
+
+    private final Lexer lexer;
+    private boolean first = true;
+    private boolean ended;
+    private boolean hasPeeked;
+    private T peeked;
+
+    LevelOrderValues(Lexer lexer) {
+      this.lexer = lexer;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (!hasPeeked && !ended) {
+        try {
+          peek();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+
+      return hasPeeked;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      hasPeeked = false;
+      var value = peeked;
+      peeked = null;
+      return value;
+    }
+
+    private void peek() throws IOException {
+      var token = lexer.next();
+
+      if (token == Token.END_ARRAY) {
+        ended = true;
+        return;
+      }
+
+      if (!first) {
+        lexer.require(token, Token.COMMA);
+        token = lexer.next();
+      }
+
+      first = false;
+      peeked = readValue(lexer, token);
+      hasPeeked = true;
+    }
+  }
+
+  private enum Member {
+    VALUE, LEFT, RIGHT
+  }
+
+  private enum Token {
+    BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, COLON, COMMA, STRING, LITERAL, END
+  }
+
+  /**
+   * Splits JSON text into tokens. The text of the last string or literal token is kept in a
+   * reusable buffer.
+   */
+  private static final class Lexer {
+
+    private final CharScanner scanner;
+    private final StringBuilder text = new StringBuilder();
+
+    Lexer(CharScanner scanner) {
+      this.scanner = scanner;
+    }
+
+    Token next() throws IOException {
+      var c = scanner.skipWhitespace();
+
+      if (c == CharScanner.END) {
+        return Token.END;
+      }
+
+      scanner.read();
+
+      return switch (c) {
+        case '{' -> Token.BEGIN_OBJECT;
+        case '}' -> Token.END_OBJECT;
+        case '[' -> Token.BEGIN_ARRAY;
+        case ']' -> Token.END_ARRAY;
+        case ':' -> Token.COLON;
+        case ',' -> Token.COMMA;
+        case '"' -> readString();
+        default -> readLiteral(c);
+      };
+    }
+
+    String text() {
+      return text.toString();
+    }
+
+    /**
+     * Returns the member of a node named by the last string token, without copying its text.
+     */
+    Member member() throws IOException {
+      if ("value".contentEquals(text)) {
+        return Member.VALUE;
+      } else if ("left".contentEquals(text)) {
+        return Member.LEFT;
+      } else if ("right".contentEquals(text)) {
+        return Member.RIGHT;
+      }
+
+      throw new IOException("Malformed JSON tree: unexpected member \"" + text + "\".");
+    }
+
+    boolean isNull(Token token) {
+      return token == Token.LITERAL && "null".contentEquals(text);
+    }
+
+    void expect(Token expected) throws IOException {
+      require(next(), expected);
+    }
+
+    void require(Token token, Token expected) throws IOException {
+      if (token != expected) {
+        throw new IOException("Malformed JSON tree: expected " + expected + ", found " + token
+            + ".");
+      }
+    }
+
+    private Token readString() throws IOException {
+      text.setLength(0);
+
+      while (true) {
+        var c = scanner.read();
+
+        if (c == '"') {
+          return Token.STRING;
+        }
+
+        if (c == CharScanner.END) {
+          throw new IOException("Malformed JSON tree: unterminated string.");
+        }
+
+        if (c == '\\') {
+          c = scanner.read();
+
+          switch (c) {
+            case '"', '\\', '/' -> text.append((char) c);
+            case 'b' -> text.append('\b');
+            case 'f' -> text.append('\f');
+            case 'n' -> text.append('\n');
+            case 'r' -> text.append('\r');
+            case 't' -> text.append('\t');
+            case 'u' -> text.append(readUnicodeEscape());
+            default -> throw new IOException("Malformed JSON tree: invalid escape sequence.");
+          }
+        } else {
+          text.append((char) c);
+        }
+      }
+    }
+
+    private char readUnicodeEscape() throws IOException {
+      var code = 0;
+
+      for (var i = 0; i < 4; i++) {
+        var digit = Character.digit(scanner.read(), 16);
+
+        if (digit < 0) {
+          throw new IOException("Malformed JSON tree: invalid unicode escape.");
+        }
+
+        code = (code << 4) | digit;
+      }
+
+      return (char) code;
+    }
+
+    private Token readLiteral(int first) throws IOException {
+      if (first != '-' && first != 't' && first != 'f' && first != 'n'
+          && (first < '0' || first > '9')) {
+        throw new IOException("Malformed JSON tree: unexpected character '" + (char) first
+            + "'.");
+      }
+
+      text.setLength(0);
+      text.append((char) first);
+      int c;
+
+      while ((c = scanner.peek()) != CharScanner.END && !Character.isWhitespace(c)
+          && c != ',' && c != ':' && c != '[' && c != ']' && c != '{' && c != '}' && c != '"') {
+        text.append((char) scanner.read());
+      }
+
+      return Token.LITERAL;
+    }
+  }
+}
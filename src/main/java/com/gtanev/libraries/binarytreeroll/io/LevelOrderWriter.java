@@ -0,0 +1,63 @@
+package com.gtanev.libraries.binarytreeroll.io;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+
+/**
+ * Writes the level-order values of a tree in the layout accepted by
+ * {@link com.gtanev.libraries.binarytreeroll.tree.BinaryTree#of(Object[])}, in which every node is
+ * followed, level by level, by the values of its two children or the null markers of the missing
+ * ones.
+ *
+ * <p>The nodes awaiting their children are kept in a queue, which grows to the width of the widest
+ * level of the tree. The null markers are counted rather than written as they are met, so the ones
+ * that trail the last node are left out.
+ */
+final class LevelOrderWriter {
+
+  private LevelOrderWriter() {}
+
+  static <T> void write(Node<T> root, Writer writer, char separator, String nullMarker,
+      ValueWriter<? super T> valueWriter) throws IOException {
+    if (root == null) {
+      return;
+    }
+
+    var queue = new ArrayDeque<Node<T>>();
+    var pendingNulls = 0;
+    valueWriter.write(root.getValue(), writer);
+    queue.offer(root);
+
+    while (!queue.isEmpty()) {
+      var node = queue.poll();
+      pendingNulls = writeChild(node.getLeft(), queue, pendingNulls, writer, separator,
+          nullMarker, valueWriter);
+      pendingNulls = writeChild(node.getRight(), queue, pendingNulls, writer, separator,
+          nullMarker, valueWriter);
+    }
+  }
+
+  /**
+   * Writes a child, preceded by the null markers counted so far, or counts its null marker if it
+   * is missing, and returns the number of null markers still to be written.
+   */
+  private static <T> int writeChild(Node<T> child, ArrayDeque<Node<T>> queue, int pendingNulls,
+      Writer writer, char separator, String nullMarker, ValueWriter<? super T> valueWriter)
+      throws IOException {
+    if (child == null) {
+      return pendingNulls + 1;
+    }
+
+    for (var i = 0; i < pendingNulls; i++) {
+      writer.write(separator);
+      writer.write(nullMarker);
+    }
+
+    writer.write(separator);
+    valueWriter.write(child.getValue(), writer);
+    queue.offer(child);
+    return 0;
+  }
+}
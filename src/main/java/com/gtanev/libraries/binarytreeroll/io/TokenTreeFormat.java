@@ -0,0 +1,134 @@
+package com.gtanev.libraries.binarytreeroll.io;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Exports and imports binary trees as level-order tokens, in the layout accepted by
+ * {@link BinaryTree#of(Object[])} and {@link BinaryTree#read(ReadableByteChannel, String,
+ * Function)}, with a null token marking the missing nodes, e.g. {@code 1,null,2,3}.
+ *
+ * <p>The tokens are written separated by commas and followed by a line break, and are read
+ * separated by any mix of commas and whitespace. The tokens are written and read with a queue,
+ * which grows with the width of the widest level of the tree.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public final class TokenTreeFormat<T> implements TreeFormat<T> {
+
+  private final String nullToken;
+  private final Function<? super T, String> formatter;
+  private final Function<String, ? extends T> parser;
+
+  /**
+   * Creates a format which formats values with {@link String#valueOf}.
+   *
+   * @param nullToken the token that represents a null node
+   * @param parser    the function that parses a token into a value
+   */
+  public TokenTreeFormat(String nullToken, Function<String, ? extends T> parser) {
+    this(nullToken, String::valueOf, parser);
+  }
+
+  /**
+   * Creates a format.
+   *
+   * @param nullToken the token that represents a null node
+   * @param formatter the function that formats a value into a token
+   * @param parser    the function that parses a token into a value
+   */
+  public TokenTreeFormat(String nullToken, Function<? super T, String> formatter,
+      Function<String, ? extends T> parser) {
+    this.nullToken = Objects.requireNonNull(nullToken);
+    this.formatter = Objects.requireNonNull(formatter);
+    this.parser = Objects.requireNonNull(parser);
+  }
+
+  @Override
+  public void write(BinaryTree<T> tree, Writer writer) throws IOException {
+    LevelOrderWriter.write(tree.getRoot(), writer, ',', nullToken,
+        (value, out) -> out.write(value != null ? formatter.apply(value) : nullToken));
+    writer.write('\n');
+  }
+
+  @Override
+  public BinaryTree<T> read(Reader reader) throws IOException {
+    try {
+      return BinaryTree.of(new Tokens(new CharScanner(reader)), null);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Reads a tree with {@link BinaryTree#read(ReadableByteChannel, String, Function)}, which splits
+   * the tokens without decoding the whole input into characters first.
+   */
+  @Override
+  public BinaryTree<T> read(ReadableByteChannel channel) throws IOException {
+    return BinaryTree.read(channel, nullToken, parser);
+  }
+
+  /**
+   * An iterator over the values of the tokens read from a scanner, read one at a time as they are
+   * needed. The characters of the current token are kept in a reusable buffer.
+   */
+  private final class Tokens implements Iterator<T> {
+
+    private final CharScanner scanner;
+    private final StringBuilder token = new StringBuilder();
+    private boolean hasToken;
+
+    Tokens(CharScanner scanner) {
+      this.scanner = scanner;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (!hasToken) {
+        try {
+          hasToken = readToken();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+
+      return hasToken;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      hasToken = false;
+      return nullToken.contentEquals(token) ? null : parser.apply(token.toString());
+    }
+
+    private boolean readToken() throws IOException {
+      token.setLength(0);
+      int c;
+
+      while ((c = scanner.read()) != CharScanner.END) {
+        if (c == ',' || Character.isWhitespace(c)) {
+          if (token.length() > 0) {
+            break;
+          }
+        } else {
+          token.append((char) c);
+        }
+      }
+
+      return token.length() > 0;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.gtanev.libraries.binarytreeroll.io;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A text format into which binary trees are exported and from which they are imported.
+ *
+ * <p>Trees are written as they are walked and built as they are read, so neither side holds the
+ * text as a whole. The writers write many short strings, so a {@link Writer} passed to them should
+ * be buffered. The byte-oriented methods use UTF-8 and leave their streams and channels open.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public interface TreeFormat<T> {
+
+  /**
+   * Writes the given tree.
+   *
+   * @param tree   the tree
+   * @param writer the writer
+   *
+   * @throws IOException if the tree cannot be written
+   */
+  void write(BinaryTree<T> tree, Writer writer) throws IOException;
+
+  /**
+   * Reads a tree.
+   *
+   * @param reader the reader
+   *
+   * @return the tree
+   *
+   * @throws IOException if the tree cannot be read, or if the text is not in this format
+   */
+  BinaryTree<T> read(Reader reader) throws IOException;
+
+  default void write(BinaryTree<T> tree, OutputStream outputStream) throws IOException {
+    var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+        1 << 16);
+    write(tree, writer);
+    writer.flush();
+  }
+
+  default BinaryTree<T> read(InputStream inputStream) throws IOException {
+    return read(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads a tree from the given channel, which must be in blocking mode.
+   *
+   * @param channel the channel
+   *
+   * @return the tree
+   *
+   * @throws IOException if the tree cannot be read, or if the text is not in this format
+   * @throws IllegalBlockingModeException if the channel is in non-blocking mode
+   */
+  default BinaryTree<T> read(ReadableByteChannel channel) throws IOException {
+    if (channel instanceof SelectableChannel selectableChannel && !selectableChannel.isBlocking()) {
+      throw new IllegalBlockingModeException();
+    }
+
+    return read(Channels.newReader(channel, StandardCharsets.UTF_8));
+  }
+}
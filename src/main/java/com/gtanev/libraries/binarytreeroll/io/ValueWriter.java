@@ -0,0 +1,15 @@
+package com.gtanev.libraries.binarytreeroll.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a single value of a tree.
+ *
+ * @param <T> the type of values held by the tree
+ */
+@FunctionalInterface
+interface ValueWriter<T> {
+
+  void write(T value, Writer writer) throws IOException;
+}
@@ -0,0 +1,53 @@
+package com.gtanev.libraries.binarytreeroll.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated by the current thread, where the JVM supports it through
+ * {@link com.sun.management.ThreadMXBean}.
+ */
+public final class AllocationCounter {
+
+  private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+  private AllocationCounter() {}
+
+  /**
+   * Returns the total number of bytes allocated by the current thread so far.
+   *
+   * @return the allocated bytes, or -1 if the JVM cannot measure them
+   */
+  public static long allocatedBytes() {
+    return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+  }
+
+  /**
+   * Returns the number of bytes allocated by the current thread since the given total was read.
+   *
+   * @param allocatedBytes a total returned by {@link #allocatedBytes()} on the current thread
+   *
+   * @return the allocated bytes, or -1 if the JVM cannot measure them
+   */
+  public static long allocatedSince(long allocatedBytes) {
+    if (allocatedBytes < 0) {
+      return -1;
+    }
+
+    var current = allocatedBytes();
+    return current >= 0 ? current - allocatedBytes : -1;
+  }
+
+  private static com.sun.management.ThreadMXBean threads() {
+    try {
+      if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+          && threads.isThreadAllocatedMemorySupported()) {
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+      }
+    } catch (UnsupportedOperationException | SecurityException e) {
+      return null;
+    }
+
+    return null;
+  }
+}
@@ -0,0 +1,15 @@
+package com.gtanev.libraries.binarytreeroll.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The Flight Recorder event of a deep copy of a binary tree.
+ */
+@Name("com.gtanev.binarytreeroll.Copy")
+@Label("Binary Tree Copy")
+@Category("Binary Tree Roll")
+@Description("A deep copy of a binary tree")
+final class CopyEvent extends TreeEvent {}
@@ -0,0 +1,100 @@
+package com.gtanev.libraries.binarytreeroll.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram of durations in nanoseconds, with one bucket per power of two, so that
+ * every recorded duration is placed in a bucket whose upper bound is less than twice its value.
+ */
+public final class LatencyHistogram {
+
+  private static final int BUCKETS = Long.SIZE;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  /**
+   * Records a duration. Negative durations are recorded as zero.
+   *
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(long nanos) {
+    counts.incrementAndGet(bucketOf(Math.max(nanos, 0)));
+  }
+
+  /**
+   * Returns the number of recorded durations.
+   *
+   * @return the number of recorded durations
+   */
+  public long count() {
+    var count = 0L;
+
+    for (var i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+
+    return count;
+  }
+
+  /**
+   * Returns the number of durations recorded in the bucket with the given index, which holds the
+   * durations from {@code 2^(index - 1)} up to {@link #upperBound(int)}, and zero for index 0.
+   *
+   * @param index the index of the bucket, from 0 to 63
+   *
+   * @return the number of durations in the bucket
+   */
+  public long bucketCount(int index) {
+    return counts.get(index);
+  }
+
+  /**
+   * Returns the largest duration that falls in the bucket with the given index.
+   *
+   * @param index the index of the bucket, from 0 to 63
+   *
+   * @return the upper bound of the bucket, in nanoseconds
+   */
+  public static long upperBound(int index) {
+    return index == BUCKETS - 1 ? Long.MAX_VALUE : (1L << index) - 1;
+  }
+
+  /**
+   * Returns the upper bound of the bucket that holds the given percentile of the recorded
+   * durations, or 0 if none has been recorded.
+   *
+   * @param percentile the percentile, from 0 to 100
+   *
+   * @return the upper bound of the percentile, in nanoseconds
+   */
+  public long percentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+    }
+
+    var snapshot = new long[BUCKETS];
+    var total = 0L;
+
+    for (var i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+
+    var rank = (long) Math.ceil(total * percentile / 100);
+    var seen = 0L;
+
+    for (var i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+
+      if (seen >= Math.max(rank, 1) && snapshot[i] > 0) {
+        return upperBound(i);
+      }
+    }
+
+    return 0;
+  }
+
+  private static int bucketOf(long nanos) {
+    return BUCKETS - Long.numberOfLeadingZeros(nanos);
+  }
+}
@@ -0,0 +1,107 @@
+package com.gtanev.libraries.binarytreeroll.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics that keep the measurements of every operation in memory: the number of operations, the
+ * total number of nodes and allocated bytes, the greatest input height and a latency histogram. The
+ * counters are striped, so concurrent operations do not contend on them.
+ */
+public final class RecordingTreeMetrics implements TreeMetrics {
+
+  private final Map<TreeOperation, OperationStats> stats = new EnumMap<>(TreeOperation.class);
+
+  public RecordingTreeMetrics() {
+    for (var operation : TreeOperation.values()) {
+      stats.put(operation, new OperationStats());
+    }
+  }
+
+  @Override
+  public void record(TreeOperation operation, long durationNanos, long nodes, int inputHeight,
+      long allocatedBytes) {
+    var operationStats = stats.get(operation);
+    operationStats.count.increment();
+    operationStats.maxInputHeight.accumulate(inputHeight);
+    operationStats.latency.record(durationNanos);
+
+    if (nodes >= 0) {
+      operationStats.nodes.add(nodes);
+    }
+
+    if (allocatedBytes >= 0) {
+      operationStats.allocatedBytes.add(allocatedBytes);
+    }
+  }
+
+  /**
+   * Returns the number of recorded operations of the given kind.
+   *
+   * @param operation the operation
+   *
+   * @return the number of operations
+   */
+  public long count(TreeOperation operation) {
+    return stats.get(operation).count.sum();
+  }
+
+  /**
+   * Returns the total number of nodes in the trees of the recorded operations of the given kind,
+   * whose sizes were cached.
+   *
+   * @param operation the operation
+   *
+   * @return the total number of nodes
+   */
+  public long nodes(TreeOperation operation) {
+    return stats.get(operation).nodes.sum();
+  }
+
+  /**
+   * Returns the greatest height of the trees before the recorded operations of the given kind,
+   * among the trees whose heights were cached, which bounds the deepest recursion that the
+   * recursive algorithms can have reached.
+   *
+   * @param operation the operation
+   *
+   * @return the greatest input height, or 0 if no such operation has been recorded
+   */
+  public int maxInputHeight(TreeOperation operation) {
+    return (int) stats.get(operation).maxInputHeight.get();
+  }
+
+  /**
+   * Returns the total number of bytes allocated by the recorded operations of the given kind, for
+   * which the allocations could be measured.
+   *
+   * @param operation the operation
+   *
+   * @return the total number of allocated bytes
+   */
+  public long allocatedBytes(TreeOperation operation) {
+    return stats.get(operation).allocatedBytes.sum();
+  }
+
+  /**
+   * Returns the live histogram of the durations of the operations of the given kind.
+   *
+   * @param operation the operation
+   *
+   * @return the latency histogram
+   */
+  public LatencyHistogram latency(TreeOperation operation) {
+    return stats.get(operation).latency;
+  }
+
+  private static final class OperationStats {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAccumulator maxInputHeight = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram latency = new LatencyHistogram();
+  }
+}
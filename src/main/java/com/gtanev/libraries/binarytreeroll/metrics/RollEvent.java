@@ -0,0 +1,22 @@
+package com.gtanev.libraries.binarytreeroll.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The Flight Recorder event of a roll of a binary tree.
+ */
+@Name("com.gtanev.binarytreeroll.Roll")
+@Label("Binary Tree Roll")
+@Category("Binary Tree Roll")
+@Description("A roll of a binary tree")
+final class RollEvent extends TreeEvent {
+
+  @Label("Direction")
+  String direction;
+
+  @Label("Immutable")
+  boolean immutable;
+}
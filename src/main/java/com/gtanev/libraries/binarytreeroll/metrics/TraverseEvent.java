@@ -0,0 +1,19 @@
+package com.gtanev.libraries.binarytreeroll.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The Flight Recorder event of a traversal of a binary tree.
+ */
+@Name("com.gtanev.binarytreeroll.Traverse")
+@Label("Binary Tree Traversal")
+@Category("Binary Tree Roll")
+@Description("A traversal of a binary tree with a visitor")
+final class TraverseEvent extends TreeEvent {
+
+  @Label("Visitor")
+  String visitor;
+}
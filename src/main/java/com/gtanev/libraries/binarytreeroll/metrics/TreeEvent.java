@@ -0,0 +1,25 @@
+package com.gtanev.libraries.binarytreeroll.metrics;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The fields shared by the Flight Recorder events of the operations on binary trees. The events
+ * are only enabled while a recording is running, which records them unless its settings disable
+ * them or set a threshold that they do not reach.
+ */
+@StackTrace(false)
+abstract class TreeEvent extends Event {
+
+  @Label("Nodes")
+  long nodes;
+
+  @Label("Input Height")
+  int inputHeight;
+
+  @Label("Allocated")
+  @DataAmount
+  long allocatedBytes;
+}
@@ -0,0 +1,115 @@
+package com.gtanev.libraries.binarytreeroll.metrics;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.Visitor;
+import java.util.function.Supplier;
+
+/**
+ * Measures the rolls, deep copies and traversals of binary trees, reporting them both to a
+ * {@link TreeMetrics} and as Flight Recorder events.
+ *
+ * <p>Every operation is measured by its wall-clock duration, the size and the input height of the
+ * tree and the bytes allocated by the calling thread. The input height is the height of the tree
+ * before the operation, which bounds the depth of the call stack of the recursive algorithms and
+ * of the explicit stacks of the iterative ones. The size and the input height are only read from
+ * the metadata that the tree has cached, so an operation never pays for a walk of the tree, and
+ * they are reported as -1 when they are not cached. When neither the metrics nor the events are
+ * enabled, the operation is run directly, and nothing is measured.
+ */
+public final class TreeInstrumentation {
+
+  private TreeInstrumentation() {}
+
+  /**
+   * Rolls the given tree with the given strategy, like {@link RollStrategy#roll}.
+   *
+   * @param tree     the tree to roll
+   * @param strategy the roll strategy
+   * @param metrics  the metrics to report the roll to
+   *
+   * @return the rolled tree
+   */
+  public static <T> BinaryTree<T> roll(BinaryTree<T> tree, RollStrategy<T> strategy,
+      TreeMetrics metrics) {
+    var event = new RollEvent();
+
+    if (!event.isEnabled() && !metrics.isEnabled()) {
+      return strategy.roll(tree);
+    }
+
+    event.direction = strategy.getDirection().name();
+    event.immutable = strategy.isImmutable();
+    return measure(TreeOperation.ROLL, event, tree, metrics, () -> strategy.roll(tree));
+  }
+
+  /**
+   * Copies the given tree, like {@link BinaryTree#deepCopy()}.
+   *
+   * @param tree    the tree to copy
+   * @param metrics the metrics to report the copy to
+   *
+   * @return the copy of the tree
+   */
+  public static <T> BinaryTree<T> deepCopy(BinaryTree<T> tree, TreeMetrics metrics) {
+    var event = new CopyEvent();
+
+    if (!event.isEnabled() && !metrics.isEnabled()) {
+      return tree.deepCopy();
+    }
+
+    return measure(TreeOperation.COPY, event, tree, metrics, tree::deepCopy);
+  }
+
+  /**
+   * Traverses the given tree with the given visitor, like {@link BinaryTree#traverse}.
+   *
+   * @param tree    the tree to traverse
+   * @param visitor the visitor
+   * @param metrics the metrics to report the traversal to
+   */
+  public static <T> void traverse(BinaryTree<T> tree, Visitor<T> visitor, TreeMetrics metrics) {
+    var event = new TraverseEvent();
+
+    if (!event.isEnabled() && !metrics.isEnabled()) {
+      tree.traverse(visitor);
+      return;
+    }
+
+    event.visitor = visitor.getClass().getSimpleName();
+    measure(TreeOperation.TRAVERSE, event, tree, metrics, () -> {
+      tree.traverse(visitor);
+      return null;
+    });
+  }
+
+  /**
+   * Runs the operation between the readings of the clock and the allocation counter.
+   */
+  private static <R> R measure(TreeOperation operation, TreeEvent event, BinaryTree<?> tree,
+      TreeMetrics metrics, Supplier<R> action) {
+    var nodes = tree.cachedSize();
+    var inputHeight = (int) tree.cachedHeight();
+
+    var allocatedBefore = AllocationCounter.allocatedBytes();
+    event.begin();
+    var start = System.nanoTime();
+    var result = action.get();
+    var duration = System.nanoTime() - start;
+    event.end();
+    var allocated = AllocationCounter.allocatedSince(allocatedBefore);
+
+    if (event.shouldCommit()) {
+      event.nodes = nodes;
+      event.inputHeight = inputHeight;
+      event.allocatedBytes = allocated;
+      event.commit();
+    }
+
+    if (metrics.isEnabled()) {
+      metrics.record(operation, duration, nodes, inputHeight, allocated);
+    }
+
+    return result;
+  }
+}
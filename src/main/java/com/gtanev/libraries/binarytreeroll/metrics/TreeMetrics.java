@@ -0,0 +1,61 @@
+package com.gtanev.libraries.binarytreeroll.metrics;
+
+/**
+ * Receives the measurements of instrumented operations on binary trees, e.g. to forward them to a
+ * metrics library. Implementations must be thread-safe.
+ *
+ * <p>The measurements are only taken while {@link #isEnabled()} returns true, or while one of the
+ * Flight Recorder events of the library is enabled, so disabled instrumentation costs no more than
+ * these checks.
+ */
+public interface TreeMetrics {
+
+  /**
+   * Returns metrics that are disabled and discard all measurements.
+   *
+   * @return the disabled metrics
+   */
+  static TreeMetrics disabled() {
+    return DisabledTreeMetrics.INSTANCE;
+  }
+
+  /**
+   * Returns whether the operations should be measured for these metrics.
+   *
+   * @return true if the metrics are enabled
+   */
+  default boolean isEnabled() {
+    return true;
+  }
+
+  /**
+   * Records the measurements of a completed operation.
+   *
+   * @param operation      the operation
+   * @param durationNanos  the wall-clock duration of the operation, in nanoseconds
+   * @param nodes          the number of nodes in the tree, or -1 if the tree has not cached it
+   * @param inputHeight    the height of the tree before the operation, which bounds the depth of
+   *                       the call stack of the recursive algorithms and of the explicit stacks of
+   *                       the iterative ones, or -1 if the tree has not cached it
+   * @param allocatedBytes the number of bytes allocated by the calling thread during the
+   *                       operation, or -1 if the JVM cannot measure it
+   */
+  void record(TreeOperation operation, long durationNanos, long nodes, int inputHeight,
+      long allocatedBytes);
+
+  /**
+   * The metrics returned by {@link TreeMetrics#disabled()}.
+   */
+  enum DisabledTreeMetrics implements TreeMetrics {
+    INSTANCE;
+
+    @Override
+    public boolean isEnabled() {
+      return false;
+    }
+
+    @Override
+    public void record(TreeOperation operation, long durationNanos, long nodes, int inputHeight,
+        long allocatedBytes) {}
+  }
+}
@@ -0,0 +1,10 @@
+package com.gtanev.libraries.binarytreeroll.metrics;
+
+/**
+ * The operations on binary trees whose measurements are reported to {@link TreeMetrics}.
+ */
+public enum TreeOperation {
+  ROLL,
+  COPY,
+  TRAVERSE
+}
@@ -3,5 +3,26 @@ package com.gtanev.libraries.binarytreeroll.roll;
 abstract sealed class AbstractRollStrategy<T> implements RollStrategy<T>
     permits DefaultRollStrategy, ImmutableRollStrategy {
 
-  abstract RollHandler<T> getRollHandler();
+  private final RollEngine engine;
+  private final ParallelRollSettings parallelSettings;
+  private final RollHandler<T> rollHandler;
+
+  AbstractRollStrategy(RollEngine engine, ParallelRollSettings parallelSettings,
+      RollHandler<T> rollHandler) {
+    this.engine = engine;
+    this.parallelSettings = parallelSettings;
+    this.rollHandler = rollHandler;
+  }
+
+  RollEngine getEngine() {
+    return engine;
+  }
+
+  ParallelRollSettings getParallelSettings() {
+    return parallelSettings;
+  }
+
+  RollHandler<T> getRollHandler() {
+    return rollHandler;
+  }
 }
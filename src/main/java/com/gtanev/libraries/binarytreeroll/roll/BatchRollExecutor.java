@@ -0,0 +1,271 @@
+package com.gtanev.libraries.binarytreeroll.roll;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Rolls many independent trees concurrently in an executor, with at most a bounded number of
+ * rolls in flight at once.
+ *
+ * <p>The rolls submitted through {@link #roll} and {@link #rollAll} share the bound of this
+ * executor, and a caller that submits a roll while the bound is reached blocks until one of the
+ * rolls in flight completes, so a fast producer cannot queue up an unbounded number of trees. The
+ * publishers returned by {@link #publish} bound their own rolls in flight instead, and only read
+ * the next tree from their source when there is room for it, so they never block.
+ *
+ * <p>Every tree is rolled by a single task, so a mutable strategy can be used as long as the trees
+ * are distinct, and a recursive strategy needs a stack as deep as the trees in the threads of the
+ * executor.
+ */
+public final class BatchRollExecutor {
+
+  private final Executor executor;
+  private final int maxConcurrency;
+  private final Semaphore permits;
+
+  /**
+   * Creates a batch executor that rolls in the common pool, with as many rolls in flight as the
+   * parallelism of the pool.
+   */
+  public BatchRollExecutor() {
+    this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  /**
+   * Creates a batch executor.
+   *
+   * @param executor       the executor that runs the rolls
+   * @param maxConcurrency the greatest number of rolls in flight at once
+   */
+  public BatchRollExecutor(Executor executor, int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("The maximum concurrency must be positive.");
+    }
+
+    this.executor = Objects.requireNonNull(executor);
+    this.maxConcurrency = maxConcurrency;
+    this.permits = new Semaphore(maxConcurrency);
+  }
+
+  /**
+   * Rolls the given tree in the executor, once fewer than the maximum number of rolls are in
+   * flight.
+   *
+   * @param tree     the tree to roll
+   * @param strategy the roll strategy
+   *
+   * @return the future of the rolled tree
+   */
+  public <T> CompletableFuture<BinaryTree<T>> roll(BinaryTree<T> tree, RollStrategy<T> strategy) {
+    Objects.requireNonNull(tree);
+    Objects.requireNonNull(strategy);
+    permits.acquireUninterruptibly();
+
+    try {
+      return CompletableFuture.supplyAsync(() -> tree.roll(strategy), executor)
+          .whenComplete((rolledTree, e) -> permits.release());
+    } catch (RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Rolls the given trees in the executor, in their iteration order.
+   *
+   * @param trees    the trees to roll
+   * @param strategy the roll strategy
+   *
+   * @return the futures of the rolled trees, in the order of the given trees
+   */
+  public <T> List<CompletableFuture<BinaryTree<T>>> rollAll(Iterable<BinaryTree<T>> trees,
+      RollStrategy<T> strategy) {
+    var futures = new ArrayList<CompletableFuture<BinaryTree<T>>>();
+
+    for (var tree : trees) {
+      futures.add(roll(tree, strategy));
+    }
+
+    return futures;
+  }
+
+  /**
+   * Rolls the trees of the given stream in the executor, in its encounter order.
+   *
+   * @param trees    the trees to roll
+   * @param strategy the roll strategy
+   *
+   * @return the futures of the rolled trees, in the order of the given trees
+   */
+  public <T> List<CompletableFuture<BinaryTree<T>>> rollAll(Stream<BinaryTree<T>> trees,
+      RollStrategy<T> strategy) {
+    return rollAll(trees::iterator, strategy);
+  }
+
+  /**
+   * Returns a publisher of the rolled trees of the given stream, in its encounter order. Every
+   * subscriber consumes the stream, so the publisher can only be subscribed to once.
+   *
+   * @param trees    the trees to roll
+   * @param strategy the roll strategy
+   *
+   * @return the publisher of the rolled trees
+   */
+  public <T> Flow.Publisher<BinaryTree<T>> publish(Stream<BinaryTree<T>> trees,
+      RollStrategy<T> strategy) {
+    Objects.requireNonNull(trees);
+    Objects.requireNonNull(strategy);
+    return subscriber -> subscriber.onSubscribe(
+        new RollSubscription<>(subscriber, trees.iterator(), strategy));
+  }
+
+  /**
+   * Returns a publisher of the rolled trees of the given collection, in its iteration order.
+   *
+   * @param trees    the trees to roll
+   * @param strategy the roll strategy
+   *
+   * @return the publisher of the rolled trees
+   */
+  public <T> Flow.Publisher<BinaryTree<T>> publish(Iterable<BinaryTree<T>> trees,
+      RollStrategy<T> strategy) {
+    Objects.requireNonNull(trees);
+    Objects.requireNonNull(strategy);
+    return subscriber -> subscriber.onSubscribe(
+        new RollSubscription<>(subscriber, trees.iterator(), strategy));
+  }
+
+  /**
+   * A subscription that keeps up to the maximum number of rolls in flight, regardless of the
+   * demand, and delivers their results in order as the demand allows.
+   *
+   * <p>All its state other than the demand is only accessed by the drain loop, which runs in one
+   * thread at a time: whoever increments the work counter from zero drains, and the others only
+   * leave a note that it has to loop again.
+   */
+  private final class RollSubscription<T> implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super BinaryTree<T>> subscriber;
+    private final Iterator<BinaryTree<T>> trees;
+    private final RollStrategy<T> strategy;
+    private final Deque<CompletableFuture<BinaryTree<T>>> pending = new ArrayDeque<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger work = new AtomicInteger();
+    private volatile boolean cancelled;
+    private Throwable requestError;
+    private boolean done;
+
+    RollSubscription(Flow.Subscriber<? super BinaryTree<T>> subscriber,
+        Iterator<BinaryTree<T>> trees, RollStrategy<T> strategy) {
+      this.subscriber = Objects.requireNonNull(subscriber);
+      this.trees = trees;
+      this.strategy = strategy;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        requestError = new IllegalArgumentException("The requested count must be positive.");
+        cancelled = true;
+      } else {
+        requested.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+      }
+
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      drain();
+    }
+
+    private void drain() {
+      if (work.getAndIncrement() != 0) {
+        return;
+      }
+
+      var missed = 1;
+
+      do {
+        if (!done) {
+          drainOnce();
+        }
+
+        missed = work.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void drainOnce() {
+      if (cancelled) {
+        finish(requestError);
+        return;
+      }
+
+      while (requested.get() > 0 && !pending.isEmpty() && pending.peek().isDone()) {
+        BinaryTree<T> rolledTree;
+
+        try {
+          rolledTree = pending.poll().join();
+        } catch (CompletionException e) {
+          finish(e.getCause());
+          return;
+        }
+
+        requested.decrementAndGet();
+        subscriber.onNext(rolledTree);
+
+        if (cancelled) {
+          finish(requestError);
+          return;
+        }
+      }
+
+      try {
+        while (pending.size() < maxConcurrency && trees.hasNext()) {
+          var tree = trees.next();
+          var future = CompletableFuture.supplyAsync(() -> tree.roll(strategy), executor);
+          pending.add(future);
+          future.whenComplete((rolledTree, e) -> drain());
+        }
+      } catch (RuntimeException e) {
+        finish(e);
+        return;
+      }
+
+      if (pending.isEmpty()) {
+        finish(null);
+      }
+    }
+
+    /**
+     * Terminates the subscription, signalling the given error, or the completion if it is null and
+     * the subscription has not been cancelled.
+     */
+    private void finish(Throwable error) {
+      done = true;
+      pending.forEach(future -> future.cancel(false));
+      pending.clear();
+
+      if (error != null) {
+        subscriber.onError(error);
+      } else if (!cancelled) {
+        subscriber.onComplete();
+      }
+    }
+  }
+}
@@ -4,22 +4,50 @@ import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
 
 final class ClockwiseRollHandler<T> extends RollHandler<T> {
 
+  private static final ClockwiseRollHandler<?> INSTANCE = new ClockwiseRollHandler<>();
+
+  private ClockwiseRollHandler() {}
+
+  @SuppressWarnings("unchecked")
+  static <T> ClockwiseRollHandler<T> instance() {
+    return (ClockwiseRollHandler<T>) INSTANCE;
+  }
+
   @Override
-  public void roll(BinaryTree.Node<T> root, BinaryTree.Node<T> parent) {
-    if (root != null) {
-      if (root.getLeft() != null) {
-        this.roll(root.getLeft(), parent);
-        root.getLeft().setRight(root);
-        root.setLeft(null);
-      } else if (parent != null) {
-        parent.setLeft(root);
-        parent.setRight(null);
-      } else {
-        setRolledRoot(root);
-      }
-      if (root.getRight() != null) {
-        this.roll(root.getRight(), root);
-      }
+  BinaryTree<T> roll(BinaryTree<T> tree) {
+    var anchor = new BinaryTree.Node<T>();
+    var height = new long[1];
+
+    if (tree.getRoot() != null) {
+      this.roll(tree.getRoot(), anchor, 0, height);
+    }
+
+    tree.setRolledRoot(anchor.getLeft(), height[0]);
+    return tree;
+  }
+
+  /**
+   * Rolls the given subtree and anchors it to the given parent, raising the given height to the
+   * depth of the deepest node of the rolled subtree.
+   *
+   * @return the depth of the given root in the rolled tree
+   */
+  private long roll(
+      BinaryTree.Node<T> root, BinaryTree.Node<T> parent, long parentDepth, long[] height) {
+    long depth;
+    if (root.getLeft() != null) {
+      depth = this.roll(root.getLeft(), parent, parentDepth, height) + 1;
+      root.getLeft().setRight(root);
+      root.setLeft(null);
+    } else {
+      depth = parentDepth + 1;
+      parent.setLeft(root);
+      parent.setRight(null);
+    }
+    height[0] = Math.max(height[0], depth);
+    if (root.getRight() != null) {
+      this.roll(root.getRight(), root, depth, height);
     }
+    return depth;
   }
 }
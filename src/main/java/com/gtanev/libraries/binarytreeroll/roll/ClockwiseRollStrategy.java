@@ -2,16 +2,34 @@ package com.gtanev.libraries.binarytreeroll.roll;
 
 final class ClockwiseRollStrategy<T> extends DefaultRollStrategy<T> {
 
+  ClockwiseRollStrategy(RollEngine engine, ParallelRollSettings parallelSettings) {
+    super(engine, parallelSettings, createRollHandler(engine, parallelSettings));
+  }
+
   @Override
-  public RollHandler<T> getRollHandler() {
-    return new ClockwiseRollHandler<>();
+  public RollDirection getDirection() {
+    return RollDirection.CLOCKWISE;
+  }
+
+  static <T> RollHandler<T> createRollHandler(RollEngine engine,
+      ParallelRollSettings parallelSettings) {
+    return switch (engine) {
+      case RECURSIVE -> ClockwiseRollHandler.instance();
+      case ITERATIVE -> IterativeClockwiseRollHandler.instance();
+      case FUSED -> FusedClockwiseRollHandler.instance();
+      case PARALLEL -> new ParallelClockwiseRollHandler<>(parallelSettings);
+    };
   }
 
   static final class Immutable<T> extends ImmutableRollStrategy<T> {
 
+    Immutable(RollEngine engine, ParallelRollSettings parallelSettings) {
+      super(engine, parallelSettings, createRollHandler(engine, parallelSettings));
+    }
+
     @Override
-    public RollHandler<T> getRollHandler() {
-      return new ClockwiseRollHandler<>();
+    public RollDirection getDirection() {
+      return RollDirection.CLOCKWISE;
     }
   }
 }
@@ -4,22 +4,51 @@ import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
 
 final class CounterClockwiseRollHandler<T> extends RollHandler<T> {
 
+  private static final CounterClockwiseRollHandler<?> INSTANCE =
+      new CounterClockwiseRollHandler<>();
+
+  private CounterClockwiseRollHandler() {}
+
+  @SuppressWarnings("unchecked")
+  static <T> CounterClockwiseRollHandler<T> instance() {
+    return (CounterClockwiseRollHandler<T>) INSTANCE;
+  }
+
   @Override
-  public void roll(BinaryTree.Node<T> root, BinaryTree.Node<T> parent) {
-    if (root != null) {
-      if (root.getRight() != null) {
-        this.roll(root.getRight(), parent);
-        root.getRight().setLeft(root);
-        root.setRight(null);
-      } else if (parent != null) {
-        parent.setRight(root);
-        parent.setLeft(null);
-      } else {
-        setRolledRoot(root);
-      }
-      if (root.getLeft() != null) {
-        this.roll(root.getLeft(), root);
-      }
+  BinaryTree<T> roll(BinaryTree<T> tree) {
+    var anchor = new BinaryTree.Node<T>();
+    var height = new long[1];
+
+    if (tree.getRoot() != null) {
+      this.roll(tree.getRoot(), anchor, 0, height);
+    }
+
+    tree.setRolledRoot(anchor.getRight(), height[0]);
+    return tree;
+  }
+
+  /**
+   * Rolls the given subtree and anchors it to the given parent, raising the given height to the
+   * depth of the deepest node of the rolled subtree.
+   *
+   * @return the depth of the given root in the rolled tree
+   */
+  private long roll(
+      BinaryTree.Node<T> root, BinaryTree.Node<T> parent, long parentDepth, long[] height) {
+    long depth;
+    if (root.getRight() != null) {
+      depth = this.roll(root.getRight(), parent, parentDepth, height) + 1;
+      root.getRight().setLeft(root);
+      root.setRight(null);
+    } else {
+      depth = parentDepth + 1;
+      parent.setRight(root);
+      parent.setLeft(null);
+    }
+    height[0] = Math.max(height[0], depth);
+    if (root.getLeft() != null) {
+      this.roll(root.getLeft(), root, depth, height);
     }
+    return depth;
   }
 }
@@ -2,16 +2,34 @@ package com.gtanev.libraries.binarytreeroll.roll;
 
 final class CounterClockwiseRollStrategy<T> extends DefaultRollStrategy<T> {
 
+  CounterClockwiseRollStrategy(RollEngine engine, ParallelRollSettings parallelSettings) {
+    super(engine, parallelSettings, createRollHandler(engine, parallelSettings));
+  }
+
   @Override
-  public RollHandler<T> getRollHandler() {
-    return new CounterClockwiseRollHandler<>();
+  public RollDirection getDirection() {
+    return RollDirection.COUNTERCLOCKWISE;
+  }
+
+  static <T> RollHandler<T> createRollHandler(RollEngine engine,
+      ParallelRollSettings parallelSettings) {
+    return switch (engine) {
+      case RECURSIVE -> CounterClockwiseRollHandler.instance();
+      case ITERATIVE -> IterativeCounterClockwiseRollHandler.instance();
+      case FUSED -> FusedCounterClockwiseRollHandler.instance();
+      case PARALLEL -> new ParallelCounterClockwiseRollHandler<>(parallelSettings);
+    };
   }
 
   static final class Immutable<T> extends ImmutableRollStrategy<T> {
 
+    Immutable(RollEngine engine, ParallelRollSettings parallelSettings) {
+      super(engine, parallelSettings, createRollHandler(engine, parallelSettings));
+    }
+
     @Override
-    public RollHandler<T> getRollHandler() {
-      return new CounterClockwiseRollHandler<>();
+    public RollDirection getDirection() {
+      return RollDirection.COUNTERCLOCKWISE;
     }
   }
 }
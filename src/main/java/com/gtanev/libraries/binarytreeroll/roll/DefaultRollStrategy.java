@@ -5,12 +5,18 @@ import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
 abstract sealed class DefaultRollStrategy<T> extends AbstractRollStrategy<T>
     permits ClockwiseRollStrategy, CounterClockwiseRollStrategy {
 
+  DefaultRollStrategy(RollEngine engine, ParallelRollSettings parallelSettings,
+      RollHandler<T> rollHandler) {
+    super(engine, parallelSettings, rollHandler);
+  }
+
+  @Override
+  public boolean isImmutable() {
+    return false;
+  }
+
   @Override
   public BinaryTree<T> roll(BinaryTree<T> tree) {
-    var rollHandler = getRollHandler();
-    rollHandler.setRolledRoot(null);
-    rollHandler.roll(tree.getRoot(), null);
-    tree.setRoot(rollHandler.getRolledRoot());
-    return tree;
+    return getRollHandler().roll(tree);
   }
 }
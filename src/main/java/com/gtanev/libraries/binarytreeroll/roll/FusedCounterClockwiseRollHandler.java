@@ -0,0 +1,98 @@
+package com.gtanev.libraries.binarytreeroll.roll;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+
+/**
+ * A copying counterpart of {@link IterativeCounterClockwiseRollHandler}, used by immutable strategies.
+ *
+ * <p>Rather than relinking the given nodes, the handler reads them and builds the rolled tree out
+ * of fresh nodes, allocating exactly one node per original node and setting each of its links at
+ * most once. The fresh nodes are of the kind a deep copy of the original tree is made of, so the
+ * rolled copy of a tree of hashed nodes is made of hashed nodes. The original tree is never
+ * modified. Like the iterative handler, it keeps the pending subtrees on the {@link NodeStack} of
+ * the current thread.
+ */
+final class FusedCounterClockwiseRollHandler<T> extends RollHandler<T> {
+
+  private static final FusedCounterClockwiseRollHandler<?> INSTANCE =
+      new FusedCounterClockwiseRollHandler<>();
+
+  private FusedCounterClockwiseRollHandler() {}
+
+  @SuppressWarnings("unchecked")
+  static <T> FusedCounterClockwiseRollHandler<T> instance() {
+    return (FusedCounterClockwiseRollHandler<T>) INSTANCE;
+  }
+
+  @Override
+  BinaryTree<T> roll(BinaryTree<T> tree) {
+    var rolledTree = new BinaryTree<T>();
+    var anchor = new BinaryTree.Node<T>();
+    var height = tree.getRoot() != null ? copy(tree.getRoot(), anchor, rolledTree) : 0;
+    rolledTree.setRolledRoot(anchor.getRight(), height);
+    return rolledTree;
+  }
+
+  /**
+   * Builds the rolled copy of the given non-empty subtree out of nodes of the given tree and
+   * anchors it as the right child of the given parent, tracking the depths of the pending subtrees
+   * like {@link IterativeCounterClockwiseRollHandler#relink}.
+   *
+   * @return the height of the rolled copy, counting the parent as depth zero
+   */
+  private static <T> long copy(
+      BinaryTree.Node<T> root, BinaryTree.Node<T> parent, BinaryTree<T> rolledTree) {
+    var pending = NodeStack.get();
+    var base = pending.size();
+    var subtree = root;
+    var parentDepth = 0L;
+    var height = 0L;
+
+    try {
+      while (true) {
+        var spineBase = pending.size();
+        var length = 0L;
+        BinaryTree.Node<T> previous = null;
+        BinaryTree.Node<T> copy;
+        var node = subtree;
+
+        while (true) {
+          copy = rolledTree.createCopy(node);
+
+          if (previous != null) {
+            copy.setLeft(previous);
+          }
+
+          if (node.getLeft() != null) {
+            pending.push(node.getLeft());
+            pending.push(copy, length);
+          }
+
+          length++;
+
+          if (node.getRight() == null) {
+            break;
+          }
+
+          previous = copy;
+          node = node.getRight();
+        }
+
+        parent.setRight(copy);
+        var spineDepth = parentDepth + length;
+        height = Math.max(height, spineDepth);
+        pending.rebase(spineBase, spineDepth);
+
+        if (pending.size() == base) {
+          return height;
+        }
+
+        parentDepth = pending.depth();
+        parent = pending.pop();
+        subtree = pending.pop();
+      }
+    } finally {
+      pending.popTo(base);
+    }
+  }
+}
@@ -5,13 +5,28 @@ import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
 abstract sealed class ImmutableRollStrategy<T> extends AbstractRollStrategy<T>
     permits ClockwiseRollStrategy.Immutable, CounterClockwiseRollStrategy.Immutable {
 
+  ImmutableRollStrategy(RollEngine engine, ParallelRollSettings parallelSettings,
+      RollHandler<T> rollHandler) {
+    super(engine, parallelSettings, rollHandler);
+  }
+
+  @Override
+  public boolean isImmutable() {
+    return true;
+  }
+
   @Override
   public BinaryTree<T> roll(BinaryTree<T> tree) {
-    var rollHandler = getRollHandler();
-    rollHandler.setRolledRoot(null);
-    var treeCopy = tree.deepCopy();
-    rollHandler.roll(treeCopy.getRoot(), null);
-    treeCopy.setRoot(rollHandler.getRolledRoot());
-    return treeCopy;
+    if (getEngine() == RollEngine.FUSED) {
+      return getRollHandler().roll(tree);
+    }
+
+    if (getEngine() != RollEngine.PARALLEL) {
+      return getRollHandler().roll(tree.deepCopy());
+    }
+
+    ParallelRollSettings.requireUnhashed(tree.getRoot());
+    var settings = getParallelSettings();
+    return getRollHandler().roll(tree.deepCopy(settings.pool(), settings.threshold()));
   }
 }
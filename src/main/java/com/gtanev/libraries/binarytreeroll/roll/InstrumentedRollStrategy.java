@@ -0,0 +1,36 @@
+package com.gtanev.libraries.binarytreeroll.roll;
+
+import com.gtanev.libraries.binarytreeroll.metrics.TreeInstrumentation;
+import com.gtanev.libraries.binarytreeroll.metrics.TreeMetrics;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.Objects;
+
+/**
+ * A strategy that rolls with another strategy and measures every roll with
+ * {@link TreeInstrumentation}.
+ */
+final class InstrumentedRollStrategy<T> implements RollStrategy<T> {
+
+  private final RollStrategy<T> delegate;
+  private final TreeMetrics metrics;
+
+  InstrumentedRollStrategy(RollStrategy<T> delegate, TreeMetrics metrics) {
+    this.delegate = Objects.requireNonNull(delegate);
+    this.metrics = Objects.requireNonNull(metrics);
+  }
+
+  @Override
+  public BinaryTree<T> roll(BinaryTree<T> tree) {
+    return TreeInstrumentation.roll(tree, delegate, metrics);
+  }
+
+  @Override
+  public RollDirection getDirection() {
+    return delegate.getDirection();
+  }
+
+  @Override
+  public boolean isImmutable() {
+    return delegate.isImmutable();
+  }
+}
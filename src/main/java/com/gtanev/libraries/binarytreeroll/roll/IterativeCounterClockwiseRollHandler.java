@@ -0,0 +1,98 @@
+package com.gtanev.libraries.binarytreeroll.roll;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+
+/**
+ * A stack-safe counterpart of {@link CounterClockwiseRollHandler}, producing identical trees.
+ *
+ * <p>Every right spine of the tree is reversed in a single downward walk, with its bottom node
+ * anchored to the parent of the spine. The left subtrees met along the way are independent of
+ * each other, so they are kept on an explicit stack, together with their target parents, instead
+ * of on the call stack. The running time is linear and the stack holds at most {@code h}
+ * pending subtrees for a tree of height {@code h}. The stack is reused by the rolls of each thread,
+ * so a roll allocates nothing once the stack has grown to fit the tree.
+ */
+final class IterativeCounterClockwiseRollHandler<T> extends RollHandler<T> {
+
+  private static final IterativeCounterClockwiseRollHandler<?> INSTANCE =
+      new IterativeCounterClockwiseRollHandler<>();
+
+  private IterativeCounterClockwiseRollHandler() {}
+
+  @SuppressWarnings("unchecked")
+  static <T> IterativeCounterClockwiseRollHandler<T> instance() {
+    return (IterativeCounterClockwiseRollHandler<T>) INSTANCE;
+  }
+
+  @Override
+  BinaryTree<T> roll(BinaryTree<T> tree) {
+    var anchor = new BinaryTree.Node<T>();
+    var height = tree.getRoot() != null ? relink(tree.getRoot(), anchor) : 0;
+    tree.setRolledRoot(anchor.getRight(), height);
+    return tree;
+  }
+
+  /**
+   * Rolls the given non-empty subtree and anchors it as the right child of the given parent. The
+   * left child of the parent is not changed. The pending subtrees are kept on the
+   * {@link NodeStack} of the current thread, together with the depths of their parents.
+   *
+   * <p>A reversed spine hangs from its bottom node, so the depth of every spine node is only known
+   * once the spine has been walked to the bottom. Until then, the parents of the pending subtrees
+   * are pushed with their distance from the top of the spine, which is then rebased on its depth.
+   *
+   * @return the height of the rolled subtree, counting the parent as depth zero
+   */
+  static <T> long relink(BinaryTree.Node<T> root, BinaryTree.Node<T> parent) {
+    var pending = NodeStack.get();
+    var base = pending.size();
+    var subtree = root;
+    var parentDepth = 0L;
+    var height = 0L;
+
+    try {
+      while (true) {
+        var spineBase = pending.size();
+        var length = 0L;
+        BinaryTree.Node<T> previous = null;
+        var node = subtree;
+
+        while (true) {
+          var next = node.getRight();
+          var other = node.getLeft();
+
+          if (other != null) {
+            pending.push(other);
+            pending.push(node, length);
+          }
+
+          node.setRight(null);
+          node.setLeft(previous);
+          length++;
+
+          if (next == null) {
+            break;
+          }
+
+          previous = node;
+          node = next;
+        }
+
+        parent.setRight(node);
+        var spineDepth = parentDepth + length;
+        height = Math.max(height, spineDepth);
+        pending.rebase(spineBase, spineDepth);
+
+        if (pending.size() == base) {
+          return height;
+        }
+
+        parentDepth = pending.depth();
+        parent = pending.pop();
+        subtree = pending.pop();
+      }
+    } finally {
+      pending.popTo(base);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.gtanev.libraries.binarytreeroll.roll;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.Arrays;
+
+/**
+ * A stack of pending nodes, of which every thread keeps one to reuse across its rolls, so that the
+ * stack-safe rolls allocate nothing once the stack of the thread has grown to fit their trees.
+ *
+ * <p>A roll only pops the nodes it has pushed, starting from the size of the stack when it began,
+ * so a roll can run while another one on the same thread is in progress, as happens when a
+ * fork-join task rolls a small subtree inline. Popped slots are cleared, so the stack never keeps
+ * nodes reachable, and a stack that has grown beyond {@code MAX_RETAINED_CAPACITY} is released
+ * once it is empty again, so a single deep tree does not pin a large array to the thread.
+ *
+ * <p>Every slot also holds a depth, with which the rolls track the height of the rolled tree.
+ */
+final class NodeStack {
+
+  private static final int INITIAL_CAPACITY = 64;
+  private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+  private static final ThreadLocal<NodeStack> STACKS = ThreadLocal.withInitial(NodeStack::new);
+
+  private BinaryTree.Node<?>[] nodes = new BinaryTree.Node<?>[INITIAL_CAPACITY];
+  private long[] depths = new long[INITIAL_CAPACITY];
+  private int size;
+
+  private NodeStack() {}
+
+  /**
+   * Returns the stack of the current thread.
+   */
+  static NodeStack get() {
+    return STACKS.get();
+  }
+
+  int size() {
+    return size;
+  }
+
+  void push(BinaryTree.Node<?> node) {
+    push(node, 0);
+  }
+
+  void push(BinaryTree.Node<?> node, long depth) {
+    if (size == nodes.length) {
+      nodes = Arrays.copyOf(nodes, size << 1);
+      depths = Arrays.copyOf(depths, size << 1);
+    }
+
+    nodes[size] = node;
+    depths[size++] = depth;
+  }
+
+  /**
+   * Returns the depth of the node on top of the stack.
+   */
+  long depth() {
+    return depths[size - 1];
+  }
+
+  /**
+   * Replaces the depth {@code d} of every slot from the given index upwards with {@code top - d},
+   * for the rolls that push the nodes of a spine by their distance from its top before the depth of
+   * its top is known.
+   */
+  void rebase(int from, long top) {
+    for (var index = from; index < size; index++) {
+      depths[index] = top - depths[index];
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  <T> BinaryTree.Node<T> pop() {
+    var node = nodes[--size];
+    nodes[size] = null;
+    return (BinaryTree.Node<T>) node;
+  }
+
+  /**
+   * Discards the nodes above the given size, which a roll that has failed may have left behind.
+   */
+  void popTo(int base) {
+    while (size > base) {
+      nodes[--size] = null;
+    }
+
+    if (size == 0 && nodes.length > MAX_RETAINED_CAPACITY) {
+      nodes = new BinaryTree.Node<?>[INITIAL_CAPACITY];
+      depths = new long[INITIAL_CAPACITY];
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package com.gtanev.libraries.binarytreeroll.roll;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.SubtreeSplitter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountedCompleter;
+
+/**
+ * A fork-join counterpart of {@link IterativeClockwiseRollHandler}, producing identical trees.
+ *
+ * <p>The right subtrees met while reversing a left spine are rolled independently of each other,
+ * each anchored to its own spine node. While the pool is short of work, a spine node whose right
+ * subtree and the rest of the spine below it both have at least {@code threshold} nodes hands the
+ * right subtree to a separate task, after the node has been relinked, so that no two tasks ever
+ * write to the same node. A smaller right subtree is rolled sequentially on the spot, and so is
+ * every right subtree below a spine node whose remaining spine is smaller than the threshold.
+ *
+ * <p>The tasks are counted completers that never wait for each other, so the roll is stack-safe
+ * whatever the shape of the tree, and the sizes are compared by a {@link SubtreeSplitter}, in
+ * linear time overall.
+ *
+ * <p>Every task tracks the height of the subtree it rolls like
+ * {@link IterativeClockwiseRollHandler#relink}. The depth of the node a forked task is anchored to
+ * is recorded once its spine has been walked to the bottom, and the height of the forked task is
+ * added to it when the tasks complete.
+ */
+final class ParallelClockwiseRollHandler<T> extends RollHandler<T> {
+
+  private final ParallelRollSettings settings;
+
+  ParallelClockwiseRollHandler(ParallelRollSettings settings) {
+    this.settings = settings;
+  }
+
+  @Override
+  BinaryTree<T> roll(BinaryTree<T> tree) {
+    ParallelRollSettings.requireConcurrentLinks(tree.getRoot());
+    var anchor = new BinaryTree.Node<T>();
+    var height = 0L;
+
+    if (tree.getRoot() != null) {
+      var task = new RollTask(null, tree.getRoot(), anchor);
+      settings.pool().invoke(task);
+      height = task.height;
+    }
+
+    tree.setRolledRoot(anchor.getLeft(), height);
+    return tree;
+  }
+
+  @SuppressWarnings("serial")
+  private final class RollTask extends CountedCompleter<Void> {
+
+    private final BinaryTree.Node<T> root;
+    private final BinaryTree.Node<T> parent;
+    private final List<RollTask> forkedTasks = new ArrayList<>();
+    private long anchorDepth;
+    private long height;
+
+    RollTask(RollTask completer, BinaryTree.Node<T> root, BinaryTree.Node<T> parent) {
+      super(completer);
+      this.root = root;
+      this.parent = parent;
+    }
+
+    @Override
+    public void compute() {
+      var pending = NodeStack.get();
+      var base = pending.size();
+      var splitter = new SubtreeSplitter(settings.threshold());
+      var subtree = root;
+      var parent = this.parent;
+      var parentDepth = 0L;
+
+      try {
+        while (true) {
+          var spineBase = pending.size();
+          var spineTasks = forkedTasks.size();
+          var length = 0L;
+          var maxOffset = 0L;
+          BinaryTree.Node<T> previous = null;
+          var node = subtree;
+          var splitting = true;
+
+          while (true) {
+            var next = node.getLeft();
+            var other = node.getRight();
+
+            node.setLeft(null);
+            node.setRight(previous);
+
+            if (other != null) {
+              if (!splitting) {
+                maxOffset = Math.max(maxOffset,
+                    IterativeClockwiseRollHandler.relink(other, node) - length);
+              } else if (next == null || !SubtreeSplitter.isPoolShortOfWork()) {
+                pending.push(other);
+                pending.push(node, length);
+              } else {
+                switch (splitter.split(next, other)) {
+                  case BALANCED -> {
+                    var task = new RollTask(this, other, node);
+                    task.anchorDepth = length;
+                    forkedTasks.add(task);
+                    addToPendingCount(1);
+                    task.fork();
+                  }
+                  case SECOND_SMALL -> maxOffset = Math.max(maxOffset,
+                      IterativeClockwiseRollHandler.relink(other, node) - length);
+                  case FIRST_SMALL -> {
+                    pending.push(other);
+                    pending.push(node, length);
+                    splitting = false;
+                  }
+                }
+              }
+            }
+
+            length++;
+
+            if (next == null) {
+              break;
+            }
+
+            previous = node;
+            node = next;
+          }
+
+          parent.setLeft(node);
+          var spineDepth = parentDepth + length;
+          height = Math.max(height, spineDepth + maxOffset);
+          pending.rebase(spineBase, spineDepth);
+
+          for (var index = spineTasks; index < forkedTasks.size(); index++) {
+            var task = forkedTasks.get(index);
+            task.anchorDepth = spineDepth - task.anchorDepth;
+          }
+
+          if (pending.size() == base) {
+            break;
+          }
+
+          parentDepth = pending.depth();
+          parent = pending.pop();
+          subtree = pending.pop();
+        }
+      } finally {
+        pending.popTo(base);
+      }
+
+      tryComplete();
+    }
+
+    @Override
+    public void onCompletion(CountedCompleter<?> caller) {
+      for (var task : forkedTasks) {
+        height = Math.max(height, task.anchorDepth + task.height);
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.gtanev.libraries.binarytreeroll.roll;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.HashedNode;
+import com.gtanev.libraries.binarytreeroll.tree.JournaledNode;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The pool used by a parallel roll, and the smallest number of nodes in a subtree that is rolled
+ * by a separate task.
+ */
+record ParallelRollSettings(ForkJoinPool pool, int threshold) {
+
+  static final int DEFAULT_THRESHOLD = 1 << 14;
+
+  ParallelRollSettings {
+    Objects.requireNonNull(pool);
+
+    if (threshold < 1) {
+      throw new IllegalArgumentException("The threshold must be positive.");
+    }
+  }
+
+  static ParallelRollSettings defaults() {
+    return new ParallelRollSettings(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Checks that the tree with the given root can be relinked by concurrent tasks. The nodes of a
+   * journaled tree record their changes in a journal shared by the whole tree, and hashed nodes
+   * discard the cached hashes of their ancestors, both of which the tasks would corrupt.
+   *
+   * @throws IllegalArgumentException if the root is a journaled or hashed node
+   */
+  static void requireConcurrentLinks(BinaryTree.Node<?> root) {
+    if (root instanceof JournaledNode<?>) {
+      throw new IllegalArgumentException("A journaled tree cannot be rolled in parallel.");
+    }
+
+    requireUnhashed(root);
+  }
+
+  /**
+   * Checks that the tree with the given root is not made of hashed nodes, whose cached hashes
+   * concurrent tasks would corrupt.
+   *
+   * @throws IllegalArgumentException if the root is a hashed node
+   */
+  static void requireUnhashed(BinaryTree.Node<?> root) {
+    if (root instanceof HashedNode<?>) {
+      throw new IllegalArgumentException("A tree of hashed nodes cannot be rolled in parallel.");
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.gtanev.libraries.binarytreeroll.roll;
+
+/**
+ * The algorithm used by a roll strategy to relink the nodes of a tree.
+ */
+public enum RollEngine {
+  /**
+   * The reference recursive algorithm, which uses one call stack frame per level of the tree.
+   */
+  RECURSIVE,
+  /**
+   * A stack-safe algorithm, which keeps pending subtrees on an explicit heap-allocated stack and
+   * can therefore roll trees of any depth.
+   */
+  ITERATIVE,
+  /**
+   * A stack-safe algorithm for immutable strategies, which builds the rolled tree directly from
+   * the nodes of the original tree in a single pass, instead of rolling a deep copy of it.
+   */
+  FUSED,
+  /**
+   * A stack-safe fork-join algorithm, which rolls large independent subtrees concurrently. Unless
+   * the strategy is created with {@link RollStrategyFactory#createParallel}, it uses the common
+   * pool.
+   */
+  PARALLEL
+}
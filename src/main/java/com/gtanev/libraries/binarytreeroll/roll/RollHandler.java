@@ -2,17 +2,24 @@ package com.gtanev.libraries.binarytreeroll.roll;
 
 import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
 
-abstract sealed class RollHandler<T> permits ClockwiseRollHandler, CounterClockwiseRollHandler {
+/**
+ * The algorithm of a roll strategy. Handlers keep no state between rolls, so one handler is shared
+ * by every roll of its strategy, in any number of threads, and the handlers of the sequential
+ * engines are singletons.
+ */
+abstract sealed class RollHandler<T> permits ClockwiseRollHandler, CounterClockwiseRollHandler,
+    IterativeClockwiseRollHandler, IterativeCounterClockwiseRollHandler,
+    FusedClockwiseRollHandler, FusedCounterClockwiseRollHandler,
+    ParallelClockwiseRollHandler, ParallelCounterClockwiseRollHandler {
 
-  private BinaryTree.Node<T> rolledRoot;
-
-  public BinaryTree.Node<T> getRolledRoot() {
-    return rolledRoot;
-  }
-
-  public void setRolledRoot(BinaryTree.Node<T> rolledRoot) {
-    this.rolledRoot = rolledRoot;
-  }
-
-  abstract void roll(BinaryTree.Node<T> root, BinaryTree.Node<T> parent);
+  /**
+   * Rolls the given tree, recording the root of the rolled tree and its height, which the handler
+   * computes as it goes, with {@link BinaryTree#setRolledRoot}. The handlers that relink the nodes
+   * in place record them on the given tree, and the copying handlers on a new one.
+   *
+   * @param tree the tree
+   *
+   * @return the rolled tree
+   */
+  abstract BinaryTree<T> roll(BinaryTree<T> tree);
 }
@@ -0,0 +1,193 @@
+package com.gtanev.libraries.binarytreeroll.roll;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A sequence of rolls, simplified to the fewest rolls that transform a tree in the same way.
+ *
+ * <p>A clockwise and a counterclockwise roll undo each other, since the clockwise roll maps the
+ * inorder sequence of a tree to the preorder sequence of the rolled tree, and the counterclockwise
+ * roll maps it back. Any sequence is therefore equivalent to the net number of rolls in the
+ * direction of the majority, and an even mix of both directions is the identity. Rolls in the same
+ * direction have no closed form, so the remaining rolls are applied one by one, but an immutable
+ * plan copies the tree at most once: its first roll builds the rolled copy in a single pass with
+ * the {@link RollEngine#FUSED} engine, and the others relink the copy in place.
+ */
+public final class RollPlan {
+
+  private static final RollPlan IDENTITY = new RollPlan(null, 0);
+
+  private final RollDirection direction;
+  private final int rollCount;
+
+  private RollPlan(RollDirection direction, int rollCount) {
+    this.direction = direction;
+    this.rollCount = rollCount;
+  }
+
+  /**
+   * Creates a plan of the given rolls, in the given order.
+   *
+   * @param directions the directions of the rolls
+   *
+   * @return the simplified plan
+   */
+  public static RollPlan of(RollDirection... directions) {
+    return of(List.of(directions));
+  }
+
+  /**
+   * Creates a plan of the given rolls, in the given order.
+   *
+   * @param directions the directions of the rolls
+   *
+   * @return the simplified plan
+   */
+  public static RollPlan of(List<RollDirection> directions) {
+    var net = 0;
+
+    for (var direction : directions) {
+      net += switch (Objects.requireNonNull(direction)) {
+        case CLOCKWISE -> 1;
+        case COUNTERCLOCKWISE -> -1;
+      };
+    }
+
+    if (net == 0) {
+      return IDENTITY;
+    }
+
+    return new RollPlan(net > 0 ? RollDirection.CLOCKWISE : RollDirection.COUNTERCLOCKWISE,
+        Math.abs(net));
+  }
+
+  /**
+   * Returns the direction of the rolls that remain after the simplification.
+   *
+   * @return the direction of the rolls, or null if the plan is the identity
+   */
+  public RollDirection getDirection() {
+    return direction;
+  }
+
+  /**
+   * Returns the number of rolls that remain after the simplification.
+   *
+   * @return the number of rolls
+   */
+  public int getRollCount() {
+    return rollCount;
+  }
+
+  /**
+   * Returns whether the rolls of the plan cancel each other out.
+   *
+   * @return true if the plan leaves any tree unchanged
+   */
+  public boolean isIdentity() {
+    return rollCount == 0;
+  }
+
+  /**
+   * Applies the plan to the given tree, like rolling it with mutable strategies of the default
+   * engine in every direction of the plan.
+   *
+   * @param tree the tree to roll
+   *
+   * @return the given tree, rolled
+   */
+  public <T> BinaryTree<T> apply(BinaryTree<T> tree) {
+    return apply(tree, RollEngine.RECURSIVE);
+  }
+
+  /**
+   * Applies the plan to the given tree, like rolling it with mutable strategies of the given
+   * engine in every direction of the plan.
+   *
+   * @param tree   the tree to roll
+   * @param engine the roll engine
+   *
+   * @return the given tree, rolled
+   */
+  public <T> BinaryTree<T> apply(BinaryTree<T> tree, RollEngine engine) {
+    Objects.requireNonNull(tree);
+
+    if (isIdentity()) {
+      return tree;
+    }
+
+    RollStrategy<T> strategy = RollStrategyFactory.create(direction, engine);
+
+    for (var i = 0; i < rollCount; i++) {
+      tree.roll(strategy);
+    }
+
+    return tree;
+  }
+
+  /**
+   * Returns a copy of the given tree with the plan applied, like rolling it with immutable
+   * strategies in every direction of the plan, and leaves the given tree unchanged.
+   *
+   * @param tree the tree to roll
+   *
+   * @return the rolled copy of the tree
+   */
+  public <T> BinaryTree<T> applyImmutable(BinaryTree<T> tree) {
+    return applyImmutable(tree, RollEngine.RECURSIVE);
+  }
+
+  /**
+   * Returns a copy of the given tree with the plan applied, and leaves the given tree unchanged.
+   * The copy is rolled with the fused engine, and then rolled in place with the given engine, or,
+   * if the given engine is {@link RollEngine#PARALLEL}, both copied and rolled with it.
+   *
+   * @param tree   the tree to roll
+   * @param engine the roll engine
+   *
+   * @return the rolled copy of the tree
+   */
+  public <T> BinaryTree<T> applyImmutable(BinaryTree<T> tree, RollEngine engine) {
+    Objects.requireNonNull(tree);
+
+    if (isIdentity()) {
+      return tree.deepCopy();
+    }
+
+    var copyEngine = engine == RollEngine.PARALLEL ? RollEngine.PARALLEL : RollEngine.FUSED;
+    var rolledTree = tree.roll(RollStrategyFactory.createImmutable(direction, copyEngine));
+
+    if (rollCount > 1) {
+      RollStrategy<T> strategy = RollStrategyFactory.create(direction,
+          engine == RollEngine.FUSED ? RollEngine.ITERATIVE : engine);
+
+      for (var i = 1; i < rollCount; i++) {
+        rolledTree.roll(strategy);
+      }
+    }
+
+    return rolledTree;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+
+    return o instanceof RollPlan that && direction == that.direction
+        && rollCount == that.rollCount;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(direction, rollCount);
+  }
+
+  @Override
+  public String toString() {
+    return isIdentity() ? "RollPlan[IDENTITY]" : "RollPlan[" + direction + " x " + rollCount + "]";
+  }
+}
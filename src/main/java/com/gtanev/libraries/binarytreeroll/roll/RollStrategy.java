@@ -2,6 +2,21 @@ package com.gtanev.libraries.binarytreeroll.roll;
 
 import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
 
-public sealed interface RollStrategy<T> permits AbstractRollStrategy {
+public sealed interface RollStrategy<T> permits AbstractRollStrategy, InstrumentedRollStrategy {
   BinaryTree<T> roll(BinaryTree<T> tree);
+
+  /**
+   * Returns the direction in which this strategy rolls a tree, which allows tree representations
+   * other than {@link BinaryTree} to apply the same roll with their own algorithms.
+   *
+   * @return the roll direction
+   */
+  RollDirection getDirection();
+
+  /**
+   * Returns whether this strategy leaves the rolled tree unchanged and returns a rolled copy.
+   *
+   * @return true if the strategy is immutable, false if it mutates the rolled tree
+   */
+  boolean isImmutable();
 }
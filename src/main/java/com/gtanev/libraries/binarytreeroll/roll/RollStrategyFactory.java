@@ -1,18 +1,115 @@
 package com.gtanev.libraries.binarytreeroll.roll;
 
+import com.gtanev.libraries.binarytreeroll.metrics.TreeInstrumentation;
+import com.gtanev.libraries.binarytreeroll.metrics.TreeMetrics;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
 public interface RollStrategyFactory {
 
   static <T> RollStrategy<T> create(RollDirection direction) {
+    return create(direction, RollEngine.RECURSIVE);
+  }
+
+  /**
+   * Returns the mutable strategy of the given direction and engine. Strategies keep no state
+   * between rolls, so the same instance is returned on every call and may be shared by any number
+   * of threads, each rolling its own tree.
+   *
+   * @param direction the roll direction
+   * @param engine    the roll engine, other than {@link RollEngine#FUSED}
+   *
+   * @return the roll strategy
+   */
+  static <T> RollStrategy<T> create(RollDirection direction, RollEngine engine) {
+    checkMutableEngine(engine);
+    return SharedRollStrategies.mutable(Objects.requireNonNull(direction), engine);
+  }
+
+  static <T> RollStrategy<T> createImmutable(RollDirection direction) {
+    return createImmutable(direction, RollEngine.RECURSIVE);
+  }
+
+  /**
+   * Returns the immutable strategy of the given direction and engine, which, like those returned
+   * by {@link #create(RollDirection, RollEngine)}, is the same instance on every call.
+   *
+   * @param direction the roll direction
+   * @param engine    the roll engine
+   *
+   * @return the roll strategy
+   */
+  static <T> RollStrategy<T> createImmutable(RollDirection direction, RollEngine engine) {
+    return SharedRollStrategies.immutable(Objects.requireNonNull(direction), engine);
+  }
+
+  /**
+   * Creates a mutable strategy that rolls the independent subtrees of a tree concurrently, in the
+   * given pool. The parallelism of the pool bounds the number of subtrees rolled at once.
+   *
+   * @param direction the roll direction
+   * @param pool      the pool that runs the roll
+   * @param threshold the smallest number of nodes in a subtree that is rolled by a separate task
+   *
+   * @return the parallel roll strategy
+   */
+  static <T> RollStrategy<T> createParallel(RollDirection direction, ForkJoinPool pool,
+      int threshold) {
+    return create(direction, RollEngine.PARALLEL, new ParallelRollSettings(pool, threshold));
+  }
+
+  /**
+   * Creates an immutable counterpart of the strategy created by {@link #createParallel}, which
+   * both copies and rolls the tree concurrently.
+   *
+   * @param direction the roll direction
+   * @param pool      the pool that runs the roll
+   * @param threshold the smallest number of nodes in a subtree that is rolled by a separate task
+   *
+   * @return the parallel roll strategy
+   */
+  static <T> RollStrategy<T> createImmutableParallel(RollDirection direction, ForkJoinPool pool,
+      int threshold) {
+    return createImmutable(direction, RollEngine.PARALLEL,
+        new ParallelRollSettings(pool, threshold));
+  }
+
+  /**
+   * Wraps the given strategy in one that rolls the same way, and measures every roll with
+   * {@link TreeInstrumentation}. The measurements are reported to the given metrics, and as
+   * Flight Recorder events.
+   *
+   * @param strategy the strategy to measure
+   * @param metrics  the metrics to report the rolls to
+   *
+   * @return the instrumented roll strategy
+   */
+  static <T> RollStrategy<T> createInstrumented(RollStrategy<T> strategy, TreeMetrics metrics) {
+    return new InstrumentedRollStrategy<>(strategy, metrics);
+  }
+
+  private static <T> RollStrategy<T> create(RollDirection direction, RollEngine engine,
+      ParallelRollSettings parallelSettings) {
+    checkMutableEngine(engine);
+
     return switch (direction) {
-      case CLOCKWISE -> new ClockwiseRollStrategy<>();
-      case COUNTERCLOCKWISE -> new CounterClockwiseRollStrategy<>();
+      case CLOCKWISE -> new ClockwiseRollStrategy<>(engine, parallelSettings);
+      case COUNTERCLOCKWISE -> new CounterClockwiseRollStrategy<>(engine, parallelSettings);
     };
   }
 
-  static <T> RollStrategy<T> createImmutable(RollDirection direction) {
+  private static <T> RollStrategy<T> createImmutable(RollDirection direction, RollEngine engine,
+      ParallelRollSettings parallelSettings) {
     return switch (direction) {
-      case CLOCKWISE -> new ClockwiseRollStrategy.Immutable<>();
-      case COUNTERCLOCKWISE -> new CounterClockwiseRollStrategy.Immutable<>();
+      case CLOCKWISE -> new ClockwiseRollStrategy.Immutable<>(engine, parallelSettings);
+      case COUNTERCLOCKWISE -> new CounterClockwiseRollStrategy.Immutable<>(engine,
+          parallelSettings);
     };
   }
+
+  private static void checkMutableEngine(RollEngine engine) {
+    if (engine == RollEngine.FUSED) {
+      throw new IllegalArgumentException("The fused engine only supports immutable strategies.");
+    }
+  }
 }
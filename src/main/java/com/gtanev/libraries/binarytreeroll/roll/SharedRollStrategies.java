@@ -0,0 +1,50 @@
+package com.gtanev.libraries.binarytreeroll.roll;
+
+/**
+ * The strategies returned by the {@link RollStrategyFactory} for the default settings, one per
+ * direction, engine and mutability. Strategies and their handlers keep no state between rolls, so
+ * a single instance of each is shared by every caller and every thread, and creating a strategy
+ * allocates nothing.
+ */
+final class SharedRollStrategies {
+
+  private static final int ENGINES = RollEngine.values().length;
+  private static final RollStrategy<?>[] MUTABLE = new RollStrategy<?>[2 * ENGINES];
+  private static final RollStrategy<?>[] IMMUTABLE = new RollStrategy<?>[2 * ENGINES];
+
+  static {
+    var settings = ParallelRollSettings.defaults();
+
+    for (var engine : RollEngine.values()) {
+      var clockwise = index(RollDirection.CLOCKWISE, engine);
+      var counterclockwise = index(RollDirection.COUNTERCLOCKWISE, engine);
+
+      if (engine != RollEngine.FUSED) {
+        MUTABLE[clockwise] = new ClockwiseRollStrategy<>(engine, settings);
+        MUTABLE[counterclockwise] = new CounterClockwiseRollStrategy<>(engine, settings);
+      }
+
+      IMMUTABLE[clockwise] = new ClockwiseRollStrategy.Immutable<>(engine, settings);
+      IMMUTABLE[counterclockwise] = new CounterClockwiseRollStrategy.Immutable<>(engine, settings);
+    }
+  }
+
+  private SharedRollStrategies() {}
+
+  @SuppressWarnings("unchecked")
+  static <T> RollStrategy<T> mutable(RollDirection direction, RollEngine engine) {
+    return (RollStrategy<T>) MUTABLE[index(direction, engine)];
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> RollStrategy<T> immutable(RollDirection direction, RollEngine engine) {
+    return (RollStrategy<T>) IMMUTABLE[index(direction, engine)];
+  }
+
+  private static int index(RollDirection direction, RollEngine engine) {
+    return switch (direction) {
+      case CLOCKWISE -> engine.ordinal();
+      case COUNTERCLOCKWISE -> ENGINES + engine.ordinal();
+    };
+  }
+}
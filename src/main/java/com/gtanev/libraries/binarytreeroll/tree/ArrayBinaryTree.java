@@ -0,0 +1,94 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import static com.gtanev.libraries.binarytreeroll.tree.IndexedLinks.NIL;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+
+/**
+ * A binary tree stored as a struct of arrays rather than as linked node objects.
+ *
+ * <p>The node at index {@code i} holds the value {@code values[i]} and has the children at indices
+ * {@code left[i]} and {@code right[i]}, so a node costs two ints and one reference instead of a
+ * separate object with its own header. Rolling the tree only rewrites the two index arrays, and
+ * an immutable roll copies them while sharing the values.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public final class ArrayBinaryTree<T>
+    implements Traversable<T>, SelfRollable<T, ArrayBinaryTree<T>> {
+
+  private final IntArrayLinks links;
+  private final Object[] values;
+  private int root;
+
+  private ArrayBinaryTree(IntArrayLinks links, Object[] values, int root) {
+    this.links = links;
+    this.values = values;
+    this.root = root;
+  }
+
+  /**
+   * Creates an array-backed copy of the given binary tree.
+   *
+   * @param tree the binary tree
+   *
+   * @return the array-backed binary tree
+   */
+  public static <T> ArrayBinaryTree<T> from(BinaryTree<T> tree) {
+    var size = IndexedTrees.count(tree.getRoot());
+    var links = new IntArrayLinks(size);
+    var values = new Object[size];
+
+    IndexedTrees.copyFrom(tree.getRoot(), links, (value, index) -> values[index] = value);
+
+    return new ArrayBinaryTree<>(links, values, size > 0 ? 0 : NIL);
+  }
+
+  /**
+   * Creates a linked copy of this tree, consisting of {@link BinaryTree.Node} objects.
+   *
+   * @return the binary tree
+   */
+  public BinaryTree<T> toBinaryTree() {
+    return new BinaryTree<>(IndexedTrees.copyTo(links, root, this::getValue));
+  }
+
+  public long size() {
+    return values.length;
+  }
+
+  public long height() {
+    return IndexedTrees.height(links, root);
+  }
+
+  @SuppressWarnings("unchecked")
+  private T getValue(int index) {
+    return (T) values[index];
+  }
+
+  /**
+   * Traverses the tree with the given visitor. The nodes handed to the visitor are read-only
+   * flyweights, which are only valid for the duration of the call that received them.
+   *
+   * @param visitor the visitor
+   */
+  @Override
+  public void traverse(Visitor<T> visitor) {
+    IndexedTrees.traverse(links, root, this::getValue, visitor);
+  }
+
+  /**
+   * Rolls the tree in the direction of the given strategy. An immutable strategy rolls a copy of
+   * the index arrays, which shares the values with this tree.
+   *
+   * @param strategy the roll strategy
+   *
+   * @return the rolled tree
+   */
+  @Override
+  public ArrayBinaryTree<T> roll(RollStrategy<T> strategy) {
+    var tree = strategy.isImmutable() ? new ArrayBinaryTree<T>(links.copy(), values, root) : this;
+    tree.root = IndexedTrees.roll(tree.links, tree.root, strategy.getDirection());
+    return tree;
+  }
+}
@@ -1,9 +1,22 @@
 package com.gtanev.libraries.binarytreeroll.tree;
 
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
 import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A binary tree.
@@ -13,6 +26,10 @@ import java.util.Queue;
 public class BinaryTree<T> implements Traversable<T>, Rollable<T> {
 
   private Node<T> root;
+  private TreeMetadata metadata;
+  private long rolledHeight = TreeMetadata.UNKNOWN;
+  private final StructureEpoch epoch = new StructureEpoch();
+  private LinkJournal<T> journal;
 
   public BinaryTree() {}
 
@@ -25,23 +42,164 @@ public class BinaryTree<T> implements Traversable<T>, Rollable<T> {
   }
 
   public void setRoot(Node<T> root) {
+    if (journal != null) {
+      if (root != null && !journal.owns(root)) {
+        throw new IllegalArgumentException(
+            "The root of a journaled tree must be a node of its journal.");
+      }
+
+      journal.recordRoot(this.root, root);
+    }
+
     this.root = root;
+    this.metadata = null;
+    this.rolledHeight = TreeMetadata.UNKNOWN;
   }
 
-  public long size() {
-    return size(this.root);
+  /**
+   * Replaces the root of this tree, like {@link #setRoot}, with the root of a rolled tree of the
+   * given height, as the roll strategies do. {@link #roll} caches the height together with the
+   * size, which a roll does not change.
+   *
+   * @param root   the root of the rolled tree
+   * @param height the number of levels in the rolled tree
+   */
+  public void setRolledRoot(Node<T> root, long height) {
+    setRoot(root);
+    this.rolledHeight = height;
+  }
+
+  /**
+   * Creates a detached node that belongs to this tree, for building or extending the tree. Like
+   * those of the nodes that the tree has built, copied or walked itself, changes to the links of
+   * the node invalidate the cached metadata of this tree, so the tree needs no walk to claim it.
+   *
+   * @param value the value of the node
+   *
+   * @return the node
+   */
+  public Node<T> createNode(T value) {
+    var node = new Node<>(value);
+    node.adopt(epoch);
+    return node;
+  }
+
+  /**
+   * Creates a detached node that belongs to this tree, like {@link #createNode}, holding the value
+   * of the given node. The node is of the kind the deep copies of the given node are made of, so a
+   * copy of a tree of {@link HashedNode}s built from such nodes is made of hashed nodes as well.
+   *
+   * @param node the node to copy
+   *
+   * @return the copy of the node, without its links
+   */
+  public Node<T> createCopy(Node<T> node) {
+    var copy = node.newNode(node.getValue());
+    copy.adopt(epoch);
+    return copy;
+  }
+
+  /**
+   * Returns the journal which records the changes to the links of this tree, if it has been
+   * created by {@link LinkJournal#copyOf}.
+   *
+   * @return the journal of this tree, or null if its changes are not recorded
+   */
+  public LinkJournal<T> getJournal() {
+    return journal;
   }
 
-  private long size(Node<T> root) {
-    return root == null ? 0 : 1 + size(root.getLeft()) + size(root.getRight());
+  void setJournal(LinkJournal<T> journal) {
+    this.journal = journal;
   }
 
+  /**
+   * Returns the number of nodes in this tree. The size is cached, and it is recorded without an
+   * extra walk when the tree is built by {@link #of}, copied or rolled, so it is read in constant
+   * time unless the links of a node of this tree have changed since.
+   *
+   * @return the number of nodes
+   */
+  public long size() {
+    var metadata = getMetadata();
+    return metadata != null ? metadata.size() : computeMetadata().size();
+  }
+
+  /**
+   * Returns the height of this tree, which is cached like its {@link #size()}. The roll handlers
+   * compute the height of the rolled tree as they relink it, so a roll records it as well.
+   *
+   * @return the number of levels in the tree
+   */
   public long height() {
-    return height(this.root);
+    var metadata = getMetadata();
+
+    if (metadata == null || !metadata.hasHeight()) {
+      metadata = computeMetadata();
+    }
+
+    return metadata.height();
   }
 
-  private long height(Node<T> root) {
-    return root == null ? 0 : 1 + Math.max(height(root.getLeft()), height(root.getRight()));
+  /**
+   * Returns the cached number of nodes in this tree, without walking the tree if it is not cached.
+   *
+   * @return the number of nodes, or -1 if it is not cached
+   */
+  public long cachedSize() {
+    var metadata = getMetadata();
+    return metadata != null ? metadata.size() : TreeMetadata.UNKNOWN;
+  }
+
+  /**
+   * Returns the cached height of this tree, without walking the tree if it is not cached.
+   *
+   * @return the number of levels in the tree, or -1 if it is not cached
+   */
+  public long cachedHeight() {
+    var metadata = getMetadata();
+    return metadata != null ? metadata.height() : TreeMetadata.UNKNOWN;
+  }
+
+  /**
+   * Returns the number of nodes at every depth of this tree, which is cached like its
+   * {@link #size()}, except that a roll does not record it.
+   *
+   * @return the number of nodes at every depth, starting with the root
+   */
+  public long[] depthHistogram() {
+    return getLevelSizes().clone();
+  }
+
+  private long[] getLevelSizes() {
+    var metadata = getMetadata();
+    return metadata != null && metadata.hasLevelSizes()
+        ? metadata.levelSizes() : computeMetadata().levelSizes();
+  }
+
+  /**
+   * Returns the cached metadata of this tree, if it is still valid.
+   */
+  TreeMetadata getMetadata() {
+    if (metadata != null && epoch.isChanged()) {
+      metadata = null;
+    }
+
+    return metadata;
+  }
+
+  /**
+   * Records the given metadata, which must reflect the current links of this tree, all of whose
+   * nodes must carry its epoch.
+   */
+  void setMetadata(TreeMetadata metadata) {
+    this.metadata = metadata;
+    epoch.reset();
+  }
+
+  private TreeMetadata computeMetadata() {
+    setMetadata(TreeMetadata.compute(root, epoch));
+    return metadata;
   }
 
   /**
@@ -69,10 +227,12 @@ public class BinaryTree<T> implements Traversable<T>, Rollable<T> {
       return new BinaryTree<>();
     }
 
-    Node<T> rootNode = new Node<>(values[0]);
+    var tree = new BinaryTree<T>();
+    Node<T> rootNode = tree.createNode(values[0]);
     Queue<Node<T>> nodeQueue = new LinkedList<>();
     nodeQueue.offer(rootNode);
 
+    var levelSizes = TreeMetadata.LevelSizes.withRoot();
     int valPtr = 1;
 
     while (!nodeQueue.isEmpty()) {
@@ -81,23 +241,139 @@ public class BinaryTree<T> implements Traversable<T>, Rollable<T> {
       Node<T> node = nodeQueue.poll();
 
       if (leftVal != null && !leftVal.equals(nullIdentifier)) {
-        Node<T> leftNode = new Node<>(leftVal);
+        Node<T> leftNode = tree.createNode(leftVal);
         node.setLeft(leftNode);
         nodeQueue.offer(leftNode);
+        levelSizes.childAdded();
       }
 
       if (rightVal != null && !rightVal.equals(nullIdentifier)) {
-        Node<T> rightNode = new Node<>(rightVal);
+        Node<T> rightNode = tree.createNode(rightVal);
         node.setRight(rightNode);
         nodeQueue.offer(rightNode);
+        levelSizes.childAdded();
       }
+
+      levelSizes.parentCompleted();
     }
 
-    return new BinaryTree<>(rootNode);
+    tree.root = rootNode;
+    tree.setMetadata(levelSizes.toMetadata());
+    return tree;
+  }
+
+  /**
+   * Creates a binary tree from the level-order values returned by a given iterator. The tree is
+   * built incrementally, and only the values needed to complete the tree are consumed.
+   *
+   * @param values         the iterator of values
+   * @param nullIdentifier the value that represents a null node
+   *
+   * @return the binary tree
+   */
+  public static <T> BinaryTree<T> of(Iterator<? extends T> values, T nullIdentifier) {
+    return LevelOrderBuilder.build(Objects.requireNonNull(values), nullIdentifier);
+  }
+
+  /**
+   * Creates a binary tree from the level-order values of a given spliterator, such as the one of a
+   * sequential stream. The tree is built incrementally, as with {@link #of(Iterator, Object)}.
+   *
+   * @param values         the spliterator of values
+   * @param nullIdentifier the value that represents a null node
+   *
+   * @return the binary tree
+   */
+  public static <T> BinaryTree<T> of(Spliterator<? extends T> values, T nullIdentifier) {
+    return of(Spliterators.iterator(Objects.requireNonNull(values)), nullIdentifier);
+  }
+
+  /**
+   * Reads a binary tree from a channel of level-order tokens, separated by whitespace or commas.
+   * The channel is read incrementally, and is not closed. It must be in blocking mode, since a
+   * non-blocking channel would have to be polled while no data is available.
+   *
+   * @param channel   the channel of UTF-8 encoded tokens
+   * @param nullToken the token that represents a null node
+   * @param parser    the function that parses a token into a value
+   *
+   * @return the binary tree
+   *
+   * @throws IOException if the channel cannot be read
+   * @throws java.nio.channels.IllegalBlockingModeException if the channel is in non-blocking mode
+   */
+  public static <T> BinaryTree<T> read(ReadableByteChannel channel, String nullToken,
+      Function<String, ? extends T> parser) throws IOException {
+    return LevelOrderBuilder.read(Objects.requireNonNull(channel), nullToken, parser);
+  }
+
+  /**
+   * Reads a binary tree from a stream of level-order tokens, as with
+   * {@link #read(ReadableByteChannel, String, Function)}. The stream is not closed.
+   *
+   * @param inputStream the stream of UTF-8 encoded tokens
+   * @param nullToken   the token that represents a null node
+   * @param parser      the function that parses a token into a value
+   *
+   * @return the binary tree
+   *
+   * @throws IOException if the stream cannot be read
+   */
+  public static <T> BinaryTree<T> read(InputStream inputStream, String nullToken,
+      Function<String, ? extends T> parser) throws IOException {
+    return read(Channels.newChannel(inputStream), nullToken, parser);
   }
 
   public BinaryTree<T> deepCopy() {
-    return new BinaryTree<>(root != null ? root.deepCopy() : null);
+    var copy = new BinaryTree<T>();
+    copy.root = root != null ? root.deepCopy(copy.epoch) : null;
+    return copy.inheritMetadata(getMetadata());
+  }
+
+  /**
+   * Creates a deep copy of this tree in the given pool, copying large subtrees concurrently.
+   *
+   * @param pool      the pool that runs the copy
+   * @param threshold the smallest number of nodes in a subtree that is copied by a separate task
+   *
+   * @return the deep copy of the tree
+   */
+  public BinaryTree<T> deepCopy(ForkJoinPool pool, int threshold) {
+    Objects.requireNonNull(pool);
+
+    if (threshold < 1) {
+      throw new IllegalArgumentException("The threshold must be positive.");
+    }
+
+    var copy = new BinaryTree<T>();
+    copy.root = NodeCopier.copyParallel(root, pool, threshold, copy.epoch);
+    return copy.inheritMetadata(getMetadata());
+  }
+
+  /**
+   * Creates a deep copy of this tree, reusing the nodes available in the given pool before
+   * allocating new ones.
+   *
+   * @param nodePool the pool of released nodes
+   *
+   * @return the deep copy of the tree
+   */
+  public BinaryTree<T> deepCopy(NodePool<T> nodePool) {
+    var copy = new BinaryTree<T>();
+    copy.root = NodeCopier.copy(root, nodePool::acquire, copy.epoch);
+    return copy.inheritMetadata(getMetadata());
+  }
+
+  /**
+   * Records the given metadata of a tree of the same shape, which this tree has been copied from,
+   * if the metadata was valid at the time.
+   */
+  private BinaryTree<T> inheritMetadata(TreeMetadata metadata) {
+    if (metadata != null) {
+      setMetadata(metadata);
+    }
+
+    return this;
   }
 
   @Override
@@ -109,16 +385,140 @@ public class BinaryTree<T> implements Traversable<T>, Rollable<T> {
     root.traverse(visitor);
   }
 
+  /**
+   * Creates a lazy, non-recursive spliterator over the values of this tree in the given order. The
+   * depth-first spliterators split on subtrees, so that parallel streams process the subtrees of
+   * the tree concurrently. The spliterator is {@link Spliterator#SIZED} if the size of the tree is
+   * cached. The tree must not be modified while the spliterator is in use.
+   *
+   * @param order the traversal order
+   *
+   * @return the spliterator
+   */
+  public Spliterator<T> spliterator(TraversalOrder order) {
+    var metadata = getMetadata();
+    return TraversalSpliterator.of(root, Objects.requireNonNull(order),
+        metadata != null ? metadata.size() : -1);
+  }
+
+  /**
+   * Creates a sequential stream of the values of this tree in the given order, which can be turned
+   * into a parallel stream with {@link Stream#parallel()}.
+   *
+   * @param order the traversal order
+   *
+   * @return the stream of values
+   */
+  public Stream<T> stream(TraversalOrder order) {
+    return StreamSupport.stream(spliterator(order), false);
+  }
+
+  /**
+   * Creates a lazy, non-recursive iterator over the values of this tree in the given order.
+   *
+   * @param order the traversal order
+   *
+   * @return the iterator
+   */
+  public Iterator<T> iterator(TraversalOrder order) {
+    return Spliterators.iterator(spliterator(order));
+  }
+
+  /**
+   * Rolls this tree with the given strategy. A roll does not change the number of nodes, so a
+   * cached size of this tree carries over to the rolled tree, together with the height of the
+   * rolled tree, which the strategy computes as it rolls.
+   *
+   * @param strategy the roll strategy
+   *
+   * @return the rolled tree
+   */
   @Override
   public BinaryTree<T> roll(RollStrategy<T> strategy) {
-    return strategy.roll(this);
+    var metadata = getMetadata();
+    var rolledTree = strategy.roll(this);
+
+    if (metadata != null) {
+      rolledTree.setMetadata(TreeMetadata.ofShape(metadata.size(), rolledTree.rolledHeight));
+    }
+
+    return rolledTree;
+  }
+
+  /**
+   * Creates a view of this tree as if it had been rolled in the given direction, without
+   * modifying or copying the tree. The view reflects later changes to the tree.
+   *
+   * @param direction the direction of the roll
+   *
+   * @return the traversable rolled view
+   */
+  public Traversable<T> rolledView(RollDirection direction) {
+    return new RolledView<>(this, Objects.requireNonNull(direction));
   }
 
+  /**
+   * Compares this tree with the given one without recursion, stopping at the first position in
+   * preorder at which they differ.
+   *
+   * @param other the other tree
+   *
+   * @return the first mismatch between the trees, or an empty optional if they are equal
+   */
+  public Optional<TreeMismatch> findMismatch(BinaryTree<?> other) {
+    return Optional.ofNullable(NodeComparator.findMismatch(root, other.root));
+  }
+
+  /**
+   * Compares this tree with the given one in the given pool, comparing large subtrees
+   * concurrently, and stopping as soon as any difference is found.
+   *
+   * @param other     the other tree
+   * @param pool      the pool that runs the comparison
+   * @param threshold the smallest number of nodes in a subtree that is compared by a separate task
+   *
+   * @return a mismatch between the trees, which is not necessarily the first one in preorder, or an
+   *     empty optional if they are equal
+   */
+  public Optional<TreeMismatch> findMismatch(BinaryTree<?> other, ForkJoinPool pool,
+      int threshold) {
+    Objects.requireNonNull(other);
+    Objects.requireNonNull(pool);
+
+    if (threshold < 1) {
+      throw new IllegalArgumentException("The threshold must be positive.");
+    }
+
+    return Optional.ofNullable(
+        NodeComparator.findMismatchParallel(root, other.root, pool, threshold));
+  }
+
+  /**
+   * Compares this tree with the given object structurally, without recursion. Trees whose sizes
+   * are both cached are told apart by their sizes, and large ones are compared in parallel in the
+   * common pool.
+   *
+   * @param o the object to compare with
+   *
+   * @return whether the object is a tree with equal values in the same shape
+   */
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
     if (!(o instanceof BinaryTree<?> that)) return false;
 
+    var metadata = this.getMetadata();
+    var otherMetadata = that.getMetadata();
+
+    if (metadata != null && otherMetadata != null) {
+      if (metadata.size() != otherMetadata.size()) return false;
+
+      if (NodeComparator.shouldCompareInParallel(metadata.size())) {
+        return NodeComparator.findMismatchParallel(this.root, that.root, ForkJoinPool.commonPool(),
+            NodeComparator.DEFAULT_THRESHOLD) == null;
+      }
+    }
+
     return Objects.equals(this.root, that.root);
   }
 
@@ -137,6 +537,7 @@ public class BinaryTree<T> implements Traversable<T>, Rollable<T> {
     private T value;
     private Node<T> left;
     private Node<T> right;
+    private StructureEpoch epoch;
 
     public Node() {}
 
@@ -157,6 +558,10 @@ public class BinaryTree<T> implements Traversable<T>, Rollable<T> {
     }
 
     public void setLeft(Node<T> left) {
+      if (epoch != null) {
+        epoch.markChanged();
+      }
+
       this.left = left;
     }
 
@@ -165,6 +570,20 @@ public class BinaryTree<T> implements Traversable<T>, Rollable<T> {
     }
 
     public void setRight(Node<T> right) {
+      if (epoch != null) {
+        epoch.markChanged();
+      }
+
+      this.right = right;
+    }
+
+    /**
+     * Points the right link of this node at the given node for the Morris traversals, which thread
+     * the tree temporarily and restore every link before they return. The write bypasses the
+     * setters, so it is neither seen by the epoch of the tree nor by the subclasses that track
+     * changes to the links, such as the parent links of {@link HashedNode}s.
+     */
+    void setThread(Node<T> right) {
       this.right = right;
     }
 
@@ -173,22 +592,41 @@ public class BinaryTree<T> implements Traversable<T>, Rollable<T> {
     }
 
     /**
-     * Creates a deep copy of the current node and its children
+     * Creates a deep copy of the current node and its children, without recursion
      *
      * @return a deep copy of the current node and its children
      */
     public Node<T> deepCopy() {
-      var copy = new Node<>(this.value);
+      return deepCopy(null);
+    }
 
-      if (this.left != null) {
-        copy.setLeft(this.left.deepCopy());
-      }
+    /**
+     * Creates a deep copy of the current node and its children, whose nodes carry the given epoch.
+     */
+    Node<T> deepCopy(StructureEpoch epoch) {
+      return NodeCopier.copy(this, Node::new, epoch);
+    }
 
-      if (this.right != null) {
-        copy.setRight(this.right.deepCopy());
-      }
+    /**
+     * Creates a detached node holding the given value, of the kind the deep copies of this node
+     * are made of.
+     */
+    Node<T> newNode(T value) {
+      return new Node<>(value);
+    }
+
+    /**
+     * Stamps the given epoch on this node, whose changes mark it as changed from now on. The epoch
+     * this node carried before, if any, is marked as changed, as it no longer follows this node.
+     */
+    void adopt(StructureEpoch epoch) {
+      if (this.epoch != epoch) {
+        if (this.epoch != null) {
+          this.epoch.markChanged();
+        }
 
-      return copy;
+        this.epoch = epoch;
+      }
     }
 
     @Override
@@ -196,17 +634,19 @@ public class BinaryTree<T> implements Traversable<T>, Rollable<T> {
       if (this == o) return true;
       if (!(o instanceof Node<?> that)) return false;
 
-      if (!Objects.equals(this.value, that.value)) return false;
-      if (!Objects.equals(this.left, that.left)) return false;
-      return Objects.equals(this.right, that.right);
+      return NodeComparator.findMismatch(this, that) == null;
     }
 
+    /**
+     * Computes a structural hash of the current node and its children, without recursion. The
+     * hash combines the hash of the value with the hashes of the left and the right child, each
+     * of which is 0 if the child is missing, as {@code 31 * (31 * value + left) + right}.
+     *
+     * @return the structural hash
+     */
     @Override
     public int hashCode() {
-      int result = value != null ? value.hashCode() : 0;
-      result = 31 * result + (left != null ? left.hashCode() : 0);
-      result = 31 * result + (right != null ? right.hashCode() : 0);
-      return result;
+      return NodeHashes.hash(this);
     }
   }
 }
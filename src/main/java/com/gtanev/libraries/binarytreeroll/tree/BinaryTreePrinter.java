@@ -1,80 +1,182 @@
 package com.gtanev.libraries.binarytreeroll.tree;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 /**
- * A printer for binary trees.
+ * A printer for binary trees, which writes to any {@link Appendable}, such as a
+ * {@link PrintStream}, a {@link java.io.Writer} or a {@link StringBuilder}. The output is written
+ * as it is produced, without rendering whole subtrees into intermediate strings.
+ *
+ * <p>Any {@link IOException} thrown by the target is rethrown as an {@link UncheckedIOException}.
  *
  * @param <T> the type of values held by the tree
  */
 public class BinaryTreePrinter<T> {
 
-  private final PrintStream printStream;
+  private static final int EDGE_LENGTH = 4;
+  private static final String EDGE_SHAPES = " ┘┐┤";
+  private static final String EDGE = " " + "—".repeat(EDGE_LENGTH);
+
+  private final Appendable out;
 
   public BinaryTreePrinter(PrintStream printStream) {
-    this.printStream = printStream;
+    this((Appendable) printStream);
+  }
+
+  public BinaryTreePrinter(Appendable out) {
+    this.out = out;
   }
 
   public void print(String s) {
-    printStream.print(s);
+    append(s);
   }
 
   public void println(String s) {
-    printStream.println(s);
+    append(s);
+    append(System.lineSeparator());
   }
 
   public void closeStream() {
-    printStream.close();
+    if (out instanceof Closeable closeable) {
+      try {
+        closeable.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
   }
 
   public void printPreorder(BinaryTree<T> tree) {
-    tree.traverse(new PreorderVisitor<>(this::printNodeValue));
-    printStream.append(' ').println("Preorder");
+    tree.traverse(new IterativePreorderVisitor<>(this::printNodeValue));
+    println(" Preorder");
   }
 
   public void printInorder(BinaryTree<T> tree) {
-    tree.traverse(new InorderVisitor<>(this::printNodeValue));
-    printStream.append(' ').println("Inorder");
+    tree.traverse(new IterativeInorderVisitor<>(this::printNodeValue));
+    println(" Inorder");
   }
 
   public void printPostorder(BinaryTree<T> tree) {
-    tree.traverse(new PostorderVisitor<>(this::printNodeValue));
-    printStream.append(' ').println("Postorder");
+    tree.traverse(new IterativePostorderVisitor<>(this::printNodeValue));
+    println(" Postorder");
   }
 
+  /**
+   * Prints a diagram of the given tree, rotated counterclockwise so that the root is on the left
+   * and the right subtree is above it, followed by an empty line.
+   *
+   * @param tree the tree to print
+   */
   public void printTree(BinaryTree<T> tree) {
     var root = tree.getRoot();
 
     if (root == null) {
-      printStream.println("NULL");
+      println("NULL");
+    } else {
+      printTree(root);
     }
 
-    printStream.println(printTree(root, 1, ""));
+    println("");
   }
 
   private void printNodeValue(BinaryTree.Node<T> node) {
-    printStream.print(node.getValue() + " ");
+    append(String.valueOf(node.getValue()));
+    append(' ');
   }
 
-  private String printTree(BinaryTree.Node<T> root, int direction, String prefix) {
-    if (root == null) {
-      return "";
+  /**
+   * Prints the lines of a non-empty tree in reverse inorder, one line per node. The prefix of every
+   * line is kept in a single buffer, which holds the prefix of the current node followed by the
+   * extension for its child, so a frame only needs to remember the length of its own prefix.
+   */
+  private void printTree(BinaryTree.Node<T> root) {
+    var prefix = new StringBuilder();
+    Deque<Frame<T>> stack = new ArrayDeque<>();
+    stack.push(new Frame<>(root, 1, 0));
+
+    while (!stack.isEmpty()) {
+      var frame = stack.peek();
+      var node = frame.node;
+
+      if (!frame.rightPrinted) {
+        frame.rightPrinted = true;
+
+        if (node.getRight() != null) {
+          extendPrefix(prefix, frame, "│  ".charAt(frame.direction));
+          stack.push(new Frame<>(node.getRight(), 2, prefix.length()));
+        }
+
+        continue;
+      }
+
+      stack.pop();
+      prefix.setLength(frame.prefixLength);
+
+      var edgeType = (node.getRight() != null ? 1 : 0) + (node.getLeft() != null ? 2 : 0);
+      append(prefix);
+      append(frame.value);
+
+      if (edgeType != 0) {
+        append(EDGE);
+        append(EDGE_SHAPES.charAt(edgeType));
+      }
+
+      append('\n');
+
+      if (node.getLeft() != null) {
+        extendPrefix(prefix, frame, "  │".charAt(frame.direction));
+        stack.push(new Frame<>(node.getLeft(), 0, prefix.length()));
+      }
     }
+  }
 
-    var edgeLength = 4;
-    var edgeShapes = " ┘┐┤";
-    var edgeType = (root.getRight() != null ? 1 : 0) + (root.getLeft() != null ? 2 : 0);
+  private static void extendPrefix(StringBuilder prefix, Frame<?> frame, char connector) {
+    prefix.setLength(frame.prefixLength);
+    prefix.append(connector);
 
-    var postfix = switch (edgeType) {
-      case 1, 2, 3 -> " " + "—".repeat(edgeLength) + edgeShapes.charAt(edgeType) + "\n";
-      default -> "\n";
-    };
+    for (var i = EDGE_LENGTH + frame.value.length(); i > 0; i--) {
+      prefix.append(' ');
+    }
+  }
 
-    var padding = " ".repeat(edgeLength + root.getValue().toString().length());
+  private void append(CharSequence s) {
+    try {
+      out.append(s);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 
-    var printRight = printTree(root.getRight(), 2, prefix + "│  ".charAt(direction) + padding);
-    var printLeft = printTree(root.getLeft(), 0, prefix + "  │".charAt(direction) + padding);
+  private void append(char c) {
+    try {
+      out.append(c);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 
-    return printRight + prefix + root.getValue() + postfix + printLeft;
+  /**
+   * A node whose line is pending, with its direction from its parent (0 for left, 1 for the root
+   * and 2 for right) and the length of its prefix.
+   */
+  private static final class Frame<T> {
+
+    private final BinaryTree.Node<T> node;
+    private final int direction;
+    private final int prefixLength;
+    private final String value;
+    private boolean rightPrinted;
+
+    Frame(BinaryTree.Node<T> node, int direction, int prefixLength) {
+      this.node = node;
+      this.direction = direction;
+      this.prefixLength = prefixLength;
+      this.value = String.valueOf(node.getValue());
+    }
   }
 }
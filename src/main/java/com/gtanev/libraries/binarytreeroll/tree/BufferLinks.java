@@ -0,0 +1,41 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Child links held in fixed-size records of a byte buffer, which may live outside the Java heap.
+ * The record of the node at index {@code i} starts at {@code offset + i * stride} and begins with
+ * the index of the left child, followed by the index of the right child.
+ */
+final class BufferLinks implements IndexedLinks {
+
+  private final ByteBuffer buffer;
+  private final int offset;
+  private final int stride;
+
+  BufferLinks(ByteBuffer buffer, int offset, int stride) {
+    this.buffer = buffer;
+    this.offset = offset;
+    this.stride = stride;
+  }
+
+  @Override
+  public int getLeft(int node) {
+    return buffer.getInt(offset + node * stride);
+  }
+
+  @Override
+  public int getRight(int node) {
+    return buffer.getInt(offset + node * stride + Integer.BYTES);
+  }
+
+  @Override
+  public void setLeft(int node, int child) {
+    buffer.putInt(offset + node * stride, child);
+  }
+
+  @Override
+  public void setRight(int node, int child) {
+    buffer.putInt(offset + node * stride + Integer.BYTES, child);
+  }
+}
@@ -0,0 +1,241 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import static com.gtanev.libraries.binarytreeroll.tree.IndexedLinks.NIL;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A read-only binary tree laid out in preorder, for keeping large trees in as little memory as
+ * possible.
+ *
+ * <p>The values are held in an array in preorder, so the left child of a node, if any, is the next
+ * entry and needs no link. Only the index of the right child is stored, as an int, along with one
+ * bit for the presence of the left child, so a node costs about 8 bytes besides its value, while a
+ * {@link BinaryTree.Node} costs 24 bytes with compressed references. Subclasses of {@code Node}
+ * for leaves and for nodes with a single child would not help much: they would still carry an
+ * object header, which leaves a single-child node at 24 bytes and saves 8 bytes only on leaves.
+ *
+ * <p>A compact tree is built from a linked tree by {@link #from}, like a deep copy, or by
+ * {@link #fromRolled}, like an immutable roll, in a single walk of the linked tree that writes the
+ * compact nodes in their final order. It cannot be modified, so it can only be rolled with
+ * immutable strategies, which return a new compact tree.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public final class CompactBinaryTree<T>
+    implements Traversable<T>, SelfRollable<T, CompactBinaryTree<T>> {
+
+  private final PreorderLinks links;
+  private final Object[] values;
+
+  private CompactBinaryTree(PreorderLinks links, Object[] values) {
+    this.links = links;
+    this.values = values;
+  }
+
+  private CompactBinaryTree(int size) {
+    this(new PreorderLinks(size), new Object[size]);
+  }
+
+  /**
+   * Creates a compact copy of the given binary tree.
+   *
+   * @param tree the binary tree
+   *
+   * @return the compact binary tree
+   */
+  public static <T> CompactBinaryTree<T> from(BinaryTree<T> tree) {
+    var compactTree = new CompactBinaryTree<T>(checkedSize(tree));
+
+    if (tree.getRoot() == null) {
+      return compactTree;
+    }
+
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    stack.push(tree.getRoot());
+
+    while (!stack.isEmpty()) {
+      var node = stack.pop();
+      compactTree.append(node.getValue(), node.getLeft() != null, node.getRight() != null);
+
+      if (node.getRight() != null) {
+        stack.push(node.getRight());
+      }
+
+      if (node.getLeft() != null) {
+        stack.push(node.getLeft());
+      }
+    }
+
+    return compactTree;
+  }
+
+  /**
+   * Creates a compact copy of the given binary tree rolled in the given direction, and leaves the
+   * given tree unchanged. The compact nodes are written straight from the original tree, without
+   * a rolled linked copy: the preorder of a tree rolled clockwise is the inorder of the original,
+   * and the preorder of a tree rolled counterclockwise visits every right spine of the original
+   * bottom-up, before the subtrees hanging off it top-down.
+   *
+   * @param tree      the binary tree
+   * @param direction the roll direction
+   *
+   * @return the compact rolled binary tree
+   */
+  public static <T> CompactBinaryTree<T> fromRolled(BinaryTree<T> tree, RollDirection direction) {
+    Objects.requireNonNull(direction);
+    var compactTree = new CompactBinaryTree<T>(checkedSize(tree));
+
+    if (direction == RollDirection.CLOCKWISE) {
+      compactTree.appendRolledClockwise(tree.getRoot());
+    } else {
+      compactTree.appendRolledCounterClockwise(tree.getRoot());
+    }
+
+    return compactTree;
+  }
+
+  private static int checkedSize(BinaryTree<?> tree) {
+    var size = tree.size();
+
+    if (size >= Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("The tree has too many nodes to be indexed.");
+    }
+
+    return (int) size;
+  }
+
+  private void append(T value, boolean leftChild, boolean rightChild) {
+    values[links.append(leftChild, rightChild)] = value;
+  }
+
+  /**
+   * Appends the nodes in inorder. The left child of a node in the rolled tree is its rolled right
+   * subtree, and its right child is its parent, if it is the left child of that parent, which is
+   * then the node below it on the stack.
+   */
+  private void appendRolledClockwise(Node<T> root) {
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    var node = root;
+
+    while (node != null || !stack.isEmpty()) {
+      while (node != null) {
+        stack.push(node);
+        node = node.getLeft();
+      }
+
+      node = stack.pop();
+      var leftChild = !stack.isEmpty() && stack.peek().getLeft() == node;
+      append(node.getValue(), node.getRight() != null, leftChild);
+      node = node.getRight();
+    }
+  }
+
+  /**
+   * Appends every right spine bottom-up, and then rolls the left subtrees of its nodes top-down.
+   * The left child of a spine node in the rolled tree is the node above it on the spine, and its
+   * right child is its rolled left subtree.
+   */
+  private void appendRolledCounterClockwise(Node<T> root) {
+    if (root == null) {
+      return;
+    }
+
+    Deque<Node<T>> subtrees = new ArrayDeque<>();
+    List<Node<T>> spine = new ArrayList<>();
+    subtrees.push(root);
+
+    while (!subtrees.isEmpty()) {
+      for (var node = subtrees.pop(); node != null; node = node.getRight()) {
+        spine.add(node);
+      }
+
+      for (var i = spine.size() - 1; i >= 0; i--) {
+        var node = spine.get(i);
+        append(node.getValue(), i > 0, node.getLeft() != null);
+
+        if (node.getLeft() != null) {
+          subtrees.push(node.getLeft());
+        }
+      }
+
+      spine.clear();
+    }
+  }
+
+  /**
+   * Creates a linked copy of this tree, consisting of {@link BinaryTree.Node} objects.
+   *
+   * @return the binary tree
+   */
+  public BinaryTree<T> toBinaryTree() {
+    return new BinaryTree<>(IndexedTrees.copyTo(links, root(), this::getValue));
+  }
+
+  public long size() {
+    return values.length;
+  }
+
+  public long height() {
+    return IndexedTrees.height(links, root());
+  }
+
+  private int root() {
+    return values.length > 0 ? 0 : NIL;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T getValue(int index) {
+    return (T) values[index];
+  }
+
+  /**
+   * Traverses the tree with the given visitor. The nodes handed to the visitor are read-only
+   * flyweights, which are only valid for the duration of the call that received them.
+   *
+   * @param visitor the visitor
+   */
+  @Override
+  public void traverse(Visitor<T> visitor) {
+    IndexedTrees.traverse(links, root(), this::getValue, visitor);
+  }
+
+  /**
+   * Returns a compact copy of this tree rolled in the direction of the given strategy, which must
+   * be immutable. The copy is rolled as a pair of index arrays and then laid out in preorder.
+   *
+   * @param strategy the immutable roll strategy
+   *
+   * @return the rolled tree
+   *
+   * @throws UnsupportedOperationException if the strategy is mutable
+   */
+  @Override
+  public CompactBinaryTree<T> roll(RollStrategy<T> strategy) {
+    if (!strategy.isImmutable()) {
+      throw new UnsupportedOperationException("Compact trees can only be rolled immutably.");
+    }
+
+    var rolledLinks = new IntArrayLinks(values.length);
+
+    for (var i = 0; i < values.length; i++) {
+      rolledLinks.setLeft(i, links.getLeft(i));
+      rolledLinks.setRight(i, links.getRight(i));
+    }
+
+    var rolledRoot = IndexedTrees.roll(rolledLinks, root(), strategy.getDirection());
+    var rolledTree = new CompactBinaryTree<T>(values.length);
+
+    IndexedTrees.preorder(rolledLinks, rolledRoot, index -> rolledTree.append(getValue(index),
+        rolledLinks.getLeft(index) != NIL, rolledLinks.getRight(index) != NIL));
+
+    return rolledTree;
+  }
+}
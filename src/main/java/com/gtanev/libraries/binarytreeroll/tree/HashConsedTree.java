@@ -0,0 +1,297 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable binary tree whose structurally identical subtrees share a single canonical node of
+ * an {@link InternTable}, for trees with many repeated subtrees.
+ *
+ * <p>A repeated subtree is stored once, however often it occurs, and two trees built with the same
+ * table are equal only if they have the same root node, so {@link #equals} is a reference
+ * comparison and {@link #hashCode} is cached. Rolling a tree builds its rolled counterpart out of
+ * canonical nodes as well, and every shared subtree is rolled once: the result is remembered by
+ * the root of the subtree for as long as it is in use, as is the original by the result, since
+ * the opposite roll undoes it. Rolling a tree again, or rolling its rolled counterpart back,
+ * therefore takes constant time while the result is in use.
+ *
+ * <p>The nodes handed to visitors are the canonical nodes, which reject any change, so visitors
+ * that relink nodes, such as the Morris visitors, cannot be used. A canonical node takes about
+ * 40 bytes, and its entry in the table another 40, against 24 bytes for a plain node, so
+ * hash-consing pays off once a stored node stands for more than three nodes of the tree on
+ * average, which {@link #size()} and {@link #sharedNodeCount()} tell.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public final class HashConsedTree<T>
+    implements Traversable<T>, SelfRollable<T, HashConsedTree<T>> {
+
+  private final InternTable<T> table;
+  private final InternedNode<T> root;
+
+  private HashConsedTree(InternTable<T> table, InternedNode<T> root) {
+    this.table = table;
+    this.root = root;
+  }
+
+  /**
+   * Creates a hash-consed copy of the given binary tree, built with the
+   * {@link InternTable#shared() shared} table.
+   *
+   * @param tree the binary tree
+   *
+   * @return the hash-consed binary tree
+   */
+  public static <T> HashConsedTree<T> of(BinaryTree<T> tree) {
+    return of(tree, InternTable.shared());
+  }
+
+  /**
+   * Creates a hash-consed copy of the given binary tree, built with the given table. The nodes are
+   * interned in postorder, so the children of every node are canonical before the node itself.
+   *
+   * @param tree  the binary tree
+   * @param table the table of canonical nodes
+   *
+   * @return the hash-consed binary tree
+   */
+  public static <T> HashConsedTree<T> of(BinaryTree<T> tree, InternTable<T> table) {
+    Objects.requireNonNull(table);
+    Deque<InternedNode<T>> results = new ArrayDeque<>();
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    Node<T> lastVisited = null;
+    var node = tree.getRoot();
+
+    while (node != null || !stack.isEmpty()) {
+      while (node != null) {
+        stack.push(node);
+        node = node.getLeft();
+      }
+
+      var top = stack.peek();
+      var right = top.getRight();
+
+      if (right != null && right != lastVisited) {
+        node = right;
+      } else {
+        stack.pop();
+
+        var rightResult = right != null ? results.pop() : null;
+        var leftResult = top.getLeft() != null ? results.pop() : null;
+        results.push(table.intern(top.getValue(), leftResult, rightResult));
+        lastVisited = top;
+      }
+    }
+
+    return new HashConsedTree<>(table, results.peek());
+  }
+
+  /**
+   * Creates a linked copy of this tree, consisting of {@link BinaryTree.Node} objects, in which
+   * every shared subtree is copied as many times as it occurs.
+   *
+   * @return the binary tree
+   */
+  public BinaryTree<T> toBinaryTree() {
+    return new BinaryTree<>(NodeCopier.copy(root));
+  }
+
+  /**
+   * Returns the number of nodes in this tree, counting every occurrence of a shared subtree. The
+   * size of every shared subtree is computed once.
+   *
+   * @return the number of nodes
+   */
+  public long size() {
+    Map<InternedNode<T>, Long> sizes = new IdentityHashMap<>();
+    Deque<InternedNode<T>> stack = new ArrayDeque<>();
+
+    if (root != null) {
+      stack.push(root);
+    }
+
+    while (!stack.isEmpty()) {
+      var node = stack.peek();
+      var left = node.left();
+      var right = node.right();
+
+      if (left != null && !sizes.containsKey(left)) {
+        stack.push(left);
+      } else if (right != null && !sizes.containsKey(right)) {
+        stack.push(right);
+      } else {
+        stack.pop();
+        sizes.put(node, 1 + (left != null ? sizes.get(left) : 0)
+            + (right != null ? sizes.get(right) : 0));
+      }
+    }
+
+    return root != null ? sizes.get(root) : 0;
+  }
+
+  /**
+   * Returns the number of distinct canonical nodes in this tree, which is the number of nodes it
+   * actually stores.
+   *
+   * @return the number of distinct nodes
+   */
+  public long sharedNodeCount() {
+    var visited = Collections.newSetFromMap(new IdentityHashMap<InternedNode<T>, Boolean>());
+    Deque<InternedNode<T>> stack = new ArrayDeque<>();
+
+    if (root != null) {
+      stack.push(root);
+    }
+
+    while (!stack.isEmpty()) {
+      var node = stack.pop();
+
+      if (visited.add(node)) {
+        if (node.left() != null) {
+          stack.push(node.left());
+        }
+
+        if (node.right() != null) {
+          stack.push(node.right());
+        }
+      }
+    }
+
+    return visited.size();
+  }
+
+  /**
+   * Traverses the tree with the given visitor, which is handed the immutable canonical nodes.
+   *
+   * @param visitor the visitor
+   */
+  @Override
+  public void traverse(Visitor<T> visitor) {
+    if (root == null) {
+      throw new IllegalStateException("Cannot traverse an empty tree.");
+    }
+
+    root.traverse(visitor);
+  }
+
+  /**
+   * Returns this tree rolled in the direction of the given strategy, which must be immutable,
+   * reusing the remembered rolls of its subtrees.
+   *
+   * @param strategy the immutable roll strategy
+   *
+   * @return the rolled tree
+   *
+   * @throws UnsupportedOperationException if the strategy is mutable
+   */
+  @Override
+  public HashConsedTree<T> roll(RollStrategy<T> strategy) {
+    if (!strategy.isImmutable()) {
+      throw new UnsupportedOperationException("Hash-consed trees can only be rolled immutably.");
+    }
+
+    if (root == null) {
+      return this;
+    }
+
+    var clockwise = strategy.getDirection() == RollDirection.CLOCKWISE;
+    return new HashConsedTree<>(table, roll(root, clockwise));
+  }
+
+  /**
+   * Rolls the subtree with the given root. A clockwise roll reverses the left spine of a subtree,
+   * with the rolled right subtree of every spine node as its new left subtree, and a
+   * counterclockwise roll does the opposite. The subtrees hanging off a spine are rolled before
+   * the spine, with an explicit stack, and the results of this roll are held in a map until it
+   * is done, since the remembered ones may be collected at any time.
+   */
+  private InternedNode<T> roll(InternedNode<T> subtreeRoot, boolean clockwise) {
+    Map<InternedNode<T>, InternedNode<T>> rolled = new IdentityHashMap<>();
+    Deque<InternedNode<T>> stack = new ArrayDeque<>();
+    stack.push(subtreeRoot);
+
+    while (!stack.isEmpty()) {
+      var subtree = stack.peek();
+
+      if (isRolled(subtree, clockwise, rolled)) {
+        stack.pop();
+        continue;
+      }
+
+      var ready = true;
+
+      for (var node = subtree; node != null; node = clockwise ? node.left() : node.right()) {
+        var other = clockwise ? node.right() : node.left();
+
+        if (other != null && !isRolled(other, clockwise, rolled)) {
+          stack.push(other);
+          ready = false;
+        }
+      }
+
+      if (!ready) {
+        continue;
+      }
+
+      stack.pop();
+      InternedNode<T> spine = null;
+
+      for (var node = subtree; node != null; node = clockwise ? node.left() : node.right()) {
+        var other = clockwise ? node.right() : node.left();
+        var rolledOther = other != null ? rolled.get(other) : null;
+        spine = clockwise
+            ? table.intern(node.getValue(), rolledOther, spine)
+            : table.intern(node.getValue(), spine, rolledOther);
+      }
+
+      subtree.memoizeRolled(clockwise, spine);
+      rolled.put(subtree, spine);
+    }
+
+    return rolled.get(subtreeRoot);
+  }
+
+  private static <T> boolean isRolled(InternedNode<T> subtree, boolean clockwise,
+      Map<InternedNode<T>, InternedNode<T>> rolled) {
+    if (rolled.containsKey(subtree)) {
+      return true;
+    }
+
+    var remembered = subtree.rolled(clockwise);
+
+    if (remembered != null) {
+      rolled.put(subtree, remembered);
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Compares this tree with the given object. Trees built with the same table are compared by
+   * reference, and trees built with different tables structurally.
+   *
+   * @param o the object to compare with
+   *
+   * @return whether the object is a hash-consed tree with equal values in the same shape
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof HashConsedTree<?> that)) return false;
+
+    return this.table == that.table ? this.root == that.root : Objects.equals(root, that.root);
+  }
+
+  @Override
+  public int hashCode() {
+    return root != null ? root.hashCode() : 0;
+  }
+}
@@ -0,0 +1,143 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+/**
+ * A binary tree node that caches the structural hash of its subtree, as computed by
+ * {@link BinaryTree.Node#hashCode()}, so that hashing an unchanged tree takes constant time and
+ * trees with different hashes are told apart by {@link #equals} without comparing them.
+ *
+ * <p>Every hashed node keeps a link to its parent, and any change to its value or links discards
+ * the cached hashes along the path to the root, which are recomputed on demand for the changed
+ * subtrees only. The roll strategies relink the nodes through the same setters, so a rolled tree
+ * of hashed nodes stays consistent. The children of a hashed node must be hashed nodes as well;
+ * {@link #copyOf} converts an existing tree.
+ *
+ * <p>Hashed nodes are not thread-safe, so the parallel roll engine rejects a tree of hashed nodes
+ * with an {@link IllegalArgumentException}.
+ *
+ * @param <T> the type of the value held by the node
+ */
+public final class HashedNode<T> extends BinaryTree.Node<T> {
+
+  private HashedNode<T> parent;
+  private int hash;
+  private boolean hashCached;
+
+  public HashedNode() {}
+
+  public HashedNode(T value) {
+    super(value);
+  }
+
+  /**
+   * Creates a copy of the given tree made of hashed nodes.
+   *
+   * @param tree the tree
+   *
+   * @return the copy of the tree
+   */
+  public static <T> BinaryTree<T> copyOf(BinaryTree<T> tree) {
+    return new BinaryTree<>(NodeCopier.copy(tree.getRoot(), HashedNode::new));
+  }
+
+  @Override
+  public void setValue(T value) {
+    super.setValue(value);
+    invalidateHash();
+  }
+
+  @Override
+  public void setLeft(BinaryTree.Node<T> left) {
+    var hashedLeft = requireHashed(left);
+    detach(getLeft(), getRight());
+    super.setLeft(left);
+    attach(hashedLeft);
+    invalidateHash();
+  }
+
+  @Override
+  public void setRight(BinaryTree.Node<T> right) {
+    var hashedRight = requireHashed(right);
+    detach(getRight(), getLeft());
+    super.setRight(right);
+    attach(hashedRight);
+    invalidateHash();
+  }
+
+  /**
+   * Creates a deep copy of the current node and its children, made of hashed nodes.
+   *
+   * @return a deep copy of the current node and its children
+   */
+  @Override
+  public BinaryTree.Node<T> deepCopy() {
+    return deepCopy(null);
+  }
+
+  @Override
+  BinaryTree.Node<T> deepCopy(StructureEpoch epoch) {
+    return NodeCopier.copy(this, HashedNode::new, epoch);
+  }
+
+  @Override
+  BinaryTree.Node<T> newNode(T value) {
+    return new HashedNode<>(value);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o instanceof HashedNode<?> that && this.hashCode() != that.hashCode()) return false;
+
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCached ? hash : NodeHashes.hash(this);
+  }
+
+  boolean hasCachedHash() {
+    return hashCached;
+  }
+
+  void cacheHash(int hash) {
+    this.hash = hash;
+    this.hashCached = true;
+  }
+
+  /**
+   * Discards the cached hashes of this node and its ancestors. A node without a cached hash never
+   * has an ancestor with one, so the walk stops at the first such node.
+   */
+  private void invalidateHash() {
+    for (var node = this; node != null && node.hashCached; node = node.parent) {
+      node.hashCached = false;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> HashedNode<T> requireHashed(BinaryTree.Node<T> node) {
+    if (node != null && !(node instanceof HashedNode<?>)) {
+      throw new IllegalArgumentException("The children of a hashed node must be hashed nodes.");
+    }
+
+    return (HashedNode<T>) node;
+  }
+
+  private void attach(HashedNode<T> child) {
+    if (child != null) {
+      child.parent = this;
+    }
+  }
+
+  /**
+   * Clears the parent link of the given child that is being unlinked, unless the child is still
+   * linked as the other child, as happens while a roll moves a child from one side to the other.
+   */
+  private void detach(BinaryTree.Node<T> child, BinaryTree.Node<T> otherChild) {
+    if (child != otherChild && child instanceof HashedNode<T> hashedChild
+        && hashedChild.parent == this) {
+      hashedChild.parent = null;
+    }
+  }
+}
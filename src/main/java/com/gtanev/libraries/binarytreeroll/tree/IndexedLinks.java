@@ -0,0 +1,18 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+/**
+ * The child links of a binary tree whose nodes are addressed by consecutive int indices, starting
+ * from zero. A missing child is represented by {@link #NIL}.
+ */
+interface IndexedLinks {
+
+  int NIL = -1;
+
+  int getLeft(int node);
+
+  int getRight(int node);
+
+  void setLeft(int node, int child);
+
+  void setRight(int node, int child);
+}
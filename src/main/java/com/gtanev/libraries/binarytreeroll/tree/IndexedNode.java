@@ -0,0 +1,114 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import static com.gtanev.libraries.binarytreeroll.tree.IndexedLinks.NIL;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * A read-only flyweight node, which presents a node of an index-based tree as a
+ * {@link BinaryTree.Node}.
+ *
+ * <p>One flyweight is kept per level of the tree and repositioned whenever a child is requested,
+ * so a recursive visitor sees consistent nodes along its current path without a node being
+ * allocated per visited index. A flyweight is therefore only valid until a sibling or a node of a
+ * different path at the same level is requested, and must not be retained.
+ *
+ * @param <T> the type of the value held by the node
+ */
+final class IndexedNode<T> extends BinaryTree.Node<T> {
+
+  private final IndexedLinks links;
+  private final IntFunction<T> values;
+  private final List<IndexedNode<T>> levels;
+  private final int depth;
+  private int index;
+
+  private IndexedNode(IndexedLinks links, IntFunction<T> values, List<IndexedNode<T>> levels,
+      int depth) {
+    this.links = links;
+    this.values = values;
+    this.levels = levels;
+    this.depth = depth;
+  }
+
+  static <T> IndexedNode<T> root(IndexedLinks links, IntFunction<T> values, int index) {
+    var root = new IndexedNode<>(links, values, new ArrayList<>(), 0);
+    root.levels.add(root);
+    return root.moveTo(index);
+  }
+
+  IndexedNode<T> moveTo(int index) {
+    this.index = index;
+    return this;
+  }
+
+  private IndexedNode<T> child(int index) {
+    if (index == NIL) {
+      return null;
+    }
+
+    if (levels.size() == depth + 1) {
+      levels.add(new IndexedNode<>(links, values, levels, depth + 1));
+    }
+
+    return levels.get(depth + 1).moveTo(index);
+  }
+
+  @Override
+  public T getValue() {
+    return values.apply(index);
+  }
+
+  @Override
+  public void setValue(T value) {
+    throw new UnsupportedOperationException("Index-based tree nodes are read-only.");
+  }
+
+  @Override
+  public BinaryTree.Node<T> getLeft() {
+    return child(links.getLeft(index));
+  }
+
+  @Override
+  public void setLeft(BinaryTree.Node<T> left) {
+    throw new UnsupportedOperationException("Index-based tree nodes are read-only.");
+  }
+
+  @Override
+  public BinaryTree.Node<T> getRight() {
+    return child(links.getRight(index));
+  }
+
+  @Override
+  public void setRight(BinaryTree.Node<T> right) {
+    throw new UnsupportedOperationException("Index-based tree nodes are read-only.");
+  }
+
+  @Override
+  void setThread(BinaryTree.Node<T> right) {
+    throw new UnsupportedOperationException("Index-based tree nodes are read-only.");
+  }
+
+  /**
+   * Leaves the node without an epoch, as its links never change.
+   */
+  @Override
+  void adopt(StructureEpoch epoch) {}
+
+  @Override
+  public BinaryTree.Node<T> deepCopy() {
+    return IndexedTrees.copyTo(links, index, values);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o;
+  }
+
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(this);
+  }
+}
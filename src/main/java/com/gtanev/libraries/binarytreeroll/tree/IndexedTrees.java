@@ -0,0 +1,443 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import static com.gtanev.libraries.binarytreeroll.tree.IndexedLinks.NIL;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Stack-safe algorithms shared by the trees whose nodes are addressed by int indices.
+ *
+ * <p>Nodes copied from a {@link BinaryTree} are numbered in preorder, so that the depth-first
+ * walks performed by the traversals and the roll mostly move forward through memory.
+ */
+final class IndexedTrees {
+
+  private static final int LEFT = 0;
+  private static final int RIGHT = 1;
+
+  private IndexedTrees() {}
+
+  /**
+   * Rolls the tree with the given root in place, rewriting only its links.
+   *
+   * @return the index of the root of the rolled tree
+   */
+  static int roll(IndexedLinks links, int root, RollDirection direction) {
+    return switch (direction) {
+      case CLOCKWISE -> rollClockwise(links, root);
+      case COUNTERCLOCKWISE -> rollCounterClockwise(links, root);
+    };
+  }
+
+  private static int rollClockwise(IndexedLinks links, int root) {
+    var rolledRoot = NIL;
+    var pending = new IntStack();
+    var subtree = root;
+    var parent = NIL;
+
+    while (subtree != NIL) {
+      var previous = NIL;
+      var node = subtree;
+
+      while (true) {
+        var next = links.getLeft(node);
+        var other = links.getRight(node);
+
+        if (other != NIL) {
+          pending.push(other);
+          pending.push(node);
+        }
+
+        links.setLeft(node, NIL);
+        links.setRight(node, previous);
+
+        if (next == NIL) {
+          break;
+        }
+
+        previous = node;
+        node = next;
+      }
+
+      if (parent != NIL) {
+        links.setLeft(parent, node);
+      } else {
+        rolledRoot = node;
+      }
+
+      if (pending.isEmpty()) {
+        break;
+      }
+
+      parent = pending.pop();
+      subtree = pending.pop();
+    }
+
+    return rolledRoot;
+  }
+
+  private static int rollCounterClockwise(IndexedLinks links, int root) {
+    var rolledRoot = NIL;
+    var pending = new IntStack();
+    var subtree = root;
+    var parent = NIL;
+
+    while (subtree != NIL) {
+      var previous = NIL;
+      var node = subtree;
+
+      while (true) {
+        var next = links.getRight(node);
+        var other = links.getLeft(node);
+
+        if (other != NIL) {
+          pending.push(other);
+          pending.push(node);
+        }
+
+        links.setRight(node, NIL);
+        links.setLeft(node, previous);
+
+        if (next == NIL) {
+          break;
+        }
+
+        previous = node;
+        node = next;
+      }
+
+      if (parent != NIL) {
+        links.setRight(parent, node);
+      } else {
+        rolledRoot = node;
+      }
+
+      if (pending.isEmpty()) {
+        break;
+      }
+
+      parent = pending.pop();
+      subtree = pending.pop();
+    }
+
+    return rolledRoot;
+  }
+
+  static void traverse(IndexedLinks links, int root, TraversalOrder order, IntConsumer action) {
+    switch (order) {
+      case PREORDER -> preorder(links, root, action);
+      case INORDER -> inorder(links, root, action);
+      case POSTORDER -> postorder(links, root, action);
+      case LEVEL_ORDER -> levelOrder(links, root, action);
+    }
+  }
+
+  static void preorder(IndexedLinks links, int root, IntConsumer action) {
+    if (root == NIL) {
+      return;
+    }
+
+    var stack = new IntStack();
+    stack.push(root);
+
+    while (!stack.isEmpty()) {
+      var node = stack.pop();
+      action.accept(node);
+
+      if (links.getRight(node) != NIL) {
+        stack.push(links.getRight(node));
+      }
+
+      if (links.getLeft(node) != NIL) {
+        stack.push(links.getLeft(node));
+      }
+    }
+  }
+
+  static void inorder(IndexedLinks links, int root, IntConsumer action) {
+    var stack = new IntStack();
+    var node = root;
+
+    while (node != NIL || !stack.isEmpty()) {
+      while (node != NIL) {
+        stack.push(node);
+        node = links.getLeft(node);
+      }
+
+      node = stack.pop();
+      action.accept(node);
+      node = links.getRight(node);
+    }
+  }
+
+  static void postorder(IndexedLinks links, int root, IntConsumer action) {
+    var stack = new IntStack();
+    var lastVisited = NIL;
+    var node = root;
+
+    while (node != NIL || !stack.isEmpty()) {
+      while (node != NIL) {
+        stack.push(node);
+        node = links.getLeft(node);
+      }
+
+      var top = stack.peek();
+      var right = links.getRight(top);
+
+      if (right != NIL && right != lastVisited) {
+        node = right;
+      } else {
+        action.accept(stack.pop());
+        lastVisited = top;
+      }
+    }
+  }
+
+  static void levelOrder(IndexedLinks links, int root, IntConsumer action) {
+    if (root == NIL) {
+      return;
+    }
+
+    var level = new IntStack();
+    var nextLevel = new IntStack();
+    level.push(root);
+
+    while (!level.isEmpty()) {
+      for (var i = 0; i < level.size(); i++) {
+        var node = level.get(i);
+        action.accept(node);
+
+        if (links.getLeft(node) != NIL) {
+          nextLevel.push(links.getLeft(node));
+        }
+
+        if (links.getRight(node) != NIL) {
+          nextLevel.push(links.getRight(node));
+        }
+      }
+
+      var visitedLevel = level;
+      level = nextLevel;
+      nextLevel = visitedLevel;
+      nextLevel.clear();
+    }
+  }
+
+  static long height(IndexedLinks links, int root) {
+    if (root == NIL) {
+      return 0;
+    }
+
+    var nodes = new IntStack();
+    var depths = new IntStack();
+    var height = 0;
+
+    nodes.push(root);
+    depths.push(1);
+
+    while (!nodes.isEmpty()) {
+      var node = nodes.pop();
+      var depth = depths.pop();
+      height = Math.max(height, depth);
+
+      if (links.getLeft(node) != NIL) {
+        nodes.push(links.getLeft(node));
+        depths.push(depth + 1);
+      }
+
+      if (links.getRight(node) != NIL) {
+        nodes.push(links.getRight(node));
+        depths.push(depth + 1);
+      }
+    }
+
+    return height;
+  }
+
+  /**
+   * Links the nodes of a tree given as a sequence of positions in level order, as accepted by
+   * {@link BinaryTree#of(Object[], Object)}. Every node is numbered in the order of its creation,
+   * which is the level order itself, so the queue of nodes awaiting their children is simply the
+   * range of indices between the next parent and the last created node.
+   *
+   * @param length  the number of positions in the sequence
+   * @param missing tells whether the node at a given position is missing
+   * @param links   the links to set, with room for {@code length} nodes
+   * @param nodes   receives the position of every created node, in the order of its index
+   *
+   * @return the number of created nodes
+   */
+  static int linkLevelOrder(int length, IntPredicate missing, IndexedLinks links,
+      IntConsumer nodes) {
+    if (length == 0 || missing.test(0)) {
+      return 0;
+    }
+
+    nodes.accept(0);
+    var count = 1;
+    var position = 1;
+
+    for (var parent = 0; parent < count && position < length; parent++) {
+      if (!missing.test(position)) {
+        nodes.accept(position);
+        links.setLeft(parent, count++);
+      }
+
+      if (++position < length && !missing.test(position)) {
+        nodes.accept(position);
+        links.setRight(parent, count++);
+      }
+
+      position++;
+    }
+
+    return count;
+  }
+
+  /**
+   * Counts the nodes of the subtree with the given root, checking that they can be indexed.
+   */
+  static int count(Node<?> root) {
+    if (root == null) {
+      return 0;
+    }
+
+    Deque<Node<?>> stack = new ArrayDeque<>();
+    stack.push(root);
+    var count = 0;
+
+    while (!stack.isEmpty()) {
+      var node = stack.pop();
+
+      if (++count == Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("The tree has too many nodes to be indexed.");
+      }
+
+      if (node.getLeft() != null) {
+        stack.push(node.getLeft());
+      }
+
+      if (node.getRight() != null) {
+        stack.push(node.getRight());
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Copies the subtree with the given root into the given links, numbering its nodes in preorder.
+   * The value of every node is handed to the given consumer together with its index.
+   */
+  static <T> void copyFrom(Node<T> root, IndexedLinks links, ObjIntConsumer<T> values) {
+    if (root == null) {
+      return;
+    }
+
+    Deque<Node<T>> nodes = new ArrayDeque<>();
+    var parents = new IntStack();
+    var index = 0;
+
+    nodes.push(root);
+    parents.push(NIL);
+    parents.push(LEFT);
+
+    while (!nodes.isEmpty()) {
+      var node = nodes.pop();
+      var side = parents.pop();
+      var parent = parents.pop();
+
+      values.accept(node.getValue(), index);
+
+      if (parent != NIL && side == LEFT) {
+        links.setLeft(parent, index);
+      } else if (parent != NIL) {
+        links.setRight(parent, index);
+      }
+
+      if (node.getRight() != null) {
+        nodes.push(node.getRight());
+        parents.push(index);
+        parents.push(RIGHT);
+      }
+
+      if (node.getLeft() != null) {
+        nodes.push(node.getLeft());
+        parents.push(index);
+        parents.push(LEFT);
+      }
+
+      index++;
+    }
+  }
+
+  /**
+   * Copies the subtree with the given root out of the given links into newly created nodes.
+   *
+   * @return the root of the copy, or {@code null} if the given root is {@link IndexedLinks#NIL}
+   */
+  static <T> Node<T> copyTo(IndexedLinks links, int root, IntFunction<T> values) {
+    if (root == NIL) {
+      return null;
+    }
+
+    var rootNode = new Node<>(values.apply(root));
+    Deque<Node<T>> nodes = new ArrayDeque<>();
+    var indices = new IntStack();
+
+    nodes.push(rootNode);
+    indices.push(root);
+
+    while (!nodes.isEmpty()) {
+      var node = nodes.pop();
+      var index = indices.pop();
+      var left = links.getLeft(index);
+      var right = links.getRight(index);
+
+      if (left != NIL) {
+        var child = new Node<>(values.apply(left));
+        node.setLeft(child);
+        nodes.push(child);
+        indices.push(left);
+      }
+
+      if (right != NIL) {
+        var child = new Node<>(values.apply(right));
+        node.setRight(child);
+        nodes.push(child);
+        indices.push(right);
+      }
+    }
+
+    return rootNode;
+  }
+
+  /**
+   * Traverses the tree with the given root with the given visitor. The predefined visitors, which
+   * visit the nodes in a fixed order, are served by the iterative walks above, with every index
+   * presented to the visitor action through a single reusable node. Any other visitor is handed a
+   * tree of {@link IndexedNode} flyweights.
+   */
+  static <T> void traverse(IndexedLinks links, int root, IntFunction<T> values,
+      Visitor<T> visitor) {
+    if (root == NIL) {
+      throw new IllegalStateException("Cannot traverse an empty tree.");
+    }
+
+    var node = IndexedNode.root(links, values, root);
+
+    if (visitor instanceof OrderedVisitor<T> orderedVisitor) {
+      var action = orderedVisitor.action();
+      traverse(links, root, orderedVisitor.order(), index -> action.accept(node.moveTo(index)));
+    } else {
+      visitor.visit(node);
+    }
+  }
+}
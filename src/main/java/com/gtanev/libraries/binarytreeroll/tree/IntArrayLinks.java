@@ -0,0 +1,63 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.util.Arrays;
+
+/**
+ * Child links held in a pair of on-heap int arrays, one for each side.
+ */
+final class IntArrayLinks implements IndexedLinks {
+
+  private int[] left;
+  private int[] right;
+
+  IntArrayLinks(int capacity) {
+    this.left = new int[capacity];
+    this.right = new int[capacity];
+    Arrays.fill(left, NIL);
+    Arrays.fill(right, NIL);
+  }
+
+  private IntArrayLinks(int[] left, int[] right) {
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  public int getLeft(int node) {
+    return left[node];
+  }
+
+  @Override
+  public int getRight(int node) {
+    return right[node];
+  }
+
+  @Override
+  public void setLeft(int node, int child) {
+    left[node] = child;
+  }
+
+  @Override
+  public void setRight(int node, int child) {
+    right[node] = child;
+  }
+
+  int capacity() {
+    return left.length;
+  }
+
+  void resize(int capacity) {
+    var oldCapacity = left.length;
+    left = Arrays.copyOf(left, capacity);
+    right = Arrays.copyOf(right, capacity);
+
+    if (capacity > oldCapacity) {
+      Arrays.fill(left, oldCapacity, capacity, NIL);
+      Arrays.fill(right, oldCapacity, capacity, NIL);
+    }
+  }
+
+  IntArrayLinks copy() {
+    return new IntArrayLinks(left.clone(), right.clone());
+  }
+}
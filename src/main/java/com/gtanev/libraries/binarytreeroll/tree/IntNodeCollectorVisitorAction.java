@@ -0,0 +1,34 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.util.Arrays;
+
+public class IntNodeCollectorVisitorAction implements IntVisitorAction {
+
+  private int[] array;
+  private int size;
+
+  public IntNodeCollectorVisitorAction() {
+    this(16);
+  }
+
+  public IntNodeCollectorVisitorAction(int initialCapacity) {
+    this.array = new int[Math.max(initialCapacity, 1)];
+  }
+
+  public int[] getArray() {
+    return Arrays.copyOf(array, size);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void accept(int value) {
+    if (size == array.length) {
+      array = Arrays.copyOf(array, size << 1);
+    }
+
+    array[size++] = value;
+  }
+}
@@ -0,0 +1,65 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A growable stack of primitive ints, used by the index-based tree algorithms.
+ */
+final class IntStack {
+
+  private int[] elements;
+  private int size;
+
+  IntStack() {
+    this(16);
+  }
+
+  IntStack(int initialCapacity) {
+    this.elements = new int[Math.max(initialCapacity, 1)];
+  }
+
+  void push(int element) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size << 1);
+    }
+
+    elements[size++] = element;
+  }
+
+  int pop() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+
+    return elements[--size];
+  }
+
+  int peek() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+
+    return elements[size - 1];
+  }
+
+  int get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+
+    return elements[index];
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    size = 0;
+  }
+}
@@ -0,0 +1,14 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.util.function.IntConsumer;
+
+/**
+ * An action performed on the value of every visited node of an {@link IntBinaryTree}.
+ */
+public interface IntVisitorAction extends IntConsumer {
+
+  @Override
+  default IntVisitorAction andThen(IntConsumer after) {
+    return IntConsumer.super.andThen(after)::accept;
+  }
+}
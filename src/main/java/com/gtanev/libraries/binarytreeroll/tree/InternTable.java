@@ -0,0 +1,155 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+
+/**
+ * A table of canonical nodes, from which {@link HashConsedTree}s are built so that structurally
+ * identical subtrees share a single node.
+ *
+ * <p>A node is looked up by its value and the identities of its children, which are canonical
+ * themselves, so interning a node takes constant time, however large its subtree. The table only
+ * holds weak references to its nodes, so a canonical node is dropped once no tree uses it, and
+ * the entries of dropped nodes are purged as the table is used, like those of a
+ * {@link java.util.WeakHashMap}.
+ *
+ * <p>The table is thread-safe, so trees can be built and rolled with the same table concurrently.
+ * Trees built with different tables never share nodes, and are compared structurally rather than
+ * by reference.
+ *
+ * @param <T> the type of values held by the nodes
+ */
+public final class InternTable<T> {
+
+  private static final int INITIAL_CAPACITY = 1 << 10;
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final InternTable<?> SHARED = new InternTable<>();
+
+  private final ReferenceQueue<InternedNode<T>> queue = new ReferenceQueue<>();
+  private Entry<T>[] entries;
+  private int size;
+
+  public InternTable() {
+    this.entries = newEntries(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Returns the table used by {@link HashConsedTree#of(BinaryTree)}.
+   *
+   * @return the shared table
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> InternTable<T> shared() {
+    return (InternTable<T>) SHARED;
+  }
+
+  /**
+   * Returns the number of canonical nodes in the table that are still in use.
+   *
+   * @return the number of nodes
+   */
+  public synchronized int size() {
+    expungeStaleEntries();
+    return size;
+  }
+
+  /**
+   * Returns the canonical node with the given value and children, creating it if there is none.
+   */
+  synchronized InternedNode<T> intern(T value, InternedNode<T> left, InternedNode<T> right) {
+    if ((left != null && left.table() != this) || (right != null && right.table() != this)) {
+      throw new IllegalArgumentException("The children must be interned in the same table.");
+    }
+
+    expungeStaleEntries();
+
+    var hash = 31 * (31 * Objects.hashCode(value) + Objects.hashCode(left))
+        + Objects.hashCode(right);
+    var index = indexFor(hash, entries.length);
+
+    for (var entry = entries[index]; entry != null; entry = entry.next) {
+      var node = entry.get();
+
+      if (entry.hash == hash && node != null && node.getLeft() == left
+          && node.getRight() == right && Objects.equals(node.getValue(), value)) {
+        return node;
+      }
+    }
+
+    var node = new InternedNode<>(this, value, left, right, hash);
+    entries[index] = new Entry<>(node, queue, hash, entries[index]);
+
+    if (++size > entries.length * LOAD_FACTOR) {
+      resize();
+    }
+
+    return node;
+  }
+
+  private void resize() {
+    var newEntries = InternTable.<T>newEntries(entries.length << 1);
+
+    for (var entry : entries) {
+      while (entry != null) {
+        var next = entry.next;
+        var index = indexFor(entry.hash, newEntries.length);
+        entry.next = newEntries[index];
+        newEntries[index] = entry;
+        entry = next;
+      }
+    }
+
+    entries = newEntries;
+  }
+
+  /**
+   * Unlinks the entries whose nodes have been collected, which the collector has enqueued.
+   */
+  @SuppressWarnings("unchecked")
+  private void expungeStaleEntries() {
+    Entry<T> stale;
+
+    while ((stale = (Entry<T>) queue.poll()) != null) {
+      var index = indexFor(stale.hash, entries.length);
+      Entry<T> previous = null;
+
+      for (var entry = entries[index]; entry != null; entry = entry.next) {
+        if (entry == stale) {
+          if (previous == null) {
+            entries[index] = entry.next;
+          } else {
+            previous.next = entry.next;
+          }
+
+          entry.next = null;
+          size--;
+          break;
+        }
+
+        previous = entry;
+      }
+    }
+  }
+
+  private static int indexFor(int hash, int length) {
+    return (hash ^ (hash >>> 16)) & (length - 1);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Entry<T>[] newEntries(int capacity) {
+    return (Entry<T>[]) new Entry<?>[capacity];
+  }
+
+  private static final class Entry<T> extends WeakReference<InternedNode<T>> {
+
+    private final int hash;
+    private Entry<T> next;
+
+    Entry(InternedNode<T> node, ReferenceQueue<InternedNode<T>> queue, int hash, Entry<T> next) {
+      super(node, queue);
+      this.hash = hash;
+      this.next = next;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * An immutable, canonical node of an {@link InternTable}, which is shared by every subtree of the
+ * same shape and values that is built with the same table.
+ *
+ * <p>Since the children of an interned node are canonical as well, two interned nodes of the same
+ * table are equal only if they are the same node, and the structural hash of every node is
+ * computed once, from the cached hashes of its children, when it is interned. A node also keeps
+ * weak links to the results of rolling its subtree in either direction, so that a shared subtree
+ * is rolled once for as long as its rolled counterpart is in use.
+ *
+ * @param <T> the type of the value held by the node
+ */
+final class InternedNode<T> extends BinaryTree.Node<T> {
+
+  private final InternTable<T> table;
+  private final int hash;
+  private volatile WeakReference<InternedNode<T>> rolledClockwise;
+  private volatile WeakReference<InternedNode<T>> rolledCounterClockwise;
+
+  InternedNode(InternTable<T> table, T value, InternedNode<T> left, InternedNode<T> right,
+      int hash) {
+    super(value);
+    super.setLeft(left);
+    super.setRight(right);
+    this.table = table;
+    this.hash = hash;
+  }
+
+  InternTable<T> table() {
+    return table;
+  }
+
+  @SuppressWarnings("unchecked")
+  InternedNode<T> left() {
+    return (InternedNode<T>) getLeft();
+  }
+
+  @SuppressWarnings("unchecked")
+  InternedNode<T> right() {
+    return (InternedNode<T>) getRight();
+  }
+
+  InternedNode<T> rolled(boolean clockwise) {
+    var reference = clockwise ? rolledClockwise : rolledCounterClockwise;
+    return reference != null ? reference.get() : null;
+  }
+
+  /**
+   * Records that rolling this subtree in the given direction results in the given subtree, and,
+   * since the opposite roll undoes it, that rolling the result back results in this subtree.
+   */
+  void memoizeRolled(boolean clockwise, InternedNode<T> rolled) {
+    if (clockwise) {
+      rolledClockwise = new WeakReference<>(rolled);
+      rolled.rolledCounterClockwise = new WeakReference<>(this);
+    } else {
+      rolledCounterClockwise = new WeakReference<>(rolled);
+      rolled.rolledClockwise = new WeakReference<>(this);
+    }
+  }
+
+  @Override
+  public void setValue(T value) {
+    throw new UnsupportedOperationException("Interned nodes are immutable.");
+  }
+
+  @Override
+  public void setLeft(BinaryTree.Node<T> left) {
+    throw new UnsupportedOperationException("Interned nodes are immutable.");
+  }
+
+  @Override
+  public void setRight(BinaryTree.Node<T> right) {
+    throw new UnsupportedOperationException("Interned nodes are immutable.");
+  }
+
+  @Override
+  void setThread(BinaryTree.Node<T> right) {
+    throw new UnsupportedOperationException("Interned nodes are immutable.");
+  }
+
+  /**
+   * Leaves the node without an epoch, as its links never change and it is shared between trees.
+   */
+  @Override
+  void adopt(StructureEpoch epoch) {}
+
+  /**
+   * Creates a deep copy of the current node and its children, made of plain nodes, in which the
+   * shared subtrees are copied as many times as they occur.
+   *
+   * @return a deep copy of the current node and its children
+   */
+  @Override
+  public BinaryTree.Node<T> deepCopy() {
+    return NodeCopier.copy(this);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o instanceof InternedNode<?> that && (this.table == that.table || this.hash != that.hash)) {
+      return false;
+    }
+
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
@@ -0,0 +1,34 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A drop-in replacement for {@link InorderVisitor}, which keeps the pending nodes on an explicit
+ * stack instead of the call stack, and can therefore visit trees of any height.
+ */
+public record IterativeInorderVisitor<T>(VisitorAction<T> action) implements OrderedVisitor<T> {
+
+  @Override
+  public TraversalOrder order() {
+    return TraversalOrder.INORDER;
+  }
+
+  @Override
+  public void visit(Node<T> root) {
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    var node = root;
+
+    while (node != null || !stack.isEmpty()) {
+      while (node != null) {
+        stack.push(node);
+        node = node.getLeft();
+      }
+
+      node = stack.pop();
+      action.accept(node);
+      node = node.getRight();
+    }
+  }
+}
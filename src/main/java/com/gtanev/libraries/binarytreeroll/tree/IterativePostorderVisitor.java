@@ -0,0 +1,41 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A drop-in replacement for {@link PostorderVisitor}, which keeps the pending nodes on an explicit
+ * stack instead of the call stack, and can therefore visit trees of any height.
+ */
+public record IterativePostorderVisitor<T>(VisitorAction<T> action) implements OrderedVisitor<T> {
+
+  @Override
+  public TraversalOrder order() {
+    return TraversalOrder.POSTORDER;
+  }
+
+  @Override
+  public void visit(Node<T> root) {
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    Node<T> lastVisited = null;
+    var node = root;
+
+    while (node != null || !stack.isEmpty()) {
+      while (node != null) {
+        stack.push(node);
+        node = node.getLeft();
+      }
+
+      var top = stack.peek();
+      var right = top.getRight();
+
+      if (right != null && right != lastVisited) {
+        node = right;
+      } else {
+        action.accept(stack.pop());
+        lastVisited = top;
+      }
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A drop-in replacement for {@link PreorderVisitor}, which keeps the pending nodes on an explicit
+ * stack instead of the call stack, and can therefore visit trees of any height.
+ */
+public record IterativePreorderVisitor<T>(VisitorAction<T> action) implements OrderedVisitor<T> {
+
+  @Override
+  public TraversalOrder order() {
+    return TraversalOrder.PREORDER;
+  }
+
+  @Override
+  public void visit(Node<T> root) {
+    if (root == null) {
+      return;
+    }
+
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    stack.push(root);
+
+    while (!stack.isEmpty()) {
+      var node = stack.pop();
+      action.accept(node);
+
+      if (node.getRight() != null) {
+        stack.push(node.getRight());
+      }
+
+      if (node.getLeft() != null) {
+        stack.push(node.getLeft());
+      }
+    }
+  }
+}
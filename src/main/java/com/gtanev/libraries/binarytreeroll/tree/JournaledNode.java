@@ -0,0 +1,66 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+/**
+ * A binary tree node that records every change to its links in the {@link LinkJournal} of its
+ * tree, so that the changes can be undone and redone. The children of a journaled node must be
+ * nodes of the same journal; {@link LinkJournal#copyOf} converts an existing tree, and
+ * {@link LinkJournal#createNode} creates new nodes for it.
+ *
+ * <p>A deep copy of a journaled node is made of plain nodes, which are not journaled. Journaled
+ * nodes are not thread-safe.
+ *
+ * @param <T> the type of the value held by the node
+ */
+public final class JournaledNode<T> extends BinaryTree.Node<T> {
+
+  private final LinkJournal<T> journal;
+
+  JournaledNode(LinkJournal<T> journal, T value) {
+    super(value);
+    this.journal = journal;
+  }
+
+  /**
+   * Returns the journal in which this node records its changes.
+   *
+   * @return the journal of this node
+   */
+  public LinkJournal<T> getJournal() {
+    return journal;
+  }
+
+  @Override
+  public void setLeft(BinaryTree.Node<T> left) {
+    requireJournaled(left);
+    journal.recordLeft(this, getLeft(), left);
+    super.setLeft(left);
+  }
+
+  @Override
+  public void setRight(BinaryTree.Node<T> right) {
+    requireJournaled(right);
+    journal.recordRight(this, getRight(), right);
+    super.setRight(right);
+  }
+
+  /**
+   * Sets the left child without recording the change, to undo or redo a recorded one.
+   */
+  void relinkLeft(BinaryTree.Node<T> left) {
+    super.setLeft(left);
+  }
+
+  /**
+   * Sets the right child without recording the change, to undo or redo a recorded one.
+   */
+  void relinkRight(BinaryTree.Node<T> right) {
+    super.setRight(right);
+  }
+
+  private void requireJournaled(BinaryTree.Node<T> node) {
+    if (node != null && !journal.owns(node)) {
+      throw new IllegalArgumentException(
+          "The children of a journaled node must be nodes of the same journal.");
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Builds binary trees incrementally from a stream of level-order values, which never has to be
+ * held in memory as a whole.
+ *
+ * <p>The nodes awaiting their children are kept in a circular array, which grows to the width of
+ * the widest level of the tree rather than to the number of its nodes.
+ */
+final class LevelOrderBuilder {
+
+  private LevelOrderBuilder() {}
+
+  static <T> BinaryTree<T> build(Iterator<? extends T> values, T nullIdentifier) {
+    if (!values.hasNext()) {
+      return new BinaryTree<>();
+    }
+
+    var rootValue = values.next();
+
+    if (isMissing(rootValue, nullIdentifier)) {
+      return new BinaryTree<>();
+    }
+
+    var tree = new BinaryTree<T>();
+    var rootNode = tree.createNode(rootValue);
+    var nodeQueue = new NodeQueue<T>();
+    nodeQueue.offer(rootNode);
+
+    var levelSizes = TreeMetadata.LevelSizes.withRoot();
+
+    while (!nodeQueue.isEmpty() && values.hasNext()) {
+      var node = nodeQueue.poll();
+      var leftValue = values.next();
+
+      if (!isMissing(leftValue, nullIdentifier)) {
+        var leftNode = tree.createNode(leftValue);
+        node.setLeft(leftNode);
+        nodeQueue.offer(leftNode);
+        levelSizes.childAdded();
+      }
+
+      if (!values.hasNext()) {
+        break;
+      }
+
+      var rightValue = values.next();
+
+      if (!isMissing(rightValue, nullIdentifier)) {
+        var rightNode = tree.createNode(rightValue);
+        node.setRight(rightNode);
+        nodeQueue.offer(rightNode);
+        levelSizes.childAdded();
+      }
+
+      levelSizes.parentCompleted();
+    }
+
+    tree.setRoot(rootNode);
+    tree.setMetadata(levelSizes.toMetadata());
+    return tree;
+  }
+
+  static <T> BinaryTree<T> read(ReadableByteChannel channel, String nullToken,
+      Function<String, ? extends T> parser) throws IOException {
+    if (channel instanceof SelectableChannel selectableChannel && !selectableChannel.isBlocking()) {
+      throw new IllegalBlockingModeException();
+    }
+
+    var tokens = new TokenIterator(channel);
+    var values = new Iterator<T>() {
+
+      @Override
+      public boolean hasNext() {
+        return tokens.hasNext();
+      }
+
+      @Override
+      public T next() {
+        var token = tokens.next();
+        return token.equals(nullToken) ? null : parser.apply(token);
+      }
+    };
+
+    try {
+      return build(values, null);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static <T> boolean isMissing(T value, T nullIdentifier) {
+    return value == null || value.equals(nullIdentifier);
+  }
+
+  /**
+   * A growable circular queue of nodes.
+   */
+  private static final class NodeQueue<T> {
+
+    private Node<T>[] elements;
+    private int head;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    NodeQueue() {
+      this.elements = (Node<T>[]) new Node<?>[16];
+    }
+
+    void offer(Node<T> node) {
+      if (size == elements.length) {
+        var grown = Arrays.copyOfRange(elements, head, head + (size << 1));
+        System.arraycopy(elements, 0, grown, size - head, head);
+        elements = grown;
+        head = 0;
+      }
+
+      elements[(head + size++) & (elements.length - 1)] = node;
+    }
+
+    Node<T> poll() {
+      var node = elements[head];
+      elements[head] = null;
+      head = (head + 1) & (elements.length - 1);
+      size--;
+      return node;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+  }
+
+  /**
+   * An iterator over the tokens read from a channel, which are separated by whitespace or commas.
+   * The tokens are decoded as UTF-8. The channel must be in blocking mode, so a read that returns
+   * no bytes is an error rather than a reason to read again, which would spin while no data is
+   * available.
+   */
+  private static final class TokenIterator implements Iterator<String> {
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(8192).flip();
+    private byte[] token = new byte[64];
+    private String next;
+    private boolean endOfInput;
+
+    TokenIterator(ReadableByteChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !endOfInput) {
+        next = readToken();
+      }
+
+      return next != null;
+    }
+
+    @Override
+    public String next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      var token = next;
+      next = null;
+      return token;
+    }
+
+    private String readToken() {
+      var length = 0;
+
+      while (true) {
+        if (!buffer.hasRemaining() && !fill()) {
+          endOfInput = true;
+          break;
+        }
+
+        var b = buffer.get();
+
+        if (isDelimiter(b)) {
+          if (length > 0) {
+            break;
+          }
+        } else {
+          if (length == token.length) {
+            token = Arrays.copyOf(token, length << 1);
+          }
+
+          token[length++] = b;
+        }
+      }
+
+      return length > 0 ? new String(token, 0, length, StandardCharsets.UTF_8) : null;
+    }
+
+    private boolean fill() {
+      try {
+        buffer.clear();
+        var read = channel.read(buffer);
+        buffer.flip();
+
+        if (read == 0) {
+          throw new IOException("The channel returned no bytes, so it is not in blocking mode.");
+        }
+
+        return read > 0;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private static boolean isDelimiter(byte b) {
+      return b == ',' || b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+
+/**
+ * A bounded log of the changes to the links of a binary tree, which allows the tree to be rolled
+ * back to an earlier version, and forward again, at the cost of the changes made in between
+ * rather than the size of the tree.
+ *
+ * <p>A journaled tree is made of {@link JournaledNode}s, whose {@code setLeft} and
+ * {@code setRight} record every change in the journal of the tree, as does
+ * {@link BinaryTree#setRoot}. The mutable roll strategies relink the nodes through the same
+ * setters, so a version taken before a roll can be restored after it without a deep copy:
+ *
+ * <pre>
+ * var tree = LinkJournal.copyOf(BinaryTree.of(1, 2, 3), 1024);
+ * var version = tree.getJournal().version();
+ * tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+ * tree.getJournal().rollbackTo(version);
+ * </pre>
+ *
+ * <p>The journal keeps at most {@code capacity} changes, in a ring of preallocated slots, and
+ * forgets the oldest changes when it is full, so only the versions whose changes are still kept
+ * can be restored. Making a change after a rollback discards the changes that were rolled back.
+ * Changes that do not alter a link are not recorded, and changes to values are never recorded.
+ * Neither are the temporary threads of the Morris traversals, which restore every link before they
+ * return, so traversing a journaled tree neither evicts recorded changes nor discards the changes
+ * that have been rolled back.
+ *
+ * <p>Like trees of {@link HashedNode}s, journaled trees are not thread-safe, so the parallel
+ * engine, whose tasks would record their changes concurrently, rejects them with an
+ * {@link IllegalArgumentException}, as does {@link NodePool#release}. An immutable parallel roll
+ * is accepted, since it rolls a copy made of plain nodes.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public final class LinkJournal<T> {
+
+  private static final byte ROOT = 0;
+  private static final byte LEFT = 1;
+  private static final byte RIGHT = 2;
+
+  private final int capacity;
+  private final JournaledNode<T>[] nodes;
+  private final byte[] sides;
+  private final Node<T>[] children;
+  private BinaryTree<T> tree;
+  private long oldest;
+  private long current;
+  private long latest;
+  private int currentSlot;
+  private boolean paused;
+
+  /**
+   * Creates an empty journal, which is attached to a tree by {@link #copyOf}.
+   */
+  @SuppressWarnings("unchecked")
+  private LinkJournal(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The capacity must be positive.");
+    }
+
+    this.capacity = capacity;
+    this.nodes = (JournaledNode<T>[]) new JournaledNode<?>[capacity];
+    this.sides = new byte[capacity];
+    this.children = (Node<T>[]) new Node<?>[capacity];
+  }
+
+  /**
+   * Creates a copy of the given tree made of journaled nodes, with a journal of the given capacity,
+   * which is returned by {@link BinaryTree#getJournal()} of the copy.
+   *
+   * @param tree     the tree
+   * @param capacity the greatest number of changes kept by the journal
+   *
+   * @return the journaled copy of the tree
+   */
+  public static <T> BinaryTree<T> copyOf(BinaryTree<T> tree, int capacity) {
+    var journal = new LinkJournal<T>(capacity);
+    journal.paused = true;
+    var copy = new BinaryTree<T>(NodeCopier.copy(tree.getRoot(), journal::createNode));
+    journal.paused = false;
+    copy.setJournal(journal);
+    journal.tree = copy;
+    return copy;
+  }
+
+  /**
+   * Creates a detached node that records its changes in this journal, to be linked into the
+   * journaled tree.
+   *
+   * @param value the value of the node
+   *
+   * @return the journaled node
+   */
+  public JournaledNode<T> createNode(T value) {
+    return new JournaledNode<>(this, value);
+  }
+
+  /**
+   * Returns the greatest number of changes kept by this journal.
+   *
+   * @return the capacity of the journal
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the current version of the tree, which is the number of changes made to reach it.
+   *
+   * @return the current version
+   */
+  public long version() {
+    return current;
+  }
+
+  /**
+   * Returns the oldest version of the tree that can still be restored.
+   *
+   * @return the oldest version
+   */
+  public long oldestVersion() {
+    return oldest;
+  }
+
+  /**
+   * Returns the latest version of the tree that can be restored, which is newer than the current
+   * version after a rollback.
+   *
+   * @return the latest version
+   */
+  public long latestVersion() {
+    return latest;
+  }
+
+  /**
+   * Undoes the changes made since the given version.
+   *
+   * @param version a version between the oldest and the current one
+   */
+  public void rollbackTo(long version) {
+    if (version < oldest || version > current) {
+      throw new IllegalArgumentException("The version " + version + " is not between "
+          + oldest + " and " + current + ".");
+    }
+
+    paused = true;
+
+    try {
+      while (current > version) {
+        current--;
+        currentSlot = (currentSlot == 0 ? capacity : currentSlot) - 1;
+        swap(currentSlot);
+      }
+    } finally {
+      paused = false;
+    }
+  }
+
+  /**
+   * Redoes the changes that have been rolled back, up to the given version.
+   *
+   * @param version a version between the current and the latest one
+   */
+  public void rollForwardTo(long version) {
+    if (version < current || version > latest) {
+      throw new IllegalArgumentException("The version " + version + " is not between "
+          + current + " and " + latest + ".");
+    }
+
+    paused = true;
+
+    try {
+      while (current < version) {
+        swap(currentSlot);
+        current++;
+        currentSlot = currentSlot + 1 == capacity ? 0 : currentSlot + 1;
+      }
+    } finally {
+      paused = false;
+    }
+  }
+
+  /**
+   * Forgets all changes, so that the current version is the only one that can be restored.
+   */
+  public void clear() {
+    for (var i = 0; i < capacity; i++) {
+      nodes[i] = null;
+      children[i] = null;
+    }
+
+    oldest = current;
+    latest = current;
+  }
+
+  void recordRoot(Node<T> oldRoot, Node<T> newRoot) {
+    if (oldRoot != newRoot) {
+      record(null, ROOT, oldRoot);
+    }
+  }
+
+  void recordLeft(JournaledNode<T> node, Node<T> oldLeft, Node<T> newLeft) {
+    if (oldLeft != newLeft) {
+      record(node, LEFT, oldLeft);
+    }
+  }
+
+  void recordRight(JournaledNode<T> node, Node<T> oldRight, Node<T> newRight) {
+    if (oldRight != newRight) {
+      record(node, RIGHT, oldRight);
+    }
+  }
+
+  /**
+   * Appends a change at the current version, discarding the changes after it, and the oldest
+   * change if the journal is full. Only the replaced child is kept, since the new one is read
+   * from the tree when the change is undone.
+   */
+  private void record(JournaledNode<T> node, byte side, Node<T> oldChild) {
+    if (paused) {
+      return;
+    }
+
+    nodes[currentSlot] = node;
+    sides[currentSlot] = side;
+    children[currentSlot] = oldChild;
+    currentSlot = currentSlot + 1 == capacity ? 0 : currentSlot + 1;
+    current++;
+    latest = current;
+
+    if (latest - oldest > capacity) {
+      oldest = latest - capacity;
+    }
+  }
+
+  /**
+   * Exchanges the child kept in the given slot with the one in the tree, which undoes the change
+   * of the slot if it is in effect, and redoes it if it has been undone.
+   */
+  private void swap(int slot) {
+    var node = nodes[slot];
+    var child = children[slot];
+
+    switch (sides[slot]) {
+      case LEFT -> {
+        children[slot] = node.getLeft();
+        node.relinkLeft(child);
+      }
+      case RIGHT -> {
+        children[slot] = node.getRight();
+        node.relinkRight(child);
+      }
+      default -> {
+        children[slot] = tree.getRoot();
+        tree.setRoot(child);
+      }
+    }
+  }
+
+  /**
+   * Returns whether the given node records its changes in this journal.
+   */
+  boolean owns(Node<?> node) {
+    return node instanceof JournaledNode<?> journaledNode && journaledNode.getJournal() == this;
+  }
+
+  @Override
+  public String toString() {
+    return "LinkJournal[versions " + oldest + ".." + latest + ", current " + current
+        + ", capacity " + capacity + "]";
+  }
+}
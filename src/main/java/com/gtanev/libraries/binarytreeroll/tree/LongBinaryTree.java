@@ -0,0 +1,94 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * A binary tree of primitive long values, stored as a struct of arrays.
+ *
+ * <p>Building, rolling and traversing the tree with a {@link LongVisitorAction} never box its
+ * values. Missing nodes in the level-order input are marked with a sentinel value or a bitmap of
+ * positions, rather than with {@code null}. Boxing only takes place when the tree is converted to
+ * a {@link BinaryTree} or traversed with a node {@link Visitor}.
+ */
+public final class LongBinaryTree extends PrimitiveBinaryTree<Long, LongBinaryTree> {
+
+  private final long[] values;
+
+  private LongBinaryTree(IntArrayLinks links, long[] values, int root) {
+    super(links, values.length, root);
+    this.values = values;
+  }
+
+  private LongBinaryTree(IntArrayLinks links, long[] values) {
+    super(links, values.length);
+    this.values = values;
+  }
+
+  /**
+   * Creates a binary tree from a given array of values in level order.
+   *
+   * @param values    the array of values
+   * @param nullValue the value that represents a null node
+   *
+   * @return the binary tree
+   */
+  public static LongBinaryTree of(long[] values, long nullValue) {
+    return of(values, position -> values[position] == nullValue);
+  }
+
+  /**
+   * Creates a binary tree from a given array of values in level order.
+   *
+   * @param values  the array of values
+   * @param missing the positions of the array that represent null nodes
+   *
+   * @return the binary tree
+   */
+  public static LongBinaryTree of(long[] values, BitSet missing) {
+    return of(values, missing::get);
+  }
+
+  private static LongBinaryTree of(long[] values, IntPredicate missing) {
+    var nodeValues = new long[values.length];
+    var links = linkLevelOrder(values.length, missing,
+        (position, index) -> nodeValues[index] = values[position]);
+
+    return new LongBinaryTree(links, Arrays.copyOf(nodeValues, links.capacity()));
+  }
+
+  /**
+   * Creates a primitive copy of the given binary tree, which must not hold null values.
+   *
+   * @param tree the binary tree
+   *
+   * @return the primitive binary tree
+   */
+  public static LongBinaryTree from(BinaryTree<Long> tree) {
+    var values = new long[IndexedTrees.count(tree.getRoot())];
+    var links = copyLinks(tree, values.length, (value, index) -> values[index] = value);
+
+    return new LongBinaryTree(links, values);
+  }
+
+  /**
+   * Traverses the tree in the given order, handing the value of every node to the given action.
+   *
+   * @param order  the traversal order
+   * @param action the visitor action
+   */
+  public void traverse(TraversalOrder order, LongVisitorAction action) {
+    traverseIndices(order, index -> action.accept(values[index]));
+  }
+
+  @Override
+  Long boxedValue(int index) {
+    return values[index];
+  }
+
+  @Override
+  LongBinaryTree withLinks(IntArrayLinks links, int root) {
+    return new LongBinaryTree(links, values, root);
+  }
+}
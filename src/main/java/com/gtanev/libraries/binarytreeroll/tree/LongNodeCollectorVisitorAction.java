@@ -0,0 +1,34 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.util.Arrays;
+
+public class LongNodeCollectorVisitorAction implements LongVisitorAction {
+
+  private long[] array;
+  private int size;
+
+  public LongNodeCollectorVisitorAction() {
+    this(16);
+  }
+
+  public LongNodeCollectorVisitorAction(int initialCapacity) {
+    this.array = new long[Math.max(initialCapacity, 1)];
+  }
+
+  public long[] getArray() {
+    return Arrays.copyOf(array, size);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void accept(long value) {
+    if (size == array.length) {
+      array = Arrays.copyOf(array, size << 1);
+    }
+
+    array[size++] = value;
+  }
+}
@@ -0,0 +1,14 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.util.function.LongConsumer;
+
+/**
+ * An action performed on the value of every visited node of an {@link LongBinaryTree}.
+ */
+public interface LongVisitorAction extends LongConsumer {
+
+  @Override
+  default LongVisitorAction andThen(LongConsumer after) {
+    return LongConsumer.super.andThen(after)::accept;
+  }
+}
@@ -0,0 +1,411 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import static com.gtanev.libraries.binarytreeroll.tree.IndexedLinks.NIL;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * A binary tree persisted in a file, which is memory-mapped rather than read.
+ *
+ * <p>The file consists of a header, a link region and a value region, all little-endian:
+ *
+ * <pre>
+ * header (16 bytes)     magic "BTRL", format version, node count, root index (ints)
+ * links  (8 bytes/node) left child index, right child index (ints, -1 if missing)
+ * values (8 bytes/node) value encoded by a {@link ValueCodec} (long)
+ * </pre>
+ *
+ * <p>Opening the tree checks the header in constant time, so that a truncated file or one of
+ * another format is rejected up front. The links are not walked when the tree is opened; instead,
+ * every child index is checked against the node count as it is read, and a file whose links do not
+ * form a single tree can be rejected up front by {@linkplain #open(Path, ValueCodec, boolean)
+ * opening} it with validation, at the cost of walking all of its links. The value region is left to
+ * the operating system, which loads its pages as the nodes are touched. The roll rewrites the link
+ * region and the root index in place, so a rolled tree is persisted without a separate
+ * serialization step once the changes are {@linkplain #force() forced} to the file or the tree is
+ * closed.
+ *
+ * <p>Since a mapped tree is always rolled within its file, immutable roll strategies are rejected
+ * with an {@link UnsupportedOperationException}. To keep the original, roll a
+ * {@linkplain #copyTo copy} of the file, or roll an on-heap copy made by {@link #toBinaryTree}.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public final class MappedBinaryTree<T>
+    implements Traversable<T>, SelfRollable<T, MappedBinaryTree<T>>, AutoCloseable {
+
+  static final int MAGIC = 0x4C525442;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 4 * Integer.BYTES;
+  static final int LINK_SIZE = 2 * Integer.BYTES;
+  static final int MAX_SIZE = (Integer.MAX_VALUE - HEADER_SIZE) / (LINK_SIZE + Long.BYTES);
+
+  private static final int SIZE_OFFSET = 2 * Integer.BYTES;
+  private static final int ROOT_OFFSET = 3 * Integer.BYTES;
+
+  private final Path path;
+  private final ValueCodec<T> codec;
+  private final int size;
+  private final int valuesOffset;
+  private MappedByteBuffer buffer;
+  private IndexedLinks links;
+
+  private MappedBinaryTree(Path path, MappedByteBuffer buffer, ValueCodec<T> codec) {
+    this.path = path;
+    this.buffer = buffer;
+    this.codec = codec;
+    this.size = buffer.getInt(SIZE_OFFSET);
+    this.valuesOffset = HEADER_SIZE + size * LINK_SIZE;
+    this.links = new CheckedLinks(path, new BufferLinks(buffer, HEADER_SIZE, LINK_SIZE), size);
+  }
+
+  /**
+   * Writes the given binary tree to a new file, or overwrites an existing one, and opens it.
+   *
+   * @param path  the path of the file
+   * @param tree  the binary tree
+   * @param codec the codec that encodes the values of the tree
+   *
+   * @return the mapped binary tree
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public static <T> MappedBinaryTree<T> create(Path path, BinaryTree<T> tree, ValueCodec<T> codec)
+      throws IOException {
+    var size = IndexedTrees.count(tree.getRoot());
+
+    if (size > MAX_SIZE) {
+      throw new IllegalArgumentException("The tree has too many nodes to be mapped.");
+    }
+
+    var buffer = map(path, HEADER_SIZE + (long) size * (LINK_SIZE + Long.BYTES),
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(Integer.BYTES, VERSION);
+    buffer.putInt(SIZE_OFFSET, size);
+    buffer.putInt(ROOT_OFFSET, size > 0 ? 0 : NIL);
+
+    var mappedTree = new MappedBinaryTree<>(path, buffer, codec);
+
+    for (var index = 0; index < size; index++) {
+      mappedTree.links.setLeft(index, NIL);
+      mappedTree.links.setRight(index, NIL);
+    }
+
+    IndexedTrees.copyFrom(tree.getRoot(), mappedTree.links, (value, index) ->
+        buffer.putLong(mappedTree.valuesOffset + index * Long.BYTES, codec.encode(value)));
+
+    return mappedTree;
+  }
+
+  /**
+   * Opens a file previously written by {@link #create}, checking its header only. A child index
+   * outside the node count is reported by the operation that reads it, with an
+   * {@link UncheckedIOException}.
+   *
+   * @param path  the path of the file
+   * @param codec the codec that decodes the values of the tree
+   *
+   * @return the mapped binary tree
+   *
+   * @throws IOException if the file cannot be read or is not a binary tree file
+   */
+  public static <T> MappedBinaryTree<T> open(Path path, ValueCodec<T> codec) throws IOException {
+    return open(path, codec, false);
+  }
+
+  /**
+   * Opens a file previously written by {@link #create}, optionally checking that its links form a
+   * single binary tree: every child index must be within the node count, every node but the root
+   * must be the child of exactly one node, and every node must be reachable from the root. The
+   * check walks all the links of the file.
+   *
+   * @param path     the path of the file
+   * @param codec    the codec that decodes the values of the tree
+   * @param validate whether to check the links of the file
+   *
+   * @return the mapped binary tree
+   *
+   * @throws IOException if the file cannot be read or is not a valid tree file
+   */
+  public static <T> MappedBinaryTree<T> open(Path path, ValueCodec<T> codec, boolean validate)
+      throws IOException {
+    var length = Files.size(path);
+
+    if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+      throw new IOException("Not a binary tree file: " + path);
+    }
+
+    var buffer = map(path, length);
+    var size = buffer.getInt(SIZE_OFFSET);
+    var root = buffer.getInt(ROOT_OFFSET);
+
+    if (buffer.getInt(0) != MAGIC
+        || buffer.getInt(Integer.BYTES) != VERSION
+        || size < 0 || size > MAX_SIZE
+        || length != HEADER_SIZE + (long) size * (LINK_SIZE + Long.BYTES)
+        || root < NIL || root >= size || (root == NIL) != (size == 0)) {
+      throw new IOException("Not a binary tree file: " + path);
+    }
+
+    if (validate) {
+      validateLinks(path, new BufferLinks(buffer, HEADER_SIZE, LINK_SIZE), size, root);
+    }
+
+    return new MappedBinaryTree<>(path, buffer, codec);
+  }
+
+  private static void validateLinks(Path path, IndexedLinks links, int size, int root)
+      throws IOException {
+    var children = new BitSet(size);
+
+    for (var node = 0; node < size; node++) {
+      validateChild(path, children, node, links.getLeft(node), size, root);
+      validateChild(path, children, node, links.getRight(node), size, root);
+    }
+
+    var reached = new BitSet(size);
+    var stack = new IntStack();
+
+    if (root != NIL) {
+      stack.push(root);
+    }
+
+    while (!stack.isEmpty()) {
+      var node = stack.pop();
+      reached.set(node);
+
+      if (links.getRight(node) != NIL) {
+        stack.push(links.getRight(node));
+      }
+
+      if (links.getLeft(node) != NIL) {
+        stack.push(links.getLeft(node));
+      }
+    }
+
+    var unreached = reached.nextClearBit(0);
+
+    if (unreached < size) {
+      throw new IOException("Corrupted binary tree file " + path + ": node " + unreached
+          + " is not reachable from the root");
+    }
+  }
+
+  private static void validateChild(Path path, BitSet children, int node, int child, int size,
+      int root) throws IOException {
+    if (child == NIL) {
+      return;
+    }
+
+    if (child < 0 || child >= size) {
+      throw invalidChild(path, node, child, size);
+    }
+
+    if (child == root) {
+      throw new IOException("Corrupted binary tree file " + path + ": node " + child
+          + " is the root, but also a child of node " + node);
+    }
+
+    if (children.get(child)) {
+      throw new IOException("Corrupted binary tree file " + path + ": node " + child
+          + " is a child of node " + node + " and of another node");
+    }
+
+    children.set(child);
+  }
+
+  private static IOException invalidChild(Path path, int node, int child, int size) {
+    return new IOException("Corrupted binary tree file " + path + ": node " + node
+        + " has the child index " + child + ", which is not between 0 and " + (size - 1));
+  }
+
+  private static MappedByteBuffer map(Path path, long length, StandardOpenOption... options)
+      throws IOException {
+    try (var channel = FileChannel.open(path, withReadWrite(options))) {
+      var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      return buffer;
+    }
+  }
+
+  private static StandardOpenOption[] withReadWrite(StandardOpenOption... options) {
+    var allOptions = new StandardOpenOption[options.length + 2];
+    allOptions[0] = StandardOpenOption.READ;
+    allOptions[1] = StandardOpenOption.WRITE;
+    System.arraycopy(options, 0, allOptions, 2, options.length);
+    return allOptions;
+  }
+
+  /**
+   * Copies the file of this tree to the given path, and opens the copy. Rolling the copy leaves
+   * this tree unchanged.
+   *
+   * @param path the path of the copy
+   *
+   * @return the mapped copy of the tree
+   *
+   * @throws IllegalArgumentException if the path is that of the file of this tree
+   * @throws IOException if the file cannot be copied
+   */
+  public MappedBinaryTree<T> copyTo(Path path) throws IOException {
+    ensureOpen();
+
+    if (Files.exists(path) && Files.isSameFile(path, this.path)) {
+      throw new IllegalArgumentException("Cannot copy the tree onto its own file: " + path);
+    }
+
+    try (var channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      channel.write(buffer.duplicate().clear());
+    }
+    return open(path, codec);
+  }
+
+  /**
+   * Creates an on-heap copy of this tree, consisting of {@link BinaryTree.Node} objects.
+   *
+   * @return the binary tree
+   */
+  public BinaryTree<T> toBinaryTree() {
+    ensureOpen();
+    return new BinaryTree<>(IndexedTrees.copyTo(links, getRoot(), this::getValue));
+  }
+
+  public long size() {
+    ensureOpen();
+    return size;
+  }
+
+  public long height() {
+    ensureOpen();
+    return IndexedTrees.height(links, getRoot());
+  }
+
+  private int getRoot() {
+    return buffer.getInt(ROOT_OFFSET);
+  }
+
+  private T getValue(int index) {
+    return codec.decode(buffer.getLong(valuesOffset + index * Long.BYTES));
+  }
+
+  /**
+   * Traverses the tree with the given visitor. The nodes handed to the visitor are read-only
+   * flyweights, which are only valid for the duration of the call that received them.
+   *
+   * @param visitor the visitor
+   */
+  @Override
+  public void traverse(Visitor<T> visitor) {
+    ensureOpen();
+    IndexedTrees.traverse(links, getRoot(), this::getValue, visitor);
+  }
+
+  /**
+   * Rolls the tree in place, in the direction of the given strategy. Immutable strategies are not
+   * supported, since a mapped tree is always rolled within its file; roll a {@linkplain #copyTo
+   * copy} of the tree instead.
+   *
+   * @param strategy the roll strategy
+   *
+   * @return this tree
+   */
+  @Override
+  public MappedBinaryTree<T> roll(RollStrategy<T> strategy) {
+    ensureOpen();
+
+    if (strategy.isImmutable()) {
+      throw new UnsupportedOperationException("A mapped tree can only be rolled in place.");
+    }
+
+    buffer.putInt(ROOT_OFFSET, IndexedTrees.roll(links, getRoot(), strategy.getDirection()));
+    return this;
+  }
+
+  /**
+   * Writes any changes made to the tree to the storage device holding its file.
+   */
+  public void force() {
+    ensureOpen();
+    buffer.force();
+  }
+
+  public boolean isOpen() {
+    return buffer != null;
+  }
+
+  /**
+   * Forces any changes to the file and closes the tree. The file is unmapped once the buffer
+   * becomes unreachable. Closing a closed tree has no effect.
+   */
+  @Override
+  public void close() {
+    if (buffer != null) {
+      buffer.force();
+      buffer = null;
+      links = null;
+    }
+  }
+
+  private void ensureOpen() {
+    if (buffer == null) {
+      throw new IllegalStateException("The tree has been closed.");
+    }
+  }
+
+  /**
+   * The links of a mapped file, which checks every child index as it is read, so that a corrupted
+   * file cannot send a roll or traversal into the value region or past the end of the file.
+   */
+  private static final class CheckedLinks implements IndexedLinks {
+
+    private final Path path;
+    private final IndexedLinks links;
+    private final int size;
+
+    CheckedLinks(Path path, IndexedLinks links, int size) {
+      this.path = path;
+      this.links = links;
+      this.size = size;
+    }
+
+    @Override
+    public int getLeft(int node) {
+      return check(node, links.getLeft(node));
+    }
+
+    @Override
+    public int getRight(int node) {
+      return check(node, links.getRight(node));
+    }
+
+    @Override
+    public void setLeft(int node, int child) {
+      links.setLeft(node, child);
+    }
+
+    @Override
+    public void setRight(int node, int child) {
+      links.setRight(node, child);
+    }
+
+    private int check(int node, int child) {
+      if (child < NIL || child >= size) {
+        throw new UncheckedIOException(invalidChild(path, node, child, size));
+      }
+
+      return child;
+    }
+  }
+}
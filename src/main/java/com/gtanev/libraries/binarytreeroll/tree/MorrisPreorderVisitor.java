@@ -0,0 +1,23 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+
+/**
+ * A drop-in replacement for {@link PreorderVisitor}, which visits trees of any height in constant
+ * extra space, by temporarily threading the tree as described in {@link MorrisTraversals}.
+ *
+ * <p>The links of the visited nodes may be threaded while the action runs, so the action must
+ * not read or modify them, and the tree must not be traversed concurrently.
+ */
+public record MorrisPreorderVisitor<T>(VisitorAction<T> action) implements OrderedVisitor<T> {
+
+  @Override
+  public TraversalOrder order() {
+    return TraversalOrder.PREORDER;
+  }
+
+  @Override
+  public void visit(Node<T> root) {
+    MorrisTraversals.preorder(root, action);
+  }
+}
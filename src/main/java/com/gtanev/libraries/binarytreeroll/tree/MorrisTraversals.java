@@ -0,0 +1,176 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+
+/**
+ * Morris traversals, which walk a tree in constant extra space by temporarily threading it. Before
+ * the left subtree of a node is walked, the right link of its inorder predecessor is pointed back
+ * at the node, and it is reset once the walk returns through it, so every link is restored by the
+ * end of the traversal.
+ *
+ * <p>The threads are written with {@link Node#setThread}, past the setters, as the tree is left
+ * unchanged: a thread neither invalidates the metadata of the tree nor reaches a link journal, and
+ * the parent links and cached hashes of {@link HashedNode}s stay intact.
+ *
+ * <p>If the visitor action throws, the remaining nodes are walked without being visited, to
+ * restore the tree, and the exception is rethrown afterwards.
+ */
+final class MorrisTraversals {
+
+  private MorrisTraversals() {}
+
+  static <T> void preorder(Node<T> root, VisitorAction<T> action) {
+    var guardedAction = new GuardedAction<>(action);
+    var current = root;
+
+    while (current != null) {
+      if (current.getLeft() == null) {
+        guardedAction.accept(current);
+        current = current.getRight();
+        continue;
+      }
+
+      var predecessor = predecessor(current);
+
+      if (predecessor.getRight() == null) {
+        guardedAction.accept(current);
+        predecessor.setThread(current);
+        current = current.getLeft();
+      } else {
+        predecessor.setThread(null);
+        current = current.getRight();
+      }
+    }
+
+    guardedAction.rethrow();
+  }
+
+  static <T> void inorder(Node<T> root, VisitorAction<T> action) {
+    var guardedAction = new GuardedAction<>(action);
+    var current = root;
+
+    while (current != null) {
+      if (current.getLeft() == null) {
+        guardedAction.accept(current);
+        current = current.getRight();
+        continue;
+      }
+
+      var predecessor = predecessor(current);
+
+      if (predecessor.getRight() == null) {
+        predecessor.setThread(current);
+        current = current.getLeft();
+      } else {
+        predecessor.setThread(null);
+        guardedAction.accept(current);
+        current = current.getRight();
+      }
+    }
+
+    guardedAction.rethrow();
+  }
+
+  /**
+   * Walks the tree under a temporary node, whose left child is the root. Whenever the walk returns
+   * to a node through a thread, the right edge of its left subtree is visited bottom-up, by
+   * reversing the edge, walking it, and reversing it back.
+   */
+  static <T> void postorder(Node<T> root, VisitorAction<T> action) {
+    if (root == null) {
+      return;
+    }
+
+    var guardedAction = new GuardedAction<>(action);
+    var dummy = new Node<T>();
+    dummy.setLeft(root);
+    var current = dummy;
+
+    while (current != null) {
+      if (current.getLeft() == null) {
+        current = current.getRight();
+        continue;
+      }
+
+      var predecessor = predecessor(current);
+
+      if (predecessor.getRight() == null) {
+        predecessor.setThread(current);
+        current = current.getLeft();
+      } else {
+        reverseRightEdge(current.getLeft(), predecessor);
+
+        for (var node = predecessor; ; node = node.getRight()) {
+          guardedAction.accept(node);
+
+          if (node == current.getLeft()) {
+            break;
+          }
+        }
+
+        reverseRightEdge(predecessor, current.getLeft());
+        predecessor.setThread(null);
+        current = current.getRight();
+      }
+    }
+
+    dummy.setLeft(null);
+    guardedAction.rethrow();
+  }
+
+  private static <T> Node<T> predecessor(Node<T> node) {
+    var predecessor = node.getLeft();
+
+    while (predecessor.getRight() != null && predecessor.getRight() != node) {
+      predecessor = predecessor.getRight();
+    }
+
+    return predecessor;
+  }
+
+  /**
+   * Reverses the right links along the path from {@code from} down to {@code to}, except for the
+   * right link of {@code from} itself.
+   */
+  private static <T> void reverseRightEdge(Node<T> from, Node<T> to) {
+    var previous = from;
+    var node = from.getRight();
+
+    while (previous != to) {
+      var next = node.getRight();
+      node.setThread(previous);
+      previous = node;
+      node = next;
+    }
+  }
+
+  private static final class GuardedAction<T> {
+
+    private final VisitorAction<T> action;
+    private Throwable failure;
+
+    GuardedAction(VisitorAction<T> action) {
+      this.action = action;
+    }
+
+    void accept(Node<T> node) {
+      if (failure != null) {
+        return;
+      }
+
+      try {
+        action.accept(node);
+      } catch (RuntimeException | Error e) {
+        failure = e;
+      }
+    }
+
+    void rethrow() {
+      if (failure instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      } else if (failure instanceof Error error) {
+        throw error;
+      }
+    }
+  }
+}
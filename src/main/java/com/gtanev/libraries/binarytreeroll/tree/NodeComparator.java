@@ -0,0 +1,274 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stack-safe structural comparison of binary tree nodes.
+ *
+ * <p>The nodes are compared in preorder, with the pending pairs of nodes and their paths kept on
+ * an explicit stack instead of on the call stack, and the comparison stops at the first pair of
+ * nodes that differ.
+ */
+final class NodeComparator {
+
+  /**
+   * The smallest size of a tree that is compared in parallel by {@link BinaryTree#equals}.
+   */
+  static final int PARALLEL_SIZE = 1 << 16;
+
+  /**
+   * The smallest number of nodes in a subtree that is compared by a separate task when
+   * {@link BinaryTree#equals} compares in parallel.
+   */
+  static final int DEFAULT_THRESHOLD = 1 << 14;
+
+  private NodeComparator() {}
+
+  static TreeMismatch findMismatch(Node<?> root, Node<?> otherRoot) {
+    return compare(root, otherRoot, null);
+  }
+
+  static TreeMismatch findMismatchParallel(Node<?> root, Node<?> otherRoot, ForkJoinPool pool,
+      int threshold) {
+    var found = new AtomicReference<CompareTask>();
+    pool.invoke(new CompareTask(null, root, otherRoot, threshold, found));
+    var task = found.get();
+
+    if (task == null) {
+      return null;
+    }
+
+    var mismatch = task.mismatch;
+    var prefix = task.root == root && task.otherRoot == otherRoot
+        ? "" : pathTo(root, otherRoot, task.root, task.otherRoot);
+    return new TreeMismatch(prefix + mismatch.path(), mismatch.node(), mismatch.otherNode());
+  }
+
+  /**
+   * Returns whether the trees of the given size should be compared in parallel in the common pool.
+   */
+  static boolean shouldCompareInParallel(long size) {
+    return size >= PARALLEL_SIZE && ForkJoinPool.getCommonPoolParallelism() > 1;
+  }
+
+  /**
+   * Compares two subtrees, returning the first mismatch in preorder with its path from the given
+   * roots. If a task is given, every pair of right subtrees met while the pool is short of work,
+   * for which the {@link SubtreeSplitter} of the task finds both the left and the right subtree to
+   * have at least {@code threshold} nodes, is compared by a separate task. The smaller of the two
+   * subtrees is compared without splitting it any further, and the comparison gives up as soon as
+   * any task has found a mismatch.
+   */
+  private static TreeMismatch compare(Node<?> root, Node<?> otherRoot, CompareTask task) {
+    if (root == null && otherRoot == null) {
+      return null;
+    }
+
+    var path = new StringBuilder();
+    var pending = new PairStack();
+    pending.push(root, otherRoot, 0, '\0', task != null);
+
+    while (!pending.isEmpty()) {
+      if (task != null && task.found.get() != null) {
+        return null;
+      }
+
+      var side = pending.side();
+      var length = pending.length();
+      var node = pending.node();
+      var otherNode = pending.otherNode();
+      var splitting = pending.splitting();
+      pending.pop();
+
+      path.setLength(side != '\0' ? length - 1 : length);
+
+      if (side != '\0') {
+        path.append(side);
+      }
+
+      if (node == null || otherNode == null || !Objects.equals(node.getValue(),
+          otherNode.getValue())) {
+        return new TreeMismatch(path.toString(), node, otherNode);
+      }
+
+      var right = node.getRight();
+      var otherRight = otherNode.getRight();
+      var left = node.getLeft();
+      var otherLeft = otherNode.getLeft();
+      var splittingRight = splitting;
+      var splittingLeft = splitting;
+
+      if (splitting && left != null && right != null && otherRight != null
+          && SubtreeSplitter.isPoolShortOfWork()) {
+        switch (task.splitter.split(left, right)) {
+          case BALANCED -> {
+            task.fork(right, otherRight);
+            right = null;
+            otherRight = null;
+          }
+          case SECOND_SMALL -> splittingRight = false;
+          case FIRST_SMALL -> splittingLeft = false;
+        }
+      }
+
+      if (right != null || otherRight != null) {
+        pending.push(right, otherRight, length + 1, 'R', splittingRight);
+      }
+
+      if (left != null || otherLeft != null) {
+        pending.push(left, otherLeft, length + 1, 'L', splittingLeft);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the path to a position at which the given trees have the given pair of nodes, which
+   * must exist, walking the positions that both trees have in preorder.
+   */
+  private static String pathTo(Node<?> root, Node<?> otherRoot, Node<?> target,
+      Node<?> otherTarget) {
+    var path = new StringBuilder();
+    var pending = new PairStack();
+    pending.push(root, otherRoot, 0, '\0', false);
+
+    while (true) {
+      var side = pending.side();
+      var length = pending.length();
+      var node = pending.node();
+      var otherNode = pending.otherNode();
+      pending.pop();
+
+      path.setLength(side != '\0' ? length - 1 : length);
+
+      if (side != '\0') {
+        path.append(side);
+      }
+
+      if (node == target && otherNode == otherTarget) {
+        return path.toString();
+      }
+
+      if (node.getRight() != null && otherNode.getRight() != null) {
+        pending.push(node.getRight(), otherNode.getRight(), length + 1, 'R', false);
+      }
+
+      if (node.getLeft() != null && otherNode.getLeft() != null) {
+        pending.push(node.getLeft(), otherNode.getLeft(), length + 1, 'L', false);
+      }
+    }
+  }
+
+  /**
+   * Compares a pair of subtrees, forking separate tasks for large pairs of right subtrees. The
+   * tasks are counted completers that never wait for each other, so the comparison is stack-safe
+   * whatever the shape of the trees. The first task to find a mismatch records itself in the
+   * shared reference, so the mismatch that is reported is not necessarily the first one in
+   * preorder. The tasks do not track the paths to their roots: the path to the root of the task
+   * that has found the mismatch is only looked up once, when the mismatch is reported.
+   */
+  @SuppressWarnings("serial")
+  private static final class CompareTask extends CountedCompleter<Void> {
+
+    private final Node<?> root;
+    private final Node<?> otherRoot;
+    private final int threshold;
+    private final AtomicReference<CompareTask> found;
+    private SubtreeSplitter splitter;
+    private TreeMismatch mismatch;
+
+    CompareTask(CompareTask completer, Node<?> root, Node<?> otherRoot, int threshold,
+        AtomicReference<CompareTask> found) {
+      super(completer);
+      this.root = root;
+      this.otherRoot = otherRoot;
+      this.threshold = threshold;
+      this.found = found;
+    }
+
+    @Override
+    public void compute() {
+      splitter = new SubtreeSplitter(threshold);
+      mismatch = compare(root, otherRoot, this);
+
+      if (mismatch != null) {
+        found.compareAndSet(null, this);
+      }
+
+      tryComplete();
+    }
+
+    void fork(Node<?> subtree, Node<?> otherSubtree) {
+      addToPendingCount(1);
+      new CompareTask(this, subtree, otherSubtree, threshold, found).fork();
+    }
+  }
+
+  /**
+   * A stack of pending pairs of nodes, with the length of the path to each pair, its last step and
+   * whether its subtrees may still be split between tasks, kept in parallel arrays.
+   */
+  private static final class PairStack {
+
+    private Node<?>[] nodes = new Node<?>[16];
+    private Node<?>[] otherNodes = new Node<?>[16];
+    private int[] lengths = new int[16];
+    private char[] sides = new char[16];
+    private boolean[] splittings = new boolean[16];
+    private int size;
+
+    void push(Node<?> node, Node<?> otherNode, int length, char side, boolean splitting) {
+      if (size == nodes.length) {
+        var capacity = size * 2;
+        nodes = Arrays.copyOf(nodes, capacity);
+        otherNodes = Arrays.copyOf(otherNodes, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+        splittings = Arrays.copyOf(splittings, capacity);
+      }
+
+      nodes[size] = node;
+      otherNodes[size] = otherNode;
+      lengths[size] = length;
+      sides[size] = side;
+      splittings[size] = splitting;
+      size++;
+    }
+
+    Node<?> node() {
+      return nodes[size - 1];
+    }
+
+    Node<?> otherNode() {
+      return otherNodes[size - 1];
+    }
+
+    int length() {
+      return lengths[size - 1];
+    }
+
+    char side() {
+      return sides[size - 1];
+    }
+
+    boolean splitting() {
+      return splittings[size - 1];
+    }
+
+    void pop() {
+      size--;
+      nodes[size] = null;
+      otherNodes[size] = null;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Stack-safe deep copies of binary tree nodes.
+ *
+ * <p>The nodes are copied in preorder, with the pending pairs of original and copied nodes kept on
+ * an explicit stack instead of on the call stack.
+ */
+final class NodeCopier {
+
+  private NodeCopier() {}
+
+  static <T> Node<T> copy(Node<T> root) {
+    return copy(root, Node::new);
+  }
+
+  /**
+   * Copies the given subtree with the given node factory, stamping the given epoch on every copied
+   * node, unless it is null.
+   */
+  static <T> Node<T> copy(Node<T> root, Function<T, Node<T>> nodeFactory, StructureEpoch epoch) {
+    return copy(root, stamping(nodeFactory, epoch));
+  }
+
+  static <T> Node<T> copy(Node<T> root, Function<T, Node<T>> nodeFactory) {
+    if (root == null) {
+      return null;
+    }
+
+    Deque<Node<T>> pending = new ArrayDeque<>();
+    var rootCopy = nodeFactory.apply(root.getValue());
+    pending.push(root);
+    pending.push(rootCopy);
+
+    while (!pending.isEmpty()) {
+      var copy = pending.pop();
+      var node = pending.pop();
+
+      if (node.getRight() != null) {
+        var rightCopy = nodeFactory.apply(node.getRight().getValue());
+        copy.setRight(rightCopy);
+        pending.push(node.getRight());
+        pending.push(rightCopy);
+      }
+
+      if (node.getLeft() != null) {
+        var leftCopy = nodeFactory.apply(node.getLeft().getValue());
+        copy.setLeft(leftCopy);
+        pending.push(node.getLeft());
+        pending.push(leftCopy);
+      }
+    }
+
+    return rootCopy;
+  }
+
+  static <T> Node<T> copyParallel(Node<T> root, ForkJoinPool pool, int threshold) {
+    return copyParallel(root, pool, threshold, null);
+  }
+
+  /**
+   * Copies the given subtree in parallel, stamping the given epoch on every copied node, unless it
+   * is null.
+   */
+  static <T> Node<T> copyParallel(
+      Node<T> root, ForkJoinPool pool, int threshold, StructureEpoch epoch) {
+    if (root == null) {
+      return null;
+    }
+
+    return pool.invoke(new CopyTask<>(null, root, null, threshold, stamping(Node::new, epoch)));
+  }
+
+  private static <T> Function<T, Node<T>> stamping(
+      Function<T, Node<T>> nodeFactory, StructureEpoch epoch) {
+    if (epoch == null) {
+      return nodeFactory;
+    }
+
+    return value -> {
+      var node = nodeFactory.apply(value);
+      node.adopt(epoch);
+      return node;
+    };
+  }
+
+  /**
+   * Copies a subtree. While the pool is short of work, a node whose two subtrees both have at
+   * least {@code threshold} nodes hands its right subtree to a separate task, which links its copy
+   * to the copy of the node itself, so every field of a copied node is written by a single thread.
+   * A smaller subtree is copied sequentially on the spot. The tasks are counted completers that
+   * never wait for each other, so the copy is stack-safe whatever the shape of the tree.
+   */
+  @SuppressWarnings("serial")
+  private static final class CopyTask<T> extends CountedCompleter<Node<T>> {
+
+    private final Node<T> root;
+    private final Node<T> parentCopy;
+    private final int threshold;
+    private final Function<T, Node<T>> nodeFactory;
+    private Node<T> rootCopy;
+
+    CopyTask(
+        CopyTask<T> completer,
+        Node<T> root,
+        Node<T> parentCopy,
+        int threshold,
+        Function<T, Node<T>> nodeFactory) {
+      super(completer);
+      this.root = root;
+      this.parentCopy = parentCopy;
+      this.threshold = threshold;
+      this.nodeFactory = nodeFactory;
+    }
+
+    @Override
+    public void compute() {
+      Deque<Node<T>> pending = new ArrayDeque<>();
+      var splitter = new SubtreeSplitter(threshold);
+      rootCopy = nodeFactory.apply(root.getValue());
+
+      if (parentCopy != null) {
+        parentCopy.setRight(rootCopy);
+      }
+
+      pending.push(root);
+      pending.push(rootCopy);
+
+      while (!pending.isEmpty()) {
+        var copy = pending.pop();
+        var node = pending.pop();
+        var right = node.getRight();
+        var left = node.getLeft();
+
+        if (right != null && left != null && SubtreeSplitter.isPoolShortOfWork()) {
+          switch (splitter.split(left, right)) {
+            case BALANCED -> {
+              addToPendingCount(1);
+              new CopyTask<>(this, right, copy, threshold, nodeFactory).fork();
+              right = null;
+            }
+            case SECOND_SMALL -> {
+              copy.setRight(NodeCopier.copy(right, nodeFactory));
+              right = null;
+            }
+            case FIRST_SMALL -> {
+              copy.setLeft(NodeCopier.copy(left, nodeFactory));
+              left = null;
+            }
+          }
+        }
+
+        if (right != null) {
+          var rightCopy = nodeFactory.apply(right.getValue());
+          copy.setRight(rightCopy);
+          pending.push(right);
+          pending.push(rightCopy);
+        }
+
+        if (left != null) {
+          var leftCopy = nodeFactory.apply(left.getValue());
+          copy.setLeft(leftCopy);
+          pending.push(left);
+          pending.push(leftCopy);
+        }
+      }
+
+      tryComplete();
+    }
+
+    @Override
+    public Node<T> getRawResult() {
+      return rootCopy;
+    }
+  }
+}
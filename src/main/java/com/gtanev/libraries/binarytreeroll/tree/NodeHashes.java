@@ -0,0 +1,65 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * Stack-safe structural hashes of binary tree nodes, matching {@link Node#hashCode()}.
+ */
+final class NodeHashes {
+
+  private NodeHashes() {}
+
+  /**
+   * Computes the hash of the subtree rooted at the given node in postorder, with the hashes of the
+   * finished subtrees kept on a stack of ints. The cached hashes of {@link HashedNode hashed nodes}
+   * are used without descending into their subtrees, and stale ones are recomputed and cached.
+   */
+  static int hash(Node<?> root) {
+    var results = new IntStack();
+    Deque<Node<?>> stack = new ArrayDeque<>();
+    Node<?> lastVisited = null;
+    var node = root;
+
+    while (node != null || !stack.isEmpty()) {
+      while (node != null) {
+        if (node instanceof HashedNode<?> hashedNode && hashedNode.hasCachedHash()) {
+          results.push(hashedNode.hashCode());
+          lastVisited = node;
+          node = null;
+        } else {
+          stack.push(node);
+          node = node.getLeft();
+        }
+      }
+
+      if (stack.isEmpty()) {
+        break;
+      }
+
+      var top = stack.peek();
+      var right = top.getRight();
+
+      if (right != null && right != lastVisited) {
+        node = right;
+      } else {
+        stack.pop();
+
+        var rightHash = right != null ? results.pop() : 0;
+        var leftHash = top.getLeft() != null ? results.pop() : 0;
+        var hash = 31 * (31 * Objects.hashCode(top.getValue()) + leftHash) + rightHash;
+
+        if (top instanceof HashedNode<?> hashedNode) {
+          hashedNode.cacheHash(hash);
+        }
+
+        results.push(hash);
+        lastVisited = top;
+      }
+    }
+
+    return results.isEmpty() ? 0 : results.pop();
+  }
+}
@@ -0,0 +1,104 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A pool of nodes released from trees that are no longer used, which can be reused by
+ * {@link BinaryTree#deepCopy(NodePool)} instead of allocating new nodes.
+ *
+ * <p>Released nodes have their value and links cleared, so the pool does not retain any values.
+ * Only trees of plain {@link Node}s are accepted, so that a copy made from the pool never mixes
+ * node types; in particular, clearing the links of a journaled tree would record a change for
+ * every node in its journal. The pool is not thread-safe.
+ *
+ * @param <T> the type of values held by the nodes
+ */
+public final class NodePool<T> {
+
+  private Node<T>[] nodes;
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  public NodePool() {
+    this.nodes = (Node<T>[]) new Node<?>[16];
+  }
+
+  /**
+   * Releases all nodes of the given tree into the pool and empties the tree. The nodes must not be
+   * referenced from anywhere else.
+   *
+   * @param tree the tree
+   *
+   * @throws IllegalArgumentException if the root of the tree is not a plain node
+   */
+  public void release(BinaryTree<T> tree) {
+    release(tree.getRoot());
+    tree.setRoot(null);
+  }
+
+  /**
+   * Releases all nodes of the subtree rooted at the given node into the pool. The nodes must not
+   * be referenced from anywhere else.
+   *
+   * @param root the root of the subtree, or null
+   *
+   * @throws IllegalArgumentException if the root is not a plain node
+   */
+  public void release(Node<T> root) {
+    if (root == null) {
+      return;
+    }
+
+    if (root.getClass() != Node.class) {
+      throw new IllegalArgumentException("Only trees of plain nodes can be pooled.");
+    }
+
+    Deque<Node<T>> pending = new ArrayDeque<>();
+    pending.push(root);
+
+    while (!pending.isEmpty()) {
+      var node = pending.pop();
+
+      if (node.getLeft() != null) {
+        pending.push(node.getLeft());
+      }
+
+      if (node.getRight() != null) {
+        pending.push(node.getRight());
+      }
+
+      node.setValue(null);
+      node.setLeft(null);
+      node.setRight(null);
+
+      if (size == nodes.length) {
+        nodes = Arrays.copyOf(nodes, size << 1);
+      }
+
+      nodes[size++] = node;
+    }
+  }
+
+  /**
+   * Returns the number of nodes available in the pool.
+   *
+   * @return the number of nodes
+   */
+  public int size() {
+    return size;
+  }
+
+  Node<T> acquire(T value) {
+    if (size == 0) {
+      return new Node<>(value);
+    }
+
+    var node = nodes[--size];
+    nodes[size] = null;
+    node.setValue(value);
+    return node;
+  }
+}
@@ -0,0 +1,163 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import static com.gtanev.libraries.binarytreeroll.tree.IndexedLinks.NIL;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.IntFunction;
+
+/**
+ * A binary tree whose nodes are stored outside the Java heap, in a direct byte buffer.
+ *
+ * <p>Every node is a 16-byte record holding the indices of its left and right children, followed
+ * by its value encoded into a 64-bit slot by a {@link ValueCodec}. The roll rewrites the child
+ * indices of the records in place, so neither building, rolling nor traversing the tree allocates
+ * heap objects per node, and the garbage collector never has to trace the nodes.
+ *
+ * <p>The memory belongs to the tree until it is closed, after which the tree can no longer be
+ * used and the memory is returned by the cleaner of the buffer once nothing references it. The
+ * memory is never freed explicitly, so a traversal that closes the tree from its visitor still
+ * completes, and a node kept from a traversal stays readable, keeping the memory reachable. An
+ * immutable roll creates a new tree with its own memory, which has to be closed separately.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public final class OffHeapBinaryTree<T>
+    implements Traversable<T>, SelfRollable<T, OffHeapBinaryTree<T>>, AutoCloseable {
+
+  static final int RECORD_SIZE = 2 * Integer.BYTES + Long.BYTES;
+  static final int MAX_SIZE = Integer.MAX_VALUE / RECORD_SIZE;
+
+  private static final int VALUE_OFFSET = 2 * Integer.BYTES;
+
+  private final ValueCodec<T> codec;
+  private final int size;
+  private ByteBuffer buffer;
+  private BufferLinks links;
+  private int root;
+
+  private OffHeapBinaryTree(ByteBuffer buffer, ValueCodec<T> codec, int size, int root) {
+    this.buffer = buffer;
+    this.links = new BufferLinks(buffer, 0, RECORD_SIZE);
+    this.codec = codec;
+    this.size = size;
+    this.root = root;
+  }
+
+  /**
+   * Creates an off-heap copy of the given binary tree.
+   *
+   * @param tree  the binary tree
+   * @param codec the codec that encodes the values of the tree
+   *
+   * @return the off-heap binary tree
+   */
+  public static <T> OffHeapBinaryTree<T> from(BinaryTree<T> tree, ValueCodec<T> codec) {
+    var size = IndexedTrees.count(tree.getRoot());
+
+    if (size > MAX_SIZE) {
+      throw new IllegalArgumentException("The tree has too many nodes to be stored off-heap.");
+    }
+
+    var buffer = allocate(size);
+    var offHeapTree = new OffHeapBinaryTree<>(buffer, codec, size, size > 0 ? 0 : NIL);
+
+    for (var index = 0; index < size; index++) {
+      offHeapTree.links.setLeft(index, NIL);
+      offHeapTree.links.setRight(index, NIL);
+    }
+
+    IndexedTrees.copyFrom(tree.getRoot(), offHeapTree.links,
+        (value, index) -> buffer.putLong(index * RECORD_SIZE + VALUE_OFFSET, codec.encode(value)));
+
+    return offHeapTree;
+  }
+
+  private static ByteBuffer allocate(int size) {
+    return ByteBuffer.allocateDirect(size * RECORD_SIZE).order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Creates an on-heap copy of this tree, consisting of {@link BinaryTree.Node} objects.
+   *
+   * @return the binary tree
+   */
+  public BinaryTree<T> toBinaryTree() {
+    ensureOpen();
+    return new BinaryTree<>(IndexedTrees.copyTo(links, root, values()));
+  }
+
+  public long size() {
+    ensureOpen();
+    return size;
+  }
+
+  public long height() {
+    ensureOpen();
+    return IndexedTrees.height(links, root);
+  }
+
+  /**
+   * Returns the decoder of the values of the current buffer, which keeps reading it after the tree
+   * has been closed.
+   */
+  private IntFunction<T> values() {
+    var buffer = this.buffer;
+    return index -> codec.decode(buffer.getLong(index * RECORD_SIZE + VALUE_OFFSET));
+  }
+
+  /**
+   * Traverses the tree with the given visitor. The nodes handed to the visitor are read-only
+   * flyweights, which are only valid for the duration of the call that received them.
+   *
+   * @param visitor the visitor
+   */
+  @Override
+  public void traverse(Visitor<T> visitor) {
+    ensureOpen();
+    IndexedTrees.traverse(links, root, values(), visitor);
+  }
+
+  /**
+   * Rolls the tree in the direction of the given strategy. An immutable strategy rolls a copy of
+   * the tree in newly allocated off-heap memory.
+   *
+   * @param strategy the roll strategy
+   *
+   * @return the rolled tree
+   */
+  @Override
+  public OffHeapBinaryTree<T> roll(RollStrategy<T> strategy) {
+    ensureOpen();
+    var tree = this;
+
+    if (strategy.isImmutable()) {
+      var copy = allocate(size).put(buffer.duplicate().clear()).clear();
+      tree = new OffHeapBinaryTree<>(copy, codec, size, root);
+    }
+
+    tree.root = IndexedTrees.roll(tree.links, tree.root, strategy.getDirection());
+    return tree;
+  }
+
+  public boolean isOpen() {
+    return buffer != null;
+  }
+
+  /**
+   * Closes the tree, releasing its off-heap memory to the buffer cleaner. Closing a closed tree
+   * has no effect.
+   */
+  @Override
+  public void close() {
+    buffer = null;
+    links = null;
+  }
+
+  private void ensureOpen() {
+    if (buffer == null) {
+      throw new IllegalStateException("The tree has been closed.");
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+/**
+ * A visitor that applies its action to every node in a fixed depth-first order. Tree
+ * representations and views that can produce the order themselves serve these visitors without
+ * handing them any nodes to walk.
+ */
+interface OrderedVisitor<T> extends Visitor<T> {
+
+  VisitorAction<T> action();
+
+  TraversalOrder order();
+}
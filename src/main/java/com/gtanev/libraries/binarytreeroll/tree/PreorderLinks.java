@@ -0,0 +1,77 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import java.util.Arrays;
+
+/**
+ * Read-only child links of a tree whose nodes are numbered in preorder, so that the left child of
+ * a node, if any, is always the next node. Only the right child is stored as an int, and the
+ * presence of the left child as a single bit, which makes the links about 4 bytes per node.
+ *
+ * <p>The links are built by appending the nodes in preorder, each with the sides on which it has
+ * a child. The right child of a node is then the first node appended after its left subtree, which
+ * is resolved with a stack of the nodes that are still waiting for their right child.
+ */
+final class PreorderLinks implements IndexedLinks {
+
+  private final int[] right;
+  private final long[] hasLeft;
+  private IntStack pendingRight = new IntStack();
+  private int size;
+
+  PreorderLinks(int capacity) {
+    this.right = new int[capacity];
+    this.hasLeft = new long[(capacity + 63) >>> 6];
+    Arrays.fill(right, NIL);
+  }
+
+  /**
+   * Appends the next node in preorder.
+   *
+   * @return the index of the node
+   */
+  int append(boolean leftChild, boolean rightChild) {
+    var node = size++;
+
+    if (node > 0 && getLeft(node - 1) == NIL) {
+      right[pendingRight.pop()] = node;
+    }
+
+    if (leftChild) {
+      hasLeft[node >>> 6] |= 1L << node;
+    }
+
+    if (rightChild) {
+      pendingRight.push(node);
+    }
+
+    if (size == right.length) {
+      pendingRight = null;
+    }
+
+    return node;
+  }
+
+  int size() {
+    return size;
+  }
+
+  @Override
+  public int getLeft(int node) {
+    return (hasLeft[node >>> 6] & (1L << node)) != 0 ? node + 1 : NIL;
+  }
+
+  @Override
+  public int getRight(int node) {
+    return right[node];
+  }
+
+  @Override
+  public void setLeft(int node, int child) {
+    throw new UnsupportedOperationException("Preorder links are read-only.");
+  }
+
+  @Override
+  public void setRight(int node, int child) {
+    throw new UnsupportedOperationException("Preorder links are read-only.");
+  }
+}
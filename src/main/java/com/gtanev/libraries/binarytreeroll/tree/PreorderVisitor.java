@@ -2,7 +2,12 @@ package com.gtanev.libraries.binarytreeroll.tree;
 
 import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
 
-public record PreorderVisitor<T>(VisitorAction<T> action) implements Visitor<T> {
+public record PreorderVisitor<T>(VisitorAction<T> action) implements OrderedVisitor<T> {
+
+  @Override
+  public TraversalOrder order() {
+    return TraversalOrder.PREORDER;
+  }
 
   @Override
   public void visit(Node<T> root) {
@@ -0,0 +1,142 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import static com.gtanev.libraries.binarytreeroll.tree.IndexedLinks.NIL;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The links, traversals and rolls shared by the binary trees of primitive values, which only add
+ * the array of values and the primitive visitor actions of their type.
+ *
+ * @param <T> the boxed type of the values held by the tree
+ * @param <R> the type of the tree
+ */
+abstract class PrimitiveBinaryTree<T, R extends PrimitiveBinaryTree<T, R>>
+    implements Traversable<T>, SelfRollable<T, R> {
+
+  private final IntArrayLinks links;
+  private final int size;
+  private int root;
+
+  PrimitiveBinaryTree(IntArrayLinks links, int size, int root) {
+    this.links = links;
+    this.size = size;
+    this.root = root;
+  }
+
+  PrimitiveBinaryTree(IntArrayLinks links, int size) {
+    this(links, size, size > 0 ? 0 : NIL);
+  }
+
+  /**
+   * Links the nodes of the level-order sequence of the given length, handing the position of every
+   * node in the sequence and its index in the tree to the given copier, and returns the links,
+   * trimmed to the number of nodes.
+   */
+  static IntArrayLinks linkLevelOrder(int length, IntPredicate missing, ValueCopier copier) {
+    var links = new IntArrayLinks(length);
+    var size = IndexedTrees.linkLevelOrder(length, missing, links, new IntConsumer() {
+      private int index;
+
+      @Override
+      public void accept(int position) {
+        copier.copy(position, index++);
+      }
+    });
+
+    links.resize(size);
+    return links;
+  }
+
+  /**
+   * Copies the links of the given tree, numbering its nodes in preorder, and hands the value of
+   * every node to the given consumer together with its index.
+   */
+  static <T> IntArrayLinks copyLinks(BinaryTree<T> tree, int size, ObjIntConsumer<T> values) {
+    var links = new IntArrayLinks(size);
+    IndexedTrees.copyFrom(tree.getRoot(), links, values);
+    return links;
+  }
+
+  /**
+   * Returns the boxed value of the node with the given index.
+   */
+  abstract T boxedValue(int index);
+
+  /**
+   * Returns a tree with the given links and root that shares the values of this tree.
+   */
+  abstract R withLinks(IntArrayLinks links, int root);
+
+  @SuppressWarnings("unchecked")
+  private R self() {
+    return (R) this;
+  }
+
+  /**
+   * Creates a linked copy of this tree, consisting of {@link BinaryTree.Node} objects.
+   *
+   * @return the binary tree
+   */
+  public BinaryTree<T> toBinaryTree() {
+    return new BinaryTree<>(IndexedTrees.copyTo(links, root, this::boxedValue));
+  }
+
+  public long size() {
+    return size;
+  }
+
+  public long height() {
+    return IndexedTrees.height(links, root);
+  }
+
+  /**
+   * Traverses the tree in the given order, handing the index of every node to the given action.
+   */
+  void traverseIndices(TraversalOrder order, IntConsumer action) {
+    if (root == NIL) {
+      throw new IllegalStateException("Cannot traverse an empty tree.");
+    }
+
+    IndexedTrees.traverse(links, root, order, action);
+  }
+
+  /**
+   * Traverses the tree with the given visitor, boxing every visited value. The nodes handed to the
+   * visitor are read-only flyweights, which are only valid for the duration of the call that
+   * received them.
+   *
+   * @param visitor the visitor
+   */
+  @Override
+  public void traverse(Visitor<T> visitor) {
+    IndexedTrees.traverse(links, root, this::boxedValue, visitor);
+  }
+
+  /**
+   * Rolls the tree in the direction of the given strategy. An immutable strategy rolls a copy of
+   * the links, which shares the values with this tree.
+   *
+   * @param strategy the roll strategy
+   *
+   * @return the rolled tree
+   */
+  @Override
+  public R roll(RollStrategy<T> strategy) {
+    var tree = strategy.isImmutable() ? withLinks(links.copy(), root) : self();
+    var base = (PrimitiveBinaryTree<T, R>) tree;
+    base.root = IndexedTrees.roll(base.links, base.root, strategy.getDirection());
+    return tree;
+  }
+
+  /**
+   * Copies the value at a position of a level-order sequence to the node with the given index.
+   */
+  @FunctionalInterface
+  interface ValueCopier {
+    void copy(int position, int index);
+  }
+}
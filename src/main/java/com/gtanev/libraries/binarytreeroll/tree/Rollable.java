@@ -2,6 +2,15 @@ package com.gtanev.libraries.binarytreeroll.tree;
 
 import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
 
-public interface Rollable<T> {
+/**
+ * A binary tree that can be rolled into a {@link BinaryTree}.
+ *
+ * <p>This is the {@link SelfRollable} of linked binary trees, kept with its original signature so
+ * that existing implementations and callers are unaffected.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public interface Rollable<T> extends SelfRollable<T, BinaryTree<T>> {
+  @Override
   BinaryTree<T> roll(RollStrategy<T> rollStrategy);
 }
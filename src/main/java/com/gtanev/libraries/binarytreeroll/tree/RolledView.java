@@ -0,0 +1,195 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollEngine;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A read-only view of a binary tree as if it had been rolled, which leaves the tree untouched.
+ *
+ * <p>The depth-first traversals of a rolled tree are transposed traversals of the original tree,
+ * so the predefined visitors are served by walking the original nodes in the corresponding order:
+ *
+ * <ul>
+ *   <li>clockwise: preorder = inorder of the original, inorder = postorder of the original, and
+ *       postorder visits the subtrees hanging off every left spine bottom-up before the spine
+ *       itself top-down;</li>
+ *   <li>counterclockwise: inorder = preorder of the original, postorder = inorder of the
+ *       original, and preorder visits every right spine bottom-up before the subtrees hanging off
+ *       it top-down.</li>
+ * </ul>
+ *
+ * <p>The walks are iterative and allocate nothing per node. The nodes handed to the visitor
+ * action are the nodes of the original tree, so their links reflect the original structure. Any
+ * other visitor, which navigates the links itself, is served from a rolled copy of the tree.
+ *
+ * @param <T> the type of values held by the tree
+ */
+final class RolledView<T> implements Traversable<T> {
+
+  private final BinaryTree<T> tree;
+  private final RollDirection direction;
+
+  RolledView(BinaryTree<T> tree, RollDirection direction) {
+    this.tree = tree;
+    this.direction = direction;
+  }
+
+  @Override
+  public void traverse(Visitor<T> visitor) {
+    var root = tree.getRoot();
+
+    if (root == null) {
+      throw new IllegalStateException("Cannot traverse an empty tree.");
+    }
+
+    var clockwise = direction == RollDirection.CLOCKWISE;
+
+    if (!(visitor instanceof OrderedVisitor<T> orderedVisitor)) {
+      tree.roll(RollStrategyFactory.createImmutable(direction, RollEngine.FUSED)).traverse(visitor);
+      return;
+    }
+
+    var action = orderedVisitor.action();
+
+    switch (orderedVisitor.order()) {
+      case PREORDER -> {
+        if (clockwise) {
+          inorder(root, action);
+        } else {
+          spinesFirst(root, action);
+        }
+      }
+      case INORDER -> {
+        if (clockwise) {
+          postorder(root, action);
+        } else {
+          preorder(root, action);
+        }
+      }
+      case POSTORDER -> {
+        if (clockwise) {
+          spinesLast(root, action);
+        } else {
+          inorder(root, action);
+        }
+      }
+      default -> throw new IllegalStateException("Unexpected visitor order.");
+    }
+  }
+
+  private static <T> void preorder(Node<T> root, VisitorAction<T> action) {
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    stack.push(root);
+
+    while (!stack.isEmpty()) {
+      var node = stack.pop();
+      action.accept(node);
+
+      if (node.getRight() != null) {
+        stack.push(node.getRight());
+      }
+
+      if (node.getLeft() != null) {
+        stack.push(node.getLeft());
+      }
+    }
+  }
+
+  private static <T> void inorder(Node<T> root, VisitorAction<T> action) {
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    var node = root;
+
+    while (node != null || !stack.isEmpty()) {
+      while (node != null) {
+        stack.push(node);
+        node = node.getLeft();
+      }
+
+      node = stack.pop();
+      action.accept(node);
+      node = node.getRight();
+    }
+  }
+
+  private static <T> void postorder(Node<T> root, VisitorAction<T> action) {
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    Node<T> lastVisited = null;
+    var node = root;
+
+    while (node != null || !stack.isEmpty()) {
+      while (node != null) {
+        stack.push(node);
+        node = node.getLeft();
+      }
+
+      var top = stack.peek();
+
+      if (top.getRight() != null && top.getRight() != lastVisited) {
+        node = top.getRight();
+      } else {
+        action.accept(stack.pop());
+        lastVisited = top;
+      }
+    }
+  }
+
+  /**
+   * Visits the right subtrees of every left spine from the bottom of the spine up, followed by the
+   * spine itself from the top down, which is the postorder of the clockwise rolled tree.
+   */
+  private static <T> void spinesLast(Node<T> root, VisitorAction<T> action) {
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    Deque<Node<T>> expanded = new ArrayDeque<>();
+    stack.push(root);
+
+    while (!stack.isEmpty()) {
+      var top = stack.peek();
+
+      if (top == expanded.peek()) {
+        stack.pop();
+        expanded.pop();
+
+        for (var node = top; node != null; node = node.getLeft()) {
+          action.accept(node);
+        }
+      } else {
+        expanded.push(top);
+
+        for (var node = top; node != null; node = node.getLeft()) {
+          if (node.getRight() != null) {
+            stack.push(node.getRight());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Visits every right spine from the bottom up, followed by the left subtrees of the spine from
+   * the top down, which is the preorder of the counterclockwise rolled tree.
+   */
+  private static <T> void spinesFirst(Node<T> root, VisitorAction<T> action) {
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    Deque<Node<T>> spine = new ArrayDeque<>();
+    stack.push(root);
+
+    while (!stack.isEmpty()) {
+      for (var node = stack.pop(); node != null; node = node.getRight()) {
+        spine.push(node);
+      }
+
+      while (!spine.isEmpty()) {
+        var node = spine.pop();
+        action.accept(node);
+
+        if (node.getLeft() != null) {
+          stack.push(node.getLeft());
+        }
+      }
+    }
+  }
+}
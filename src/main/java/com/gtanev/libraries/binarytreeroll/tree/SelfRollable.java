@@ -0,0 +1,14 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
+
+/**
+ * A binary tree that can be rolled into a tree of its own representation, such as an
+ * {@link ArrayBinaryTree} rolled into another {@code ArrayBinaryTree}.
+ *
+ * @param <T> the type of values held by the tree
+ * @param <R> the type of the rolled tree
+ */
+public interface SelfRollable<T, R extends SelfRollable<T, R>> {
+  R roll(RollStrategy<T> rollStrategy);
+}
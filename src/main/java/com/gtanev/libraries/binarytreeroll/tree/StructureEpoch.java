@@ -0,0 +1,33 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+/**
+ * Tracks the changes to the links of the nodes of a single binary tree, to validate the metadata
+ * that the tree has cached.
+ *
+ * <p>Nodes do not know which tree they belong to, so a tree stamps its epoch on every node that it
+ * builds, copies or walks to compute its metadata, and the setters of a node mark the epoch of its
+ * tree as changed. The setters only write the flag if it is not already set, so relinking loops
+ * pay one read of it per change. A node that is stamped by another tree marks the epoch of its
+ * previous tree as changed, since that tree would no longer notice the changes to the node.
+ */
+final class StructureEpoch {
+
+  private boolean changed;
+
+  void markChanged() {
+    if (!changed) {
+      changed = true;
+    }
+  }
+
+  boolean isChanged() {
+    return changed;
+  }
+
+  /**
+   * Starts a new epoch, once the tree has recorded metadata that reflects every change so far.
+   */
+  void reset() {
+    changed = false;
+  }
+}
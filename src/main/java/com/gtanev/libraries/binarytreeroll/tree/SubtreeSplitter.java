@@ -0,0 +1,116 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Decides where the fork-join algorithms over linked trees hand a subtree to a separate task:
+ * only where the work splits into two subtrees that both have at least {@code threshold} nodes.
+ *
+ * <p>The two subtrees are counted in lockstep, one node of each at a time, so a split costs at
+ * most twice the size of the smaller subtree, or twice the threshold. The callers process a
+ * smaller subtree sequentially, without splitting it any further, so every node is counted as
+ * part of a smaller subtree at most once, and the splits cost time linear in the size of the tree
+ * overall. A splitter reuses its stacks, so it must only be used by a single task.
+ */
+public final class SubtreeSplitter {
+
+  private static final int MAX_SURPLUS_TASKS = 2;
+
+  private final int threshold;
+  private final Deque<Node<?>> first = new ArrayDeque<>();
+  private final Deque<Node<?>> second = new ArrayDeque<>();
+
+  /**
+   * Creates a splitter.
+   *
+   * @param threshold the smallest number of nodes in a subtree that is handed to a separate task
+   *
+   * @throws IllegalArgumentException if the threshold is not positive
+   */
+  public SubtreeSplitter(int threshold) {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("The threshold must be positive.");
+    }
+
+    this.threshold = threshold;
+  }
+
+  /**
+   * Returns whether the current task has few enough queued tasks that more should be forked.
+   */
+  public static boolean isPoolShortOfWork() {
+    return ForkJoinTask.getSurplusQueuedTaskCount() <= MAX_SURPLUS_TASKS;
+  }
+
+  /**
+   * Compares the sizes of the given subtrees, visiting at most {@code threshold} nodes of each,
+   * and no more nodes of the larger one than of the smaller one.
+   *
+   * @param firstRoot the root of the first subtree, or null if it is empty
+   * @param secondRoot the root of the second subtree, or null if it is empty
+   *
+   * @return which of the subtrees has fewer than {@code threshold} nodes, if any
+   */
+  public Split split(Node<?> firstRoot, Node<?> secondRoot) {
+    try {
+      push(first, firstRoot);
+      push(second, secondRoot);
+
+      for (var count = 0; count < threshold; count++) {
+        if (!advance(first)) {
+          return Split.FIRST_SMALL;
+        }
+
+        if (!advance(second)) {
+          return Split.SECOND_SMALL;
+        }
+      }
+
+      return Split.BALANCED;
+    } finally {
+      first.clear();
+      second.clear();
+    }
+  }
+
+  private static void push(Deque<Node<?>> stack, Node<?> node) {
+    if (node != null) {
+      stack.push(node);
+    }
+  }
+
+  /**
+   * Visits the next node of the subtree on the given stack, returning false if there is none.
+   */
+  private static boolean advance(Deque<Node<?>> stack) {
+    if (stack.isEmpty()) {
+      return false;
+    }
+
+    var node = stack.pop();
+    push(stack, node.getRight());
+    push(stack, node.getLeft());
+    return true;
+  }
+
+  /**
+   * The outcome of a split.
+   */
+  public enum Split {
+    /**
+     * Both subtrees have at least {@code threshold} nodes.
+     */
+    BALANCED,
+    /**
+     * The first subtree has fewer than {@code threshold} nodes.
+     */
+    FIRST_SMALL,
+    /**
+     * The second subtree has fewer than {@code threshold} nodes, and the first one has more.
+     */
+    SECOND_SMALL
+  }
+}
@@ -0,0 +1,11 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+/**
+ * The order in which the nodes of a binary tree are visited.
+ */
+public enum TraversalOrder {
+  PREORDER,
+  INORDER,
+  POSTORDER,
+  LEVEL_ORDER
+}
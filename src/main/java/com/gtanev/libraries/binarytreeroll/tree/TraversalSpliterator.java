@@ -0,0 +1,217 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A lazy, non-recursive spliterator over the values of a binary tree in a depth-first order.
+ *
+ * <p>The remaining traversal is kept as a stack of tasks, each of which either visits a single
+ * node or expands a whole subtree into the tasks for its node and its children, in the order
+ * required by the traversal. The bottom-most subtree task, together with everything below it, is
+ * traversed last, so splitting hands every task above it to a new spliterator, which is exactly a
+ * prefix of the traversal. For a tree of height {@code h}, the stack holds {@code O(h)} tasks.
+ *
+ * <p>The spliterator is {@link #SIZED} only if the size of the tree is given, and only until it
+ * is split, since the sizes of the subtrees are unknown.
+ */
+final class TraversalSpliterator<T> implements Spliterator<T> {
+
+  private final TraversalOrder order;
+  private Node<T>[] nodes;
+  private boolean[] subtrees;
+  private int size;
+  private long estimatedSize;
+  private boolean sized;
+
+  private TraversalSpliterator(TraversalOrder order, Node<T>[] nodes, boolean[] subtrees,
+      int size, long estimatedSize, boolean sized) {
+    this.order = order;
+    this.nodes = nodes;
+    this.subtrees = subtrees;
+    this.size = size;
+    this.estimatedSize = estimatedSize;
+    this.sized = sized;
+  }
+
+  /**
+   * Creates a spliterator over the values of the tree rooted at the given node.
+   *
+   * @param root      the root of the tree, or null
+   * @param order     the traversal order
+   * @param knownSize the number of nodes in the tree, or a negative number if unknown
+   *
+   * @return the spliterator
+   */
+  @SuppressWarnings("unchecked")
+  static <T> Spliterator<T> of(Node<T> root, TraversalOrder order, long knownSize) {
+    if (root == null) {
+      return Spliterators.emptySpliterator();
+    }
+
+    var estimatedSize = knownSize >= 0 ? knownSize : Long.MAX_VALUE;
+
+    if (order == TraversalOrder.LEVEL_ORDER) {
+      return new LevelOrderSpliterator<>(root, estimatedSize, knownSize >= 0);
+    }
+
+    var spliterator = new TraversalSpliterator<>(order, (Node<T>[]) new Node<?>[16],
+        new boolean[16], 0, estimatedSize, knownSize >= 0);
+    spliterator.push(root, true);
+    return spliterator;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    while (size > 0) {
+      var node = nodes[--size];
+      var subtree = subtrees[size];
+      nodes[size] = null;
+
+      if (subtree) {
+        expand(node);
+      } else {
+        if (sized) {
+          estimatedSize--;
+        }
+
+        action.accept(node.getValue());
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    while (true) {
+      var bottom = 0;
+
+      while (bottom < size && !subtrees[bottom]) {
+        bottom++;
+      }
+
+      if (bottom == size) {
+        return null;
+      }
+
+      if (bottom < size - 1) {
+        var prefix = new TraversalSpliterator<>(order,
+            Arrays.copyOfRange(nodes, bottom + 1, Math.max(size, bottom + 17)),
+            Arrays.copyOfRange(subtrees, bottom + 1, Math.max(size, bottom + 17)),
+            size - bottom - 1, estimatedSize >>> 1, false);
+
+        Arrays.fill(nodes, bottom + 1, size, null);
+        size = bottom + 1;
+        estimatedSize -= prefix.estimatedSize;
+        sized = false;
+        return prefix;
+      }
+
+      var node = nodes[--size];
+      nodes[size] = null;
+      expand(node);
+    }
+  }
+
+  @Override
+  public long estimateSize() {
+    return estimatedSize;
+  }
+
+  @Override
+  public int characteristics() {
+    return sized ? ORDERED | SIZED : ORDERED;
+  }
+
+  private void expand(Node<T> node) {
+    var left = node.getLeft();
+    var right = node.getRight();
+
+    switch (order) {
+      case PREORDER -> {
+        push(right, true);
+        push(left, true);
+        push(node, false);
+      }
+      case INORDER -> {
+        push(right, true);
+        push(node, false);
+        push(left, true);
+      }
+      case POSTORDER -> {
+        push(node, false);
+        push(right, true);
+        push(left, true);
+      }
+    }
+  }
+
+  private void push(Node<T> node, boolean subtree) {
+    if (node == null) {
+      return;
+    }
+
+    if (size == nodes.length) {
+      nodes = Arrays.copyOf(nodes, size << 1);
+      subtrees = Arrays.copyOf(subtrees, size << 1);
+    }
+
+    nodes[size] = node;
+    subtrees[size++] = subtree;
+  }
+
+  /**
+   * A spliterator over the values of a binary tree in level order. The levels interleave the
+   * subtrees, so the spliterator is split by batching a prefix of its values into an array. A
+   * known size is counted down as the values are consumed, including those batched by a split, so
+   * the spliterator stays {@link #SIZED}.
+   */
+  private static final class LevelOrderSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final ArrayDeque<Node<T>> queue = new ArrayDeque<>();
+    private final boolean sized;
+    private long remainingSize;
+
+    LevelOrderSpliterator(Node<T> root, long estimatedSize, boolean sized) {
+      super(estimatedSize, sized ? ORDERED | SIZED : ORDERED);
+      this.sized = sized;
+      this.remainingSize = estimatedSize;
+      queue.offer(root);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      var node = queue.poll();
+
+      if (node == null) {
+        return false;
+      }
+
+      if (node.getLeft() != null) {
+        queue.offer(node.getLeft());
+      }
+
+      if (node.getRight() != null) {
+        queue.offer(node.getRight());
+      }
+
+      if (sized) {
+        remainingSize--;
+      }
+
+      action.accept(node.getValue());
+      return true;
+    }
+
+    @Override
+    public long estimateSize() {
+      return sized ? remainingSize : super.estimateSize();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * The cached size, and optionally the height and the number of nodes at every depth, of a binary
+ * tree. The tree keeps the metadata until its {@link StructureEpoch} is marked as changed, so the
+ * same metadata can be recorded again, by a copy of the tree, without allocating.
+ *
+ * @param size       the number of nodes
+ * @param height     the number of levels, or {@link #UNKNOWN} if unknown
+ * @param levelSizes the number of nodes at every depth, starting with the root, or null if unknown
+ */
+record TreeMetadata(long size, long height, long[] levelSizes) {
+
+  static final long UNKNOWN = -1;
+
+  /**
+   * Returns the metadata of a tree of the given size and height, whose level sizes are unknown,
+   * such as a rolled tree.
+   */
+  static TreeMetadata ofShape(long size, long height) {
+    return new TreeMetadata(size, height, null);
+  }
+
+  /**
+   * Walks the tree with the given root level by level, without recursion, and stamps the given
+   * epoch on every node.
+   */
+  static TreeMetadata compute(Node<?> root, StructureEpoch epoch) {
+    var levelSizes = new LevelSizes();
+    var queue = new ArrayDeque<Node<?>>();
+
+    if (root != null) {
+      queue.offer(root);
+    }
+
+    while (!queue.isEmpty()) {
+      var levelSize = queue.size();
+      levelSizes.add(levelSize);
+
+      for (var i = 0; i < levelSize; i++) {
+        var node = queue.poll();
+        node.adopt(epoch);
+
+        if (node.getLeft() != null) {
+          queue.offer(node.getLeft());
+        }
+
+        if (node.getRight() != null) {
+          queue.offer(node.getRight());
+        }
+      }
+    }
+
+    return levelSizes.toMetadata();
+  }
+
+  boolean hasHeight() {
+    return height != UNKNOWN;
+  }
+
+  boolean hasLevelSizes() {
+    return levelSizes != null;
+  }
+
+  /**
+   * A growable array of level sizes. The tree builders, which dequeue the nodes in level order,
+   * report every added child and every completed parent, from which the level boundaries follow.
+   */
+  static final class LevelSizes {
+
+    private long[] sizes = new long[16];
+    private int levels;
+    private long total;
+    private long remaining;
+    private long next;
+
+    static LevelSizes withRoot() {
+      var levelSizes = new LevelSizes();
+      levelSizes.add(1);
+      levelSizes.remaining = 1;
+      return levelSizes;
+    }
+
+    void add(long levelSize) {
+      if (levels == sizes.length) {
+        sizes = Arrays.copyOf(sizes, levels << 1);
+      }
+
+      sizes[levels++] = levelSize;
+      total += levelSize;
+    }
+
+    void childAdded() {
+      next++;
+    }
+
+    void parentCompleted() {
+      if (--remaining == 0 && next > 0) {
+        add(next);
+        remaining = next;
+        next = 0;
+      }
+    }
+
+    TreeMetadata toMetadata() {
+      if (next > 0) {
+        add(next);
+        remaining += next;
+        next = 0;
+      }
+
+      return new TreeMetadata(total, levels, Arrays.copyOf(sizes, levels));
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+/**
+ * The first position at which two binary trees differ, either because only one of them has a node
+ * there or because the values of their nodes are not equal.
+ *
+ * @param path      the path from the root to the position, as a string of {@code 'L'} and
+ *                  {@code 'R'} characters for left and right steps, which is empty for the root
+ * @param node      the node of the first tree at the position, or {@code null} if it has none
+ * @param otherNode the node of the second tree at the position, or {@code null} if it has none
+ */
+public record TreeMismatch(String path, BinaryTree.Node<?> node, BinaryTree.Node<?> otherNode) {}
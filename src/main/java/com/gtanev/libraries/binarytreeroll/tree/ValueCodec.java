@@ -0,0 +1,56 @@
+package com.gtanev.libraries.binarytreeroll.tree;
+
+/**
+ * Converts the values of a tree to and from the fixed-width 64-bit slots in which trees stored
+ * outside the Java heap keep them.
+ *
+ * @param <T> the type of values held by the tree
+ */
+public interface ValueCodec<T> {
+
+  long encode(T value);
+
+  T decode(long bits);
+
+  static ValueCodec<Long> ofLong() {
+    return new ValueCodec<>() {
+      @Override
+      public long encode(Long value) {
+        return value;
+      }
+
+      @Override
+      public Long decode(long bits) {
+        return bits;
+      }
+    };
+  }
+
+  static ValueCodec<Integer> ofInteger() {
+    return new ValueCodec<>() {
+      @Override
+      public long encode(Integer value) {
+        return value;
+      }
+
+      @Override
+      public Integer decode(long bits) {
+        return (int) bits;
+      }
+    };
+  }
+
+  static ValueCodec<Double> ofDouble() {
+    return new ValueCodec<>() {
+      @Override
+      public long encode(Double value) {
+        return Double.doubleToRawLongBits(value);
+      }
+
+      @Override
+      public Double decode(long bits) {
+        return Double.longBitsToDouble(bits);
+      }
+    };
+  }
+}
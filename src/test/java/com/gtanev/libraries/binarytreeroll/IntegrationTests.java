@@ -2,19 +2,53 @@ package com.gtanev.libraries.binarytreeroll;
 
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Named.named;
 
+import com.gtanev.libraries.binarytreeroll.io.DotTreeFormat;
+import com.gtanev.libraries.binarytreeroll.io.JsonTreeFormat;
+import com.gtanev.libraries.binarytreeroll.io.TokenTreeFormat;
+import com.gtanev.libraries.binarytreeroll.io.TreeFormat;
+import com.gtanev.libraries.binarytreeroll.metrics.RecordingTreeMetrics;
+import com.gtanev.libraries.binarytreeroll.metrics.TreeOperation;
 import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollEngine;
+import com.gtanev.libraries.binarytreeroll.roll.RollPlan;
+import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
 import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.ArrayBinaryTree;
 import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
 import com.gtanev.libraries.binarytreeroll.tree.BinaryTreePrinter;
+import com.gtanev.libraries.binarytreeroll.tree.CompactBinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.HashConsedTree;
+import com.gtanev.libraries.binarytreeroll.tree.HashedNode;
 import com.gtanev.libraries.binarytreeroll.tree.InorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.IterativeInorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.IterativePostorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.IterativePreorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.LinkJournal;
+import com.gtanev.libraries.binarytreeroll.tree.MorrisInorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.MorrisPostorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.MorrisPreorderVisitor;
 import com.gtanev.libraries.binarytreeroll.tree.NodeCollectorVisitorAction;
+import com.gtanev.libraries.binarytreeroll.tree.NodePool;
 import com.gtanev.libraries.binarytreeroll.tree.PostorderVisitor;
 import com.gtanev.libraries.binarytreeroll.tree.PreorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.TraversalOrder;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
@@ -141,6 +175,471 @@ class IntegrationTests<T> {
     );
   }
 
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testIterativeRollMatchesRecursiveRoll(BinaryTree<T> tree) {
+    for (var direction : RollDirection.values()) {
+      var expected = tree.roll(RollStrategyFactory.createImmutable(direction));
+
+      var immutableRolledTree =
+          tree.roll(RollStrategyFactory.createImmutable(direction, RollEngine.ITERATIVE));
+      var mutableRolledTree =
+          tree.deepCopy().roll(RollStrategyFactory.create(direction, RollEngine.ITERATIVE));
+
+      assertAll(
+          () -> assertEquals(expected, immutableRolledTree),
+          () -> assertEquals(expected, mutableRolledTree)
+      );
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testFusedRollMatchesRecursiveRoll(BinaryTree<T> tree) {
+    final var original = tree.deepCopy();
+
+    for (var direction : RollDirection.values()) {
+      var expected = tree.roll(RollStrategyFactory.createImmutable(direction));
+      var rolledTree = tree.roll(RollStrategyFactory.createImmutable(direction, RollEngine.FUSED));
+
+      assertAll(
+          () -> assertNotSame(tree, rolledTree),
+          () -> assertNotSame(tree.getRoot(), rolledTree.getRoot()),
+          () -> assertEquals(expected, rolledTree),
+          () -> assertEquals(original, tree)
+      );
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testParallelRollMatchesRecursiveRoll(BinaryTree<T> tree) {
+    final var original = tree.deepCopy();
+    final var pool = new ForkJoinPool(4);
+
+    try {
+      for (var direction : RollDirection.values()) {
+        var expected = tree.roll(RollStrategyFactory.createImmutable(direction));
+        var rolledTree =
+            tree.roll(RollStrategyFactory.createImmutableParallel(direction, pool, 1));
+
+        assertAll(
+            () -> assertNotSame(tree, rolledTree),
+            () -> assertEquals(expected, rolledTree),
+            () -> assertEquals(original, tree)
+        );
+
+        tree.roll(RollStrategyFactory.createParallel(direction, pool, 1));
+        assertEquals(expected, tree);
+        tree.roll(RollStrategyFactory.create(direction == RollDirection.CLOCKWISE
+            ? RollDirection.COUNTERCLOCKWISE : RollDirection.CLOCKWISE, RollEngine.PARALLEL));
+        assertEquals(original, tree);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testDeepCopiesMatchTree(BinaryTree<T> tree) {
+    final var pool = new ForkJoinPool(4);
+    final var nodePool = new NodePool<T>();
+    nodePool.release(tree.deepCopy().roll(RollStrategyFactory.create(RollDirection.CLOCKWISE)));
+
+    try {
+      var parallelCopy = tree.deepCopy(pool, 1);
+      var pooledCopy = tree.deepCopy(nodePool);
+
+      assertAll(
+          () -> assertEquals(tree, tree.deepCopy()),
+          () -> assertEquals(tree, parallelCopy),
+          () -> assertEquals(tree, pooledCopy),
+          () -> assertEquals(0, nodePool.size())
+      );
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testStreamsMatchVisitors(BinaryTree<T> tree) {
+    tree.traverse(new PreorderVisitor<>(preorderCollector1));
+    tree.traverse(new InorderVisitor<>(inorderCollector1));
+    tree.traverse(new PostorderVisitor<>(postorderCollector1));
+
+    assertAll(
+        () -> assertEquals(preorderCollector1.getList(),
+            tree.stream(TraversalOrder.PREORDER).toList()),
+        () -> assertEquals(inorderCollector1.getList(),
+            tree.stream(TraversalOrder.INORDER).toList()),
+        () -> assertEquals(postorderCollector1.getList(),
+            tree.stream(TraversalOrder.POSTORDER).toList()),
+        () -> assertEquals(postorderCollector1.getList(),
+            tree.stream(TraversalOrder.POSTORDER).parallel().toList()),
+        () -> assertEquals(tree.size(), tree.stream(TraversalOrder.LEVEL_ORDER).count())
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testIterativeAndMorrisVisitorsMatchRecursiveVisitors(BinaryTree<T> tree) {
+    final var original = tree.deepCopy();
+    var preorderCollector3 = new NodeCollectorVisitorAction<T>();
+    var inorderCollector3 = new NodeCollectorVisitorAction<T>();
+    var postorderCollector3 = new NodeCollectorVisitorAction<T>();
+
+    tree.traverse(new PreorderVisitor<>(preorderCollector1));
+    tree.traverse(new InorderVisitor<>(inorderCollector1));
+    tree.traverse(new PostorderVisitor<>(postorderCollector1));
+    tree.traverse(new IterativePreorderVisitor<>(preorderCollector2));
+    tree.traverse(new IterativeInorderVisitor<>(inorderCollector2));
+    tree.traverse(new IterativePostorderVisitor<>(postorderCollector2));
+    tree.traverse(new MorrisPreorderVisitor<>(preorderCollector3));
+    tree.traverse(new MorrisInorderVisitor<>(inorderCollector3));
+    tree.traverse(new MorrisPostorderVisitor<>(postorderCollector3));
+
+    assertAll(
+        () -> assertEquals(preorderCollector1.getList(), preorderCollector2.getList()),
+        () -> assertEquals(inorderCollector1.getList(), inorderCollector2.getList()),
+        () -> assertEquals(postorderCollector1.getList(), postorderCollector2.getList()),
+        () -> assertEquals(preorderCollector1.getList(), preorderCollector3.getList()),
+        () -> assertEquals(inorderCollector1.getList(), inorderCollector3.getList()),
+        () -> assertEquals(postorderCollector1.getList(), postorderCollector3.getList()),
+        () -> assertEquals(original, tree)
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testCachedMetadataMatchesTree(BinaryTree<T> tree) {
+    for (var engine : RollEngine.values()) {
+      for (var direction : List.of(RollDirection.CLOCKWISE, RollDirection.CLOCKWISE,
+          RollDirection.COUNTERCLOCKWISE)) {
+        var immutableRolledTree =
+            tree.roll(RollStrategyFactory.createImmutable(direction, engine));
+        tree.roll(RollStrategyFactory.create(direction,
+            engine == RollEngine.FUSED ? RollEngine.ITERATIVE : engine));
+
+        var size = tree.size();
+        var height = tree.height();
+        var rolledHeight = immutableRolledTree.height();
+        var uncachedTree = new BinaryTree<>(tree.getRoot());
+
+        assertAll(
+            () -> assertEquals(tree.stream(TraversalOrder.PREORDER).count(), size),
+            () -> assertEquals(uncachedTree.height(), height),
+            () -> assertArrayEquals(uncachedTree.depthHistogram(), tree.depthHistogram()),
+            () -> assertEquals(size, immutableRolledTree.size()),
+            () -> assertEquals(height, rolledHeight)
+        );
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testRolledViewMatchesRolledTree(BinaryTree<T> tree) {
+    final var original = tree.deepCopy();
+
+    for (var direction : RollDirection.values()) {
+      var rolledTree = tree.roll(RollStrategyFactory.createImmutable(direction));
+      var rolledView = tree.rolledView(direction);
+
+      var preorderCollector3 = new NodeCollectorVisitorAction<T>();
+      var inorderCollector3 = new NodeCollectorVisitorAction<T>();
+      var postorderCollector3 = new NodeCollectorVisitorAction<T>();
+      var preorderCollector4 = new NodeCollectorVisitorAction<T>();
+      var inorderCollector4 = new NodeCollectorVisitorAction<T>();
+      var postorderCollector4 = new NodeCollectorVisitorAction<T>();
+
+      rolledTree.traverse(new PreorderVisitor<>(preorderCollector3));
+      rolledTree.traverse(new InorderVisitor<>(inorderCollector3));
+      rolledTree.traverse(new PostorderVisitor<>(postorderCollector3));
+
+      rolledView.traverse(new PreorderVisitor<>(preorderCollector4));
+      rolledView.traverse(new InorderVisitor<>(inorderCollector4));
+      rolledView.traverse(new PostorderVisitor<>(postorderCollector4));
+
+      var rootValues = new ArrayList<T>();
+      rolledView.traverse(root -> rootValues.add(root.getValue()));
+
+      assertAll(
+          () -> assertEquals(preorderCollector3.getList(), preorderCollector4.getList()),
+          () -> assertEquals(inorderCollector3.getList(), inorderCollector4.getList()),
+          () -> assertEquals(postorderCollector3.getList(), postorderCollector4.getList()),
+          () -> assertEquals(List.of(rolledTree.getRoot().getValue()), rootValues),
+          () -> assertEquals(original, tree)
+      );
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testInstrumentedRollMatchesRoll(BinaryTree<T> tree) {
+    var metrics = new RecordingTreeMetrics();
+    var expectedNodes = 0L;
+    var inputHeight = tree.height();
+
+    for (var engine : List.of(RollEngine.RECURSIVE, RollEngine.ITERATIVE, RollEngine.PARALLEL)) {
+      for (var direction : RollDirection.values()) {
+        RollStrategy<T> strategy = RollStrategyFactory.createImmutable(direction, engine);
+        RollStrategy<T> instrumented = RollStrategyFactory.createInstrumented(strategy, metrics);
+
+        assertEquals(tree.roll(strategy), tree.roll(instrumented));
+        expectedNodes += tree.size();
+      }
+    }
+
+    assertEquals(6, metrics.count(TreeOperation.ROLL));
+    assertEquals(expectedNodes, metrics.nodes(TreeOperation.ROLL));
+    assertEquals(inputHeight, metrics.maxInputHeight(TreeOperation.ROLL));
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testRollPlanMatchesRepeatedRolls(BinaryTree<T> tree) {
+    var random = new Random(tree.size());
+
+    for (var length = 2; length <= 16; length++) {
+      var directions = new ArrayList<RollDirection>();
+
+      for (var i = 0; i < length; i++) {
+        directions.add(RollDirection.values()[random.nextInt(2)]);
+      }
+
+      var plan = RollPlan.of(directions);
+      var expected = tree.deepCopy();
+
+      for (var direction : directions) {
+        expected.roll(RollStrategyFactory.create(direction, RollEngine.ITERATIVE));
+      }
+
+      var original = tree.deepCopy();
+
+      assertEquals(expected, plan.applyImmutable(tree));
+      assertEquals(expected, plan.applyImmutable(tree, RollEngine.PARALLEL));
+      assertEquals(original, tree);
+      assertEquals(expected, plan.apply(tree.deepCopy(), RollEngine.ITERATIVE));
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testJournalRestoresEveryVersionAcrossRolls(BinaryTree<T> tree) {
+    var journaledTree = LinkJournal.copyOf(tree, 1 << 12);
+    var journal = journaledTree.getJournal();
+    var versions = new ArrayList<Long>();
+    var snapshots = new ArrayList<BinaryTree<T>>();
+
+    for (var engine : List.of(RollEngine.RECURSIVE, RollEngine.ITERATIVE)) {
+      for (var direction : List.of(RollDirection.CLOCKWISE, RollDirection.CLOCKWISE,
+          RollDirection.COUNTERCLOCKWISE)) {
+        versions.add(journal.version());
+        snapshots.add(journaledTree.deepCopy());
+        journaledTree.roll(RollStrategyFactory.create(direction, engine));
+      }
+    }
+
+    var latest = journal.version();
+
+    for (var i = versions.size() - 1; i >= 0; i--) {
+      journal.rollbackTo(versions.get(i));
+      assertEquals(snapshots.get(i), journaledTree);
+    }
+
+    assertEquals(tree, journaledTree);
+
+    journal.rollForwardTo(latest);
+    journal.rollbackTo(versions.get(4));
+
+    assertEquals(snapshots.get(4), journaledTree);
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testHashedTreeMatchesBinaryTreeAcrossRolls(BinaryTree<T> tree) {
+    var hashedTree = HashedNode.copyOf(tree);
+
+    for (var direction : List.of(RollDirection.CLOCKWISE, RollDirection.CLOCKWISE,
+        RollDirection.COUNTERCLOCKWISE, RollDirection.COUNTERCLOCKWISE)) {
+      RollStrategy<T> strategy = RollStrategyFactory.create(direction, RollEngine.ITERATIVE);
+      tree.roll(strategy);
+      hashedTree.roll(strategy);
+
+      assertEquals(tree.hashCode(), hashedTree.hashCode());
+      assertEquals(tree, hashedTree);
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testParallelEqualityMatchesSequentialEquality(BinaryTree<T> tree) {
+    var copy = tree.deepCopy();
+    var rolled = tree.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE));
+
+    var pool = new ForkJoinPool(2);
+
+    try {
+      assertAll(
+          () -> assertEquals(Optional.empty(), tree.findMismatch(copy, pool, 1)),
+          () -> assertEquals(Optional.empty(), tree.findMismatch(copy)),
+          () -> assertEquals(tree.findMismatch(rolled).isPresent(),
+              tree.findMismatch(rolled, pool, 1).isPresent()),
+          () -> assertEquals(tree.findMismatch(rolled).isEmpty(), tree.equals(rolled))
+      );
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testTreeFormatsRoundTrip(BinaryTree<T> tree) throws IOException {
+    @SuppressWarnings("unchecked")
+    Function<String, T> asText = text -> (T) text;
+    var tokens = new TokenTreeFormat<>("null", asText);
+    var expected = new StringWriter();
+    tokens.write(tree, expected);
+
+    var formats = List.<TreeFormat<T>>of(
+        JsonTreeFormat.nested(asText),
+        JsonTreeFormat.levelOrder(asText),
+        new DotTreeFormat<>(asText),
+        tokens
+    );
+
+    for (var format : formats) {
+      var written = new StringWriter();
+      format.write(tree, written);
+
+      var actual = new StringWriter();
+      tokens.write(format.read(new StringReader(written.toString())), actual);
+
+      assertEquals(expected.toString(), actual.toString(), format.getClass().getSimpleName());
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testHashConsedTreeMatchesBinaryTree(BinaryTree<T> tree) {
+    var hashConsedTree = HashConsedTree.of(tree);
+
+    hashConsedTree.traverse(new PreorderVisitor<>(preorderCollector1));
+    hashConsedTree.traverse(new InorderVisitor<>(inorderCollector1));
+    tree.traverse(new PreorderVisitor<>(preorderCollector2));
+    tree.traverse(new InorderVisitor<>(inorderCollector2));
+
+    assertAll(
+        () -> assertEquals(tree, hashConsedTree.toBinaryTree()),
+        () -> assertEquals(tree.size(), hashConsedTree.size()),
+        () -> assertEquals(hashConsedTree, HashConsedTree.of(tree.deepCopy())),
+        () -> assertEquals(preorderCollector2.getList(), preorderCollector1.getList()),
+        () -> assertEquals(inorderCollector2.getList(), inorderCollector1.getList())
+    );
+
+    for (var direction : RollDirection.values()) {
+      RollStrategy<T> strategy = RollStrategyFactory.createImmutable(direction);
+      var expected = HashConsedTree.of(tree.roll(strategy));
+
+      assertEquals(expected, hashConsedTree.roll(strategy));
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testCompactBinaryTreeMatchesBinaryTree(BinaryTree<T> tree) {
+    var compactTree = CompactBinaryTree.from(tree);
+
+    compactTree.traverse(new PreorderVisitor<>(preorderCollector1));
+    compactTree.traverse(new PostorderVisitor<>(postorderCollector1));
+    tree.traverse(new PreorderVisitor<>(preorderCollector2));
+    tree.traverse(new PostorderVisitor<>(postorderCollector2));
+
+    assertAll(
+        () -> assertEquals(tree, compactTree.toBinaryTree()),
+        () -> assertEquals(tree.size(), compactTree.size()),
+        () -> assertEquals(tree.height(), compactTree.height()),
+        () -> assertEquals(preorderCollector2.getList(), preorderCollector1.getList()),
+        () -> assertEquals(postorderCollector2.getList(), postorderCollector1.getList())
+    );
+
+    for (var direction : RollDirection.values()) {
+      var expected = tree.roll(RollStrategyFactory.createImmutable(direction));
+
+      assertAll(
+          () -> assertEquals(expected, CompactBinaryTree.fromRolled(tree, direction)
+              .toBinaryTree()),
+          () -> assertEquals(expected, compactTree
+              .roll(RollStrategyFactory.createImmutable(direction)).toBinaryTree())
+      );
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testArrayBinaryTreeMatchesBinaryTree(BinaryTree<T> tree) {
+    var arrayTree = ArrayBinaryTree.from(tree);
+
+    arrayTree.traverse(new PreorderVisitor<>(preorderCollector1));
+    arrayTree.traverse(new InorderVisitor<>(inorderCollector1));
+    arrayTree.traverse(new PostorderVisitor<>(postorderCollector1));
+    tree.traverse(new PreorderVisitor<>(preorderCollector2));
+    tree.traverse(new InorderVisitor<>(inorderCollector2));
+    tree.traverse(new PostorderVisitor<>(postorderCollector2));
+
+    assertAll(
+        () -> assertEquals(tree, arrayTree.toBinaryTree()),
+        () -> assertEquals(tree.size(), arrayTree.size()),
+        () -> assertEquals(tree.height(), arrayTree.height()),
+        () -> assertEquals(preorderCollector2.getList(), preorderCollector1.getList()),
+        () -> assertEquals(inorderCollector2.getList(), inorderCollector1.getList()),
+        () -> assertEquals(postorderCollector2.getList(), postorderCollector1.getList())
+    );
+
+    for (var direction : RollDirection.values()) {
+      var expected = tree.roll(RollStrategyFactory.createImmutable(direction));
+      var immutableRolledTree = arrayTree.roll(RollStrategyFactory.createImmutable(direction));
+
+      assertAll(
+          () -> assertNotSame(arrayTree, immutableRolledTree),
+          () -> assertEquals(expected, immutableRolledTree.toBinaryTree()),
+          () -> assertEquals(tree, arrayTree.toBinaryTree())
+      );
+
+      arrayTree.roll(RollStrategyFactory.create(direction));
+      assertEquals(expected, arrayTree.toBinaryTree());
+      arrayTree.roll(RollStrategyFactory.create(direction == RollDirection.CLOCKWISE
+          ? RollDirection.COUNTERCLOCKWISE : RollDirection.CLOCKWISE));
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("sampleTrees")
+  void testStreamingBuilderMatchesArrayBuilder(BinaryTree<T> tree) {
+    var levelOrderValues = new ArrayList<T>();
+    var nodeQueue = new ArrayDeque<Node<T>>(List.of(tree.getRoot()));
+    levelOrderValues.add(tree.getRoot().getValue());
+
+    while (!nodeQueue.isEmpty()) {
+      var node = nodeQueue.poll();
+
+      for (var child : Arrays.asList(node.getLeft(), node.getRight())) {
+        levelOrderValues.add(child != null ? child.getValue() : null);
+
+        if (child != null) {
+          nodeQueue.offer(child);
+        }
+      }
+    }
+
+    assertAll(
+        () -> assertEquals(tree, BinaryTree.of(levelOrderValues.iterator(), null)),
+        () -> assertEquals(tree, BinaryTree.of(levelOrderValues.spliterator(), null))
+    );
+  }
+
   static Stream<Named<BinaryTree<?>>> sampleTrees() {
     var trees = List.of(
         BinaryTree.of(1),
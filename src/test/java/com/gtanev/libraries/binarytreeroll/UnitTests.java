@@ -1,32 +1,110 @@
 package com.gtanev.libraries.binarytreeroll;
 
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.gtanev.libraries.binarytreeroll.io.DotTreeFormat;
+import com.gtanev.libraries.binarytreeroll.io.JsonTreeFormat;
+import com.gtanev.libraries.binarytreeroll.io.TokenTreeFormat;
+import com.gtanev.libraries.binarytreeroll.io.TreeFormat;
+import com.gtanev.libraries.binarytreeroll.metrics.LatencyHistogram;
+import com.gtanev.libraries.binarytreeroll.metrics.RecordingTreeMetrics;
+import com.gtanev.libraries.binarytreeroll.metrics.TreeInstrumentation;
+import com.gtanev.libraries.binarytreeroll.metrics.TreeMetrics;
+import com.gtanev.libraries.binarytreeroll.metrics.TreeOperation;
+import com.gtanev.libraries.binarytreeroll.roll.BatchRollExecutor;
 import com.gtanev.libraries.binarytreeroll.roll.RollDirection;
+import com.gtanev.libraries.binarytreeroll.roll.RollEngine;
+import com.gtanev.libraries.binarytreeroll.roll.RollPlan;
 import com.gtanev.libraries.binarytreeroll.roll.RollStrategy;
 import com.gtanev.libraries.binarytreeroll.roll.RollStrategyFactory;
+import com.gtanev.libraries.binarytreeroll.tree.ArrayBinaryTree;
 import com.gtanev.libraries.binarytreeroll.tree.BinaryTree;
 import com.gtanev.libraries.binarytreeroll.tree.BinaryTree.Node;
 import com.gtanev.libraries.binarytreeroll.tree.BinaryTreePrinter;
+import com.gtanev.libraries.binarytreeroll.tree.CompactBinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.HashConsedTree;
+import com.gtanev.libraries.binarytreeroll.tree.HashedNode;
 import com.gtanev.libraries.binarytreeroll.tree.InorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.IntBinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.InternTable;
+import com.gtanev.libraries.binarytreeroll.tree.IntNodeCollectorVisitorAction;
+import com.gtanev.libraries.binarytreeroll.tree.IterativeInorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.IterativePostorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.IterativePreorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.JournaledNode;
+import com.gtanev.libraries.binarytreeroll.tree.LinkJournal;
+import com.gtanev.libraries.binarytreeroll.tree.LongBinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.LongNodeCollectorVisitorAction;
+import com.gtanev.libraries.binarytreeroll.tree.MappedBinaryTree;
+import com.gtanev.libraries.binarytreeroll.tree.MorrisInorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.MorrisPostorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.MorrisPreorderVisitor;
 import com.gtanev.libraries.binarytreeroll.tree.NodeCollectorVisitorAction;
+import com.gtanev.libraries.binarytreeroll.tree.NodePool;
+import com.gtanev.libraries.binarytreeroll.tree.OffHeapBinaryTree;
 import com.gtanev.libraries.binarytreeroll.tree.PostorderVisitor;
 import com.gtanev.libraries.binarytreeroll.tree.PreorderVisitor;
+import com.gtanev.libraries.binarytreeroll.tree.Rollable;
+import com.gtanev.libraries.binarytreeroll.tree.SelfRollable;
+import com.gtanev.libraries.binarytreeroll.tree.TraversalOrder;
+import com.gtanev.libraries.binarytreeroll.tree.TreeMismatch;
+import com.gtanev.libraries.binarytreeroll.tree.ValueCodec;
+import com.gtanev.libraries.binarytreeroll.tree.Visitor;
 import com.gtanev.libraries.binarytreeroll.tree.VisitorAction;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class UnitTests {
 
@@ -78,6 +156,66 @@ class UnitTests {
     assertEquals(0, tree4.size());
   }
 
+
+  @Test
+  void testOfIteratorAndSpliterator() {
+    var expected = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+    var values = Arrays.asList(1, 2, 3, -1, -1, 4, 5, -1, 6, -1, -1, -1, -1, 7);
+
+    assertEquals(expected, BinaryTree.of(values.subList(0, 9).iterator(), -1));
+    assertEquals(expected, BinaryTree.of(values.stream().limit(9).spliterator(), -1));
+
+    var iterator = values.iterator();
+    BinaryTree.of(iterator, -1);
+    assertEquals(7, iterator.next());
+
+    assertNull(BinaryTree.of(Collections.<Integer>emptyIterator(), null).getRoot());
+    assertNull(BinaryTree.of(List.of(-1, 2, 3).iterator(), -1).getRoot());
+  }
+
+  @Test
+  void testRead() throws IOException {
+    var expected = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+    var input = "1, 2,3\n#\t#  4 5,,#\r\n6\n".getBytes(StandardCharsets.UTF_8);
+
+    assertEquals(expected, BinaryTree.read(new ByteArrayInputStream(input), "#", Integer::valueOf));
+    assertEquals(BinaryTree.of("ä", "€", "𝄞"),
+        BinaryTree.read(new ByteArrayInputStream("ä € 𝄞".getBytes(StandardCharsets.UTF_8)), "#",
+            Function.identity()));
+    assertNull(BinaryTree.read(new ByteArrayInputStream(new byte[0]), "#", Integer::valueOf)
+        .getRoot());
+  }
+
+  @Test
+  void testReadRejectsNonBlockingChannels() throws IOException {
+    var pipe = Pipe.open();
+
+    try (var source = pipe.source(); var sink = pipe.sink()) {
+      source.configureBlocking(false);
+
+      assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(
+          IllegalBlockingModeException.class, () -> BinaryTree.read(source, "#", Integer::valueOf)));
+    }
+
+    ReadableByteChannel emptyReads = new ReadableByteChannel() {
+      @Override
+      public int read(ByteBuffer buffer) {
+        return 0;
+      }
+
+      @Override
+      public boolean isOpen() {
+        return true;
+      }
+
+      @Override
+      public void close() {}
+    };
+
+    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(
+        IOException.class, () -> BinaryTree.read(emptyReads, "#", Integer::valueOf)));
+  }
+
   @Test
   void testSize() {
     BinaryTree<Object> treeOfSize0 = new BinaryTree<>();
@@ -105,6 +243,124 @@ class UnitTests {
     assertEquals(7, treeOfHeight7.height());
   }
 
+  @Test
+  void testDepthHistogram() {
+    assertArrayEquals(new long[]{}, new BinaryTree<>().depthHistogram());
+    assertArrayEquals(new long[]{1, 2, 2, 1},
+        BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6).depthHistogram());
+    assertArrayEquals(new long[]{1, 2, 2, 1},
+        BinaryTree.of(List.of(1, 2, 3, 0, 0, 4, 5, 0, 6).iterator(), 0).depthHistogram());
+    assertArrayEquals(new long[]{1, 2, 2, 1},
+        new BinaryTree<>(BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6).getRoot())
+            .depthHistogram());
+  }
+
+  @Test
+  void testCachedSizeAndHeightFollowChanges() {
+    var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+
+    assertEquals(6, tree.size());
+    assertEquals(4, tree.height());
+    assertTrue(tree.spliterator(TraversalOrder.INORDER).hasCharacteristics(Spliterator.SIZED));
+
+    tree.getRoot().getLeft().setLeft(new Node<>(7));
+    assertFalse(tree.spliterator(TraversalOrder.INORDER).hasCharacteristics(Spliterator.SIZED));
+    assertEquals(7, tree.size());
+    assertEquals(4, tree.height());
+
+    tree.getRoot().getRight().setLeft(null);
+    assertEquals(5, tree.size());
+    assertEquals(3, tree.height());
+
+    tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+    assertEquals(5, tree.size());
+    assertEquals(5, tree.height());
+    assertEquals(5, tree.deepCopy().size());
+    assertArrayEquals(tree.depthHistogram(), tree.deepCopy().depthHistogram());
+
+    tree.setRoot(new Node<>(8));
+    assertEquals(1, tree.size());
+    assertEquals(1, tree.height());
+  }
+
+  @Test
+  void testCachedMetadataIsKeptPerTree() {
+    var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+    var otherTree = BinaryTree.of(1, 2, 3);
+    var copy = tree.deepCopy();
+
+    otherTree.getRoot().setLeft(null);
+    copy.getRoot().setRight(null);
+    assertTrue(tree.spliterator(TraversalOrder.INORDER).hasCharacteristics(Spliterator.SIZED));
+    assertFalse(copy.spliterator(TraversalOrder.INORDER).hasCharacteristics(Spliterator.SIZED));
+    assertEquals(6, tree.size());
+    assertEquals(2, otherTree.size());
+    assertEquals(2, copy.size());
+
+    var sharingTree = new BinaryTree<>(tree.getRoot());
+    assertEquals(6, sharingTree.size());
+    assertFalse(tree.spliterator(TraversalOrder.INORDER).hasCharacteristics(Spliterator.SIZED));
+    sharingTree.getRoot().setLeft(null);
+    assertEquals(5, tree.size());
+  }
+
+  @Test
+  void testRollsRecordHeightOfRolledTree() {
+    var random = new Random(42);
+    var pool = new ForkJoinPool(4);
+    var root = new Node<>(random.nextInt());
+
+    for (int i = 1; i < 10_000; i++) {
+      var value = random.nextInt();
+      var node = root;
+
+      while (true) {
+        var child = value < node.getValue() ? node.getLeft() : node.getRight();
+
+        if (child == null) {
+          if (value < node.getValue()) {
+            node.setLeft(new Node<>(value));
+          } else {
+            node.setRight(new Node<>(value));
+          }
+
+          break;
+        }
+
+        node = child;
+      }
+    }
+
+    try {
+      for (var direction : RollDirection.values()) {
+        var strategies = new ArrayList<RollStrategy<Integer>>();
+        strategies.add(RollStrategyFactory.createParallel(direction, pool, 1));
+        strategies.add(RollStrategyFactory.createImmutableParallel(direction, pool, 1));
+
+        for (var engine : RollEngine.values()) {
+          strategies.add(RollStrategyFactory.createImmutable(direction, engine));
+
+          if (engine != RollEngine.FUSED) {
+            strategies.add(RollStrategyFactory.create(direction, engine));
+          }
+        }
+
+        for (var strategy : strategies) {
+          var tree = new BinaryTree<>(root).deepCopy();
+          assertEquals(10_000, tree.size());
+
+          var rolledTree = tree.roll(strategy);
+          var height = rolledTree.height();
+          var spliterator = rolledTree.spliterator(TraversalOrder.PREORDER);
+          assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+          assertEquals(new BinaryTree<>(rolledTree.getRoot()).depthHistogram().length, height);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   @Test
   void testDeepCopy() {
     BinaryTree<Integer> tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
@@ -132,6 +388,117 @@ class UnitTests {
     assertNull(copy.getRoot().getRight().getLeft().getLeft());
   }
 
+  @Test
+  void testDeepCopyOnDegenerateTree() {
+    var depth = 1_000_000;
+    var root = new Node<>(0);
+    var node = root;
+
+    for (int i = 1; i < depth; i++) {
+      node.setRight(new Node<>(i));
+      node = node.getRight();
+    }
+
+    var copy = new BinaryTree<>(root).deepCopy();
+
+    node = copy.getRoot();
+    for (int i = 0; i < depth; i++) {
+      assertEquals(i, node.getValue());
+      assertNull(node.getLeft());
+      node = node.getRight();
+    }
+    assertNull(node);
+  }
+
+  @Test
+  void testParallelDeepCopy() {
+    var tree = BinaryTree.of(IntStream.range(0, 100_000).boxed().toArray(Integer[]::new));
+    var pool = new ForkJoinPool(4);
+
+    try {
+      var copy = tree.deepCopy(pool, 64);
+
+      assertEquals(tree, copy);
+      assertNotSame(tree.getRoot(), copy.getRoot());
+      assertNull(new BinaryTree<Integer>().deepCopy(pool, 64).getRoot());
+      assertThrows(IllegalArgumentException.class, () -> tree.deepCopy(pool, 0));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void testParallelDeepCopyOnDegenerateTree() {
+    var depth = 100_000;
+    var root = new Node<>(0);
+    var node = root;
+
+    for (int i = 1; i < depth; i++) {
+      node.setRight(new Node<>(i));
+      node = node.getRight();
+    }
+
+    var tree = new BinaryTree<>(root);
+    var pool = new ForkJoinPool(4);
+
+    try {
+      for (var threshold : List.of(1 << 14, 1)) {
+        var copy = tree.deepCopy(pool, threshold);
+
+        node = copy.getRoot();
+        for (int i = 0; i < depth; i++) {
+          assertEquals(i, node.getValue());
+          assertNull(node.getLeft());
+          node = node.getRight();
+        }
+        assertNull(node);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void testDeepCopyWithNodePool() {
+    var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+    var nodePool = new NodePool<Integer>();
+    var released = tree.deepCopy();
+    var releasedRoot = released.getRoot();
+
+    nodePool.release(released);
+
+    assertNull(released.getRoot());
+    assertEquals(6, nodePool.size());
+    assertNull(releasedRoot.getValue());
+    assertNull(releasedRoot.getLeft());
+
+    var copy = tree.deepCopy(nodePool);
+
+    assertEquals(tree, copy);
+    assertEquals(0, nodePool.size());
+
+    var largerCopy = BinaryTree.of(1, 2, 3, 4, 5, 6, 7).deepCopy(nodePool);
+
+    assertEquals(BinaryTree.of(1, 2, 3, 4, 5, 6, 7), largerCopy);
+    assertEquals(0, nodePool.size());
+  }
+
+  @Test
+  void testNodePoolRejectsHashedNodes() {
+    var nodePool = new NodePool<Integer>();
+    var hashedTree = HashedNode.copyOf(BinaryTree.of(1, 2, 3));
+
+    assertThrows(IllegalArgumentException.class, () -> nodePool.release(hashedTree));
+    assertEquals(0, nodePool.size());
+    assertEquals(BinaryTree.of(1, 2, 3), hashedTree);
+
+    var tree = BinaryTree.of(1, 2, 3, 4, 5, 6, 7);
+    var copy = tree.deepCopy(nodePool);
+
+    assertEquals(tree, copy);
+    assertSame(Node.class, copy.getRoot().getClass());
+  }
+
   @Test
   void testTraverse() {
     var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
@@ -212,6 +579,199 @@ class UnitTests {
     assertEquals(Collections.emptyList(), postorderCollector.getList());
   }
 
+  @Test
+  void testStreamAndIterator() {
+    var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+
+    assertEquals(List.of(1, 2, 3, 4, 6, 5), tree.stream(TraversalOrder.PREORDER).toList());
+    assertEquals(List.of(2, 1, 4, 6, 3, 5), tree.stream(TraversalOrder.INORDER).toList());
+    assertEquals(List.of(2, 6, 4, 5, 3, 1), tree.stream(TraversalOrder.POSTORDER).toList());
+    assertEquals(List.of(1, 2, 3, 4, 5, 6), tree.stream(TraversalOrder.LEVEL_ORDER).toList());
+
+    var iterator = tree.iterator(TraversalOrder.INORDER);
+    var values = new ArrayList<Integer>();
+    iterator.forEachRemaining(values::add);
+
+    assertEquals(List.of(2, 1, 4, 6, 3, 5), values);
+    assertFalse(iterator.hasNext());
+    assertEquals(0, new BinaryTree<Integer>().stream(TraversalOrder.PREORDER).count());
+    assertFalse(new BinaryTree<Integer>().iterator(TraversalOrder.LEVEL_ORDER).hasNext());
+  }
+
+  @Test
+  void testSpliteratorSplitsIntoPrefixes() {
+    var tree = BinaryTree.of(IntStream.range(0, 1000).boxed().toArray(Integer[]::new));
+
+    for (var order : TraversalOrder.values()) {
+      var expected = tree.stream(order).toList();
+      var spliterator = tree.spliterator(order);
+      var prefix = spliterator.trySplit();
+      var values = new ArrayList<Integer>();
+
+      assertNotNull(prefix);
+      prefix.forEachRemaining(values::add);
+      spliterator.forEachRemaining(values::add);
+
+      assertEquals(expected, values);
+      assertEquals(expected, tree.stream(order).parallel().toList());
+      assertEquals(499_500, tree.stream(order).parallel().mapToInt(Integer::intValue).sum());
+    }
+  }
+
+  @Test
+  void testSpliteratorCountsDownKnownSize() {
+    var tree = BinaryTree.of(1, 2, 3, 4, 5, 6, 7);
+
+    for (var order : TraversalOrder.values()) {
+      var spliterator = tree.spliterator(order);
+
+      assertEquals(7, spliterator.getExactSizeIfKnown());
+      assertTrue(spliterator.tryAdvance(value -> {}));
+      assertTrue(spliterator.tryAdvance(value -> {}));
+      assertEquals(5, spliterator.getExactSizeIfKnown());
+
+      spliterator.forEachRemaining(value -> {});
+      assertEquals(0, spliterator.estimateSize());
+    }
+
+    var spliterator = tree.spliterator(TraversalOrder.LEVEL_ORDER);
+    var prefix = spliterator.trySplit();
+
+    assertNotNull(prefix);
+    assertEquals(7, prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+  }
+
+  @Test
+  void testSpliteratorSplitsDegenerateTrees() {
+    for (var leftChain : List.of(true, false)) {
+      var root = new Node<>(0);
+      var node = root;
+
+      for (int i = 1; i < 1000; i++) {
+        var child = new Node<>(i);
+
+        if (leftChain) {
+          node.setLeft(child);
+        } else {
+          node.setRight(child);
+        }
+
+        node = child;
+      }
+
+      var tree = new BinaryTree<>(root);
+
+      for (var order : List.of(TraversalOrder.PREORDER, TraversalOrder.INORDER,
+          TraversalOrder.POSTORDER)) {
+        var expected = tree.stream(order).toList();
+        var spliterator = tree.spliterator(order);
+        var values = new ArrayList<Integer>();
+        Spliterator<Integer> prefix;
+
+        while ((prefix = spliterator.trySplit()) != null) {
+          prefix.forEachRemaining(values::add);
+        }
+
+        spliterator.forEachRemaining(values::add);
+
+        assertEquals(expected, values);
+        assertEquals(expected, tree.stream(order).parallel().toList());
+      }
+    }
+  }
+
+  @Test
+  void testIterativeAndMorrisVisitors() {
+    var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+    var original = tree.deepCopy();
+    var orders = List.of(List.of(1, 2, 3, 4, 6, 5), List.of(2, 1, 4, 6, 3, 5),
+        List.of(2, 6, 4, 5, 3, 1));
+    var collectors = new ArrayList<NodeCollectorVisitorAction<Integer>>();
+
+    for (int i = 0; i < 6; i++) {
+      collectors.add(new NodeCollectorVisitorAction<>());
+    }
+
+    tree.traverse(new IterativePreorderVisitor<>(collectors.get(0)));
+    tree.traverse(new IterativeInorderVisitor<>(collectors.get(1)));
+    tree.traverse(new IterativePostorderVisitor<>(collectors.get(2)));
+    tree.traverse(new MorrisPreorderVisitor<>(collectors.get(3)));
+    tree.traverse(new MorrisInorderVisitor<>(collectors.get(4)));
+    tree.traverse(new MorrisPostorderVisitor<>(collectors.get(5)));
+
+    for (int i = 0; i < 6; i++) {
+      assertEquals(orders.get(i % 3), collectors.get(i).getList());
+    }
+    assertEquals(original, tree);
+  }
+
+  @Test
+  void testMorrisVisitorRestoresTreeWhenActionThrows() {
+    var tree = BinaryTree.of(IntStream.range(0, 100).boxed().toArray(Integer[]::new));
+    var original = tree.deepCopy();
+    VisitorAction<Integer> action = node -> {
+      if (node.getValue() == 42) {
+        throw new IllegalArgumentException();
+      }
+    };
+
+    assertThrows(IllegalArgumentException.class,
+        () -> tree.traverse(new MorrisPreorderVisitor<>(action)));
+    assertThrows(IllegalArgumentException.class,
+        () -> tree.traverse(new MorrisInorderVisitor<>(action)));
+    assertThrows(IllegalArgumentException.class,
+        () -> tree.traverse(new MorrisPostorderVisitor<>(action)));
+    assertEquals(original, tree);
+  }
+
+  @Test
+  void testIterativeAndMorrisVisitorsOnDegenerateTree() {
+    var depth = 1_000_000;
+    var root = new Node<>(0);
+    var node = root;
+
+    for (int i = 1; i < depth; i++) {
+      node.setLeft(new Node<>(i));
+      node = node.getLeft();
+    }
+
+    var tree = new BinaryTree<>(root);
+    List<Visitor<Integer>> visitors = List.of(
+        new IterativePreorderVisitor<>(n -> {}),
+        new IterativeInorderVisitor<>(n -> {}),
+        new IterativePostorderVisitor<>(n -> {}),
+        new MorrisPreorderVisitor<>(n -> {}),
+        new MorrisInorderVisitor<>(n -> {}),
+        new MorrisPostorderVisitor<>(n -> {}));
+
+    for (var visitor : visitors) {
+      var counter = new long[1];
+      tree.traverse(visitor);
+      tree.traverse(new IterativeInorderVisitor<>(n -> counter[0]++));
+      assertEquals(depth, counter[0]);
+    }
+
+    assertEquals(depth - 1, tree.stream(TraversalOrder.POSTORDER).findFirst().orElseThrow());
+  }
+
+  @Test
+  void testRolledView() {
+    var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+
+    var clockwiseCollector = new NodeCollectorVisitorAction<Integer>();
+    var counterclockwiseCollector = new NodeCollectorVisitorAction<Integer>();
+
+    tree.rolledView(RollDirection.CLOCKWISE)
+        .traverse(new PostorderVisitor<>(clockwiseCollector));
+    tree.rolledView(RollDirection.COUNTERCLOCKWISE)
+        .traverse(new PreorderVisitor<>(counterclockwiseCollector));
+
+    assertEquals(List.of(6, 5, 3, 4, 1, 2), clockwiseCollector.getList());
+    assertEquals(List.of(5, 3, 1, 2, 6, 4), counterclockwiseCollector.getList());
+    assertThrows(IllegalStateException.class, () -> new BinaryTree<Integer>()
+        .rolledView(RollDirection.CLOCKWISE).traverse(new PreorderVisitor<>(node -> {})));
+  }
+
   @Test
   void testEqualsAndHashCode() {
     var tree1 = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
@@ -296,104 +856,2008 @@ class UnitTests {
   }
 
   @Nested
-  class PrinterTest {
+  class ArrayBinaryTreeTest {
 
-    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-    private final BinaryTreePrinter<Integer> printer =
-        new BinaryTreePrinter<>(new PrintStream(outputStream));
+    @Test
+    void testFromAndToBinaryTree() {
+      var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+      var arrayTree = ArrayBinaryTree.from(tree);
 
-    @AfterEach
-    void tearDown() {
-      outputStream.reset();
+      assertEquals(6, arrayTree.size());
+      assertEquals(4, arrayTree.height());
+      assertEquals(tree, arrayTree.toBinaryTree());
     }
 
     @Test
-    void testPrint() {
-      printer.print("test");
-      assertEquals("test", outputStream.toString());
+    void testOnEmptyTree() {
+      var arrayTree = ArrayBinaryTree.from(new BinaryTree<Integer>());
+
+      assertEquals(0, arrayTree.size());
+      assertEquals(0, arrayTree.height());
+      assertNull(arrayTree.toBinaryTree().getRoot());
+      assertNull(arrayTree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE))
+          .toBinaryTree().getRoot());
+      assertThrows(IllegalStateException.class,
+          () -> arrayTree.traverse(new PreorderVisitor<>(node -> {})));
     }
 
     @Test
-    void testPrintln() {
-      printer.println("test");
-      assertEquals("test".concat(System.lineSeparator()), outputStream.toString());
+    void testTraverse() {
+      var arrayTree = ArrayBinaryTree.from(BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6));
+      var inorderCollector = new NodeCollectorVisitorAction<Integer>();
+
+      arrayTree.traverse(new InorderVisitor<>(inorderCollector));
+
+      assertEquals(List.of(2, 1, 4, 6, 3, 5), inorderCollector.getList());
     }
 
     @Test
-    void testCloseStream() {
-      printer.closeStream();
-      printer.print("test");
-      assertTrue(outputStream.toString().isEmpty());
+    void testTraverseWithCustomVisitor() {
+      var arrayTree = ArrayBinaryTree.from(BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6));
+      var values = new ArrayList<Integer>();
+
+      arrayTree.traverse(new Visitor<>() {
+        @Override
+        public void visit(Node<Integer> root) {
+          if (root != null) {
+            visit(root.getRight());
+            values.add(root.getValue());
+            visit(root.getLeft());
+          }
+        }
+      });
+
+      assertEquals(List.of(5, 3, 6, 4, 1, 2), values);
+      assertThrows(UnsupportedOperationException.class,
+          () -> arrayTree.traverse(root -> root.setLeft(null)));
     }
 
     @Test
-    void testPrintTree() {
+    void testRoll() {
       var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+      var arrayTree = ArrayBinaryTree.from(tree);
 
-      printer.printTree(tree);
+      var rolledTree = arrayTree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+      tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
 
-      assertTrue(outputStream.toString().contains("1"));
-      assertTrue(outputStream.toString().contains("2"));
-      assertTrue(outputStream.toString().contains("3"));
-      assertTrue(outputStream.toString().contains("4"));
-      assertTrue(outputStream.toString().contains("5"));
-      assertTrue(outputStream.toString().contains("6"));
+      assertSame(arrayTree, rolledTree);
+      assertEquals(tree, rolledTree.toBinaryTree());
     }
 
     @Test
-    void testPrintPreorder() {
+    void testRollThroughRollableInterfaces() {
+      var strategy = RollStrategyFactory.<Integer>createImmutable(RollDirection.CLOCKWISE);
+      Rollable<Integer> tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+      SelfRollable<Integer, ArrayBinaryTree<Integer>> arrayTree =
+          ArrayBinaryTree.from(BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6));
+      SelfRollable<Integer, BinaryTree<Integer>> linkedTree = tree;
+
+      BinaryTree<Integer> rolledTree = tree.roll(strategy);
+      ArrayBinaryTree<Integer> rolledArrayTree = arrayTree.roll(strategy);
+
+      assertEquals(rolledTree, rolledArrayTree.toBinaryTree());
+      assertEquals(rolledTree, linkedTree.roll(strategy));
+    }
+  }
+
+  @Nested
+  class CompactBinaryTreeTest {
+
+    @Test
+    void testFromAndToBinaryTree() {
       var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+      var compactTree = CompactBinaryTree.from(tree);
 
-      printer.printPreorder(tree);
-      var digits = outputStream.toString().replaceAll("[^0-9]", "");
+      assertEquals(6, compactTree.size());
+      assertEquals(4, compactTree.height());
+      assertEquals(tree, compactTree.toBinaryTree());
+    }
 
-      assertEquals("123465", digits);
+    @Test
+    void testOnEmptyTree() {
+      var compactTree = CompactBinaryTree.from(new BinaryTree<Integer>());
+
+      assertEquals(0, compactTree.size());
+      assertEquals(0, compactTree.height());
+      assertNull(compactTree.toBinaryTree().getRoot());
+      assertNull(compactTree.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE))
+          .toBinaryTree().getRoot());
+      assertNull(CompactBinaryTree.fromRolled(new BinaryTree<Integer>(), RollDirection.CLOCKWISE)
+          .toBinaryTree().getRoot());
+      assertThrows(IllegalStateException.class,
+          () -> compactTree.traverse(new PreorderVisitor<>(node -> {})));
     }
 
+    @Test
+    void testFromRolled() {
+      var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+
+      for (var direction : RollDirection.values()) {
+        var expected = tree.roll(RollStrategyFactory.createImmutable(direction));
+
+        assertEquals(expected, CompactBinaryTree.fromRolled(tree, direction).toBinaryTree());
+      }
+
+      assertEquals(BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6), tree);
+    }
 
     @Test
-    void testPrintInorder() {
+    void testRoll() {
       var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+      var compactTree = CompactBinaryTree.from(tree);
+      var rolledTree =
+          compactTree.roll(RollStrategyFactory.createImmutable(RollDirection.COUNTERCLOCKWISE));
+
+      assertNotSame(compactTree, rolledTree);
+      assertEquals(tree.roll(RollStrategyFactory.createImmutable(RollDirection.COUNTERCLOCKWISE)),
+          rolledTree.toBinaryTree());
+      assertEquals(tree, compactTree.toBinaryTree());
+      assertThrows(UnsupportedOperationException.class,
+          () -> compactTree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE)));
+    }
 
-      printer.printInorder(tree);
-      var digits = outputStream.toString().replaceAll("[^0-9]", "");
+    @Test
+    void testTraverseIsReadOnly() {
+      var compactTree = CompactBinaryTree.from(BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6));
+      var inorderCollector = new NodeCollectorVisitorAction<Integer>();
 
-      assertEquals("214635", digits);
+      compactTree.traverse(new InorderVisitor<>(inorderCollector));
+
+      assertEquals(List.of(2, 1, 4, 6, 3, 5), inorderCollector.getList());
+      assertThrows(UnsupportedOperationException.class,
+          () -> compactTree.traverse(root -> root.setLeft(null)));
     }
 
     @Test
-    void testPrintPostorder() {
+    void testFromRolledOnDegenerateTree() {
+      var depth = 1_000_000;
+      var root = new Node<>(0);
+      var node = root;
+
+      for (int i = 1; i < depth; i++) {
+        node.setLeft(new Node<>(i));
+        node = node.getLeft();
+      }
+
+      var tree = new BinaryTree<>(root);
+      var rolledTree = CompactBinaryTree.fromRolled(tree, RollDirection.CLOCKWISE);
+      var values = new ArrayList<Integer>();
+      rolledTree.traverse(new PreorderVisitor<>(visited -> values.add(visited.getValue())));
+
+      assertEquals(depth, rolledTree.size());
+      assertEquals(depth, rolledTree.height());
+      assertEquals(depth - 1, values.get(0));
+      assertEquals(0, values.get(depth - 1));
+      assertEquals(depth,
+          CompactBinaryTree.fromRolled(tree, RollDirection.COUNTERCLOCKWISE).height());
+    }
+  }
+
+  @Nested
+  class PrimitiveBinaryTreeTest {
+
+    @Test
+    void testIntBinaryTreeOf() {
       var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+      var intTree1 = IntBinaryTree.of(new int[]{1, 2, 3, -1, -1, 4, 5, -1, 6}, -1);
+      var intTree2 = IntBinaryTree.of(new int[]{1, 2, 3, 0, 0, 4, 5, 0, 6}, BitSet.valueOf(
+          new long[]{0b10011000}));
+
+      assertEquals(6, intTree1.size());
+      assertEquals(4, intTree1.height());
+      assertEquals(tree, intTree1.toBinaryTree());
+      assertEquals(tree, intTree2.toBinaryTree());
+      assertEquals(tree, IntBinaryTree.from(tree).toBinaryTree());
+    }
 
-      printer.printPostorder(tree);
-      var digits = outputStream.toString().replaceAll("[^0-9]", "");
+    @Test
+    void testIntBinaryTreeOfOnEmptyTree() {
+      var intTree1 = IntBinaryTree.of(new int[]{}, 0);
+      var intTree2 = IntBinaryTree.of(new int[]{0, 1, 2}, 0);
+
+      assertEquals(0, intTree1.size());
+      assertEquals(0, intTree2.size());
+      assertNull(intTree2.toBinaryTree().getRoot());
+      assertThrows(IllegalStateException.class,
+          () -> intTree2.traverse(TraversalOrder.PREORDER, value -> {}));
+    }
 
-      assertEquals("264531", digits);
+    @Test
+    void testIntBinaryTreeTraverse() {
+      var intTree = IntBinaryTree.of(new int[]{1, 2, 3, -1, -1, 4, 5, -1, 6}, -1);
+
+      var preorderCollector = new IntNodeCollectorVisitorAction();
+      var inorderCollector = new IntNodeCollectorVisitorAction(1);
+      var postorderCollector = new IntNodeCollectorVisitorAction();
+      var levelOrderCollector = new IntNodeCollectorVisitorAction();
+      var boxedCollector = new NodeCollectorVisitorAction<Integer>();
+
+      intTree.traverse(TraversalOrder.PREORDER, preorderCollector);
+      intTree.traverse(TraversalOrder.INORDER, inorderCollector);
+      intTree.traverse(TraversalOrder.POSTORDER, postorderCollector);
+      intTree.traverse(TraversalOrder.LEVEL_ORDER, levelOrderCollector);
+      intTree.traverse(new PreorderVisitor<>(boxedCollector));
+
+      assertArrayEquals(new int[]{1, 2, 3, 4, 6, 5}, preorderCollector.getArray());
+      assertArrayEquals(new int[]{2, 1, 4, 6, 3, 5}, inorderCollector.getArray());
+      assertArrayEquals(new int[]{2, 6, 4, 5, 3, 1}, postorderCollector.getArray());
+      assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, levelOrderCollector.getArray());
+      assertEquals(6, inorderCollector.size());
+      assertEquals(List.of(1, 2, 3, 4, 6, 5), boxedCollector.getList());
+    }
+
+    @Test
+    void testIntBinaryTreeRoll() {
+      var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+      var intTree = IntBinaryTree.from(tree);
+
+      for (var direction : RollDirection.values()) {
+        var expected = tree.roll(RollStrategyFactory.createImmutable(direction));
+        var immutableRolledTree = intTree.roll(RollStrategyFactory.createImmutable(direction));
+
+        assertNotSame(intTree, immutableRolledTree);
+        assertEquals(expected, immutableRolledTree.toBinaryTree());
+        assertEquals(tree, intTree.toBinaryTree());
+      }
+
+      var rolledTree = intTree.roll(RollStrategyFactory.create(RollDirection.COUNTERCLOCKWISE));
+      tree.roll(RollStrategyFactory.create(RollDirection.COUNTERCLOCKWISE));
+
+      assertSame(intTree, rolledTree);
+      assertEquals(tree, rolledTree.toBinaryTree());
+    }
+
+    @Test
+    void testLongBinaryTree() {
+      var tree = BinaryTree.of(1L, 2L, 3L, null, null, 4L, 5L, null, 6L);
+      var longTree = LongBinaryTree.of(new long[]{1, 2, 3, 0, 0, 4, 5, 0, 6}, 0);
+      var inorderCollector = new LongNodeCollectorVisitorAction();
+
+      longTree.traverse(TraversalOrder.INORDER, inorderCollector);
+
+      assertEquals(tree, longTree.toBinaryTree());
+      assertEquals(tree, LongBinaryTree.from(tree).toBinaryTree());
+      assertArrayEquals(new long[]{2, 1, 4, 6, 3, 5}, inorderCollector.getArray());
+
+      longTree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+      tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+
+      assertEquals(tree, longTree.toBinaryTree());
     }
   }
 
   @Nested
-  class RollTest {
+  class OffHeapBinaryTreeTest {
 
     @Test
-    void testRollStrategyClockwise() {
-      var clockwiseStrategy = RollStrategyFactory.create(RollDirection.CLOCKWISE);
+    void testFromAndToBinaryTree() {
+      var tree = BinaryTree.of(1.5, 2.5, 3.5, null, null, 4.5, 5.5, null, 6.5);
+
+      try (var offHeapTree = OffHeapBinaryTree.from(tree, ValueCodec.ofDouble())) {
+        assertEquals(6, offHeapTree.size());
+        assertEquals(4, offHeapTree.height());
+        assertEquals(tree, offHeapTree.toBinaryTree());
+      }
+    }
 
-      assertNotNull(clockwiseStrategy);
-      assertTrue(RollStrategy.class.isAssignableFrom(clockwiseStrategy.getClass()));
+    @Test
+    void testTraverse() {
+      var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+
+      try (var offHeapTree = OffHeapBinaryTree.from(tree, ValueCodec.ofInteger())) {
+        var postorderCollector = new NodeCollectorVisitorAction<Integer>();
+        offHeapTree.traverse(new PostorderVisitor<>(postorderCollector));
+        assertEquals(List.of(2, 6, 4, 5, 3, 1), postorderCollector.getList());
+      }
     }
 
     @Test
-    void testRollStrategyCounterclockwise() {
-      var counterclockwiseStrategy = RollStrategyFactory.create(RollDirection.COUNTERCLOCKWISE);
+    void testRoll() {
+      var tree = BinaryTree.of(1L, 2L, 3L, null, null, 4L, 5L, null, 6L);
+
+      try (var offHeapTree = OffHeapBinaryTree.from(tree, ValueCodec.ofLong())) {
+        for (var direction : RollDirection.values()) {
+          var expected = tree.roll(RollStrategyFactory.createImmutable(direction));
+
+          try (var rolledTree = offHeapTree.roll(RollStrategyFactory.createImmutable(direction))) {
+            assertNotSame(offHeapTree, rolledTree);
+            assertEquals(expected, rolledTree.toBinaryTree());
+            assertEquals(tree, offHeapTree.toBinaryTree());
+          }
+        }
+
+        var rolledTree = offHeapTree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+        tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+
+        assertSame(offHeapTree, rolledTree);
+        assertEquals(tree, rolledTree.toBinaryTree());
+      }
+    }
 
-      assertNotNull(counterclockwiseStrategy);
-      assertTrue(RollStrategy.class.isAssignableFrom(counterclockwiseStrategy.getClass()));
+    @Test
+    void testClose() {
+      var offHeapTree = OffHeapBinaryTree.from(BinaryTree.of(1, 2, 3), ValueCodec.ofInteger());
+
+      assertTrue(offHeapTree.isOpen());
+      offHeapTree.close();
+      offHeapTree.close();
+
+      assertFalse(offHeapTree.isOpen());
+      assertThrows(IllegalStateException.class, offHeapTree::size);
+      assertThrows(IllegalStateException.class, offHeapTree::toBinaryTree);
+      assertThrows(IllegalStateException.class,
+          () -> offHeapTree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE)));
     }
 
     @Test
-    void testRollStrategyFactoryNPE() {
-      assertThrows(NullPointerException.class, () -> RollStrategyFactory.create(null));
+    void testNodesOutliveClose() {
+      var offHeapTree = OffHeapBinaryTree.from(BinaryTree.of(1, 2, 3), ValueCodec.ofInteger());
+      var root = new AtomicReference<Node<Integer>>();
+      offHeapTree.traverse(root::set);
+      offHeapTree.close();
+
+      assertEquals(1, root.get().getValue());
+      assertEquals(2, root.get().getLeft().getValue());
+      assertEquals(3, root.get().getRight().getValue());
+      assertThrows(IllegalStateException.class, offHeapTree::height);
+      assertThrows(IllegalStateException.class,
+          () -> offHeapTree.traverse(new PreorderVisitor<>(node -> {})));
+    }
+
+    @Test
+    void testCloseWhileTraversing() {
+      var offHeapTree = OffHeapBinaryTree.from(BinaryTree.of(1, 2, 3), ValueCodec.ofInteger());
+      var values = new ArrayList<Integer>();
+
+      offHeapTree.traverse(new PreorderVisitor<>(node -> {
+        offHeapTree.close();
+        values.add(node.getValue());
+      }));
+
+      assertEquals(List.of(1, 2, 3), values);
+      assertFalse(offHeapTree.isOpen());
+    }
+  }
+
+  @Nested
+  class HashedNodeTest {
+
+    @Test
+    void testHashMatchesPlainNodes() {
+      var tree = BinaryTree.of(new Integer[] {1, 2, 3, null, 4, 5, null, 6});
+      var hashedTree = HashedNode.copyOf(tree);
+
+      assertTrue(hashedTree.getRoot() instanceof HashedNode<Integer>);
+      assertEquals(tree.hashCode(), hashedTree.hashCode());
+      assertEquals(tree, hashedTree);
+      assertEquals(hashedTree, tree);
+      assertTrue(hashedTree.deepCopy().getRoot() instanceof HashedNode<Integer>);
+      assertEquals(0, HashedNode.copyOf(new BinaryTree<Integer>()).hashCode());
+    }
+
+    @Test
+    void testMutationInvalidatesCachedHashes() {
+      var tree = BinaryTree.of(new Integer[] {1, 2, 3, null, 4, 5, null, 6});
+      var hashedTree = HashedNode.copyOf(tree);
+      var hash = hashedTree.hashCode();
+
+      hashedTree.getRoot().getLeft().getRight().setValue(7);
+      tree.getRoot().getLeft().getRight().setValue(7);
+      assertNotEquals(hash, hashedTree.hashCode());
+      assertEquals(tree.hashCode(), hashedTree.hashCode());
+
+      hashedTree.getRoot().getRight().getLeft().setLeft(new HashedNode<>(8));
+      tree.getRoot().getRight().getLeft().setLeft(new Node<>(8));
+      assertEquals(tree.hashCode(), hashedTree.hashCode());
+
+      var detached = hashedTree.getRoot().getLeft();
+      hashedTree.getRoot().setLeft(null);
+      detached.setValue(9);
+      tree.getRoot().setLeft(null);
+      assertEquals(tree.hashCode(), hashedTree.hashCode());
+    }
+
+    @Test
+    void testRollsMaintainHashes() {
+      var tree = BinaryTree.of(new Integer[] {1, 2, 3, 4, 5, null, 6, null, null, 7, 8});
+      var hashedTree = HashedNode.copyOf(tree);
+      hashedTree.hashCode();
+
+      for (var engine : List.of(RollEngine.RECURSIVE, RollEngine.ITERATIVE)) {
+        for (var direction : RollDirection.values()) {
+          RollStrategy<Integer> strategy = RollStrategyFactory.create(direction, engine);
+          tree.roll(strategy);
+          hashedTree.roll(strategy);
+          assertEquals(tree.hashCode(), hashedTree.hashCode());
+          assertEquals(tree, hashedTree);
+        }
+      }
+
+      var rolled = hashedTree.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE));
+      assertTrue(rolled.getRoot() instanceof HashedNode<Integer>);
+      assertEquals(tree.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE)),
+          rolled);
+    }
+
+    @Test
+    void testImmutableRollsKeepHashedNodes() {
+      var tree = BinaryTree.of(new Integer[] {1, 2, 3, 4, 5, null, 6, null, null, 7, 8});
+      var hashedTree = HashedNode.copyOf(tree);
+
+      for (var engine : List.of(RollEngine.RECURSIVE, RollEngine.ITERATIVE, RollEngine.FUSED)) {
+        for (var direction : RollDirection.values()) {
+          var rolled = hashedTree.roll(RollStrategyFactory.createImmutable(direction, engine));
+          var plainRolled = tree.roll(RollStrategyFactory.createImmutable(direction, engine));
+
+          var nodes = new ArrayList<Node<Integer>>();
+          rolled.traverse(new PreorderVisitor<>(nodes::add));
+          assertTrue(nodes.stream().allMatch(node -> node instanceof HashedNode<Integer>));
+          assertEquals(plainRolled, rolled);
+
+          var plainNodes = new ArrayList<Node<Integer>>();
+          plainRolled.traverse(new PreorderVisitor<>(plainNodes::add));
+          rolled.hashCode();
+          nodes.get(nodes.size() - 1).setValue(-1);
+          plainNodes.get(plainNodes.size() - 1).setValue(-1);
+          assertEquals(plainRolled.hashCode(), rolled.hashCode());
+        }
+      }
+    }
+
+    @Test
+    void testParallelRollRejectsHashedNodes() {
+      var hashedTree = HashedNode.copyOf(BinaryTree.of(1, 2, 3, 4, 5, 6, 7));
+
+      for (var direction : RollDirection.values()) {
+        assertThrows(IllegalArgumentException.class, () -> hashedTree.roll(
+            RollStrategyFactory.create(direction, RollEngine.PARALLEL)));
+        assertThrows(IllegalArgumentException.class, () -> hashedTree.roll(
+            RollStrategyFactory.createImmutable(direction, RollEngine.PARALLEL)));
+      }
+
+      assertEquals(BinaryTree.of(1, 2, 3, 4, 5, 6, 7), hashedTree);
+    }
+
+    @Test
+    void testRecursiveRollKeepsParentLinks() {
+      var hashedTree = HashedNode.copyOf(BinaryTree.of(0, null, 1));
+      hashedTree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE, RollEngine.RECURSIVE));
+      hashedTree.getRoot().hashCode();
+
+      hashedTree.getRoot().getLeft().setValue(5);
+      assertEquals(HashedNode.copyOf(BinaryTree.of(0, 5)), hashedTree);
+
+      for (var direction : RollDirection.values()) {
+        var tree = BinaryTree.of(1, 2, 3, 4, 5, null, 6, null, null, 7, 8);
+        var rolledTree = HashedNode.copyOf(tree)
+            .roll(RollStrategyFactory.create(direction, RollEngine.RECURSIVE));
+        tree.roll(RollStrategyFactory.create(direction, RollEngine.RECURSIVE));
+        rolledTree.hashCode();
+
+        var nodes = new ArrayList<Node<Integer>>();
+        rolledTree.traverse(new PreorderVisitor<>(nodes::add));
+        var plainNodes = new ArrayList<Node<Integer>>();
+        tree.traverse(new PreorderVisitor<>(plainNodes::add));
+
+        for (var i = 0; i < nodes.size(); i++) {
+          nodes.get(i).setValue(-i);
+          plainNodes.get(i).setValue(-i);
+          assertEquals(tree.hashCode(), rolledTree.hashCode());
+        }
+      }
+    }
+
+    @Test
+    void testMorrisTraversalsKeepParentLinks() {
+      var tree = BinaryTree.of(1, 2, 3, 4, 5, null, 6, null, null, 7, 8);
+      var hashedTree = HashedNode.copyOf(tree);
+      hashedTree.hashCode();
+
+      hashedTree.traverse(new MorrisPreorderVisitor<>(node -> {}));
+      hashedTree.traverse(new MorrisInorderVisitor<>(node -> {}));
+      hashedTree.traverse(new MorrisPostorderVisitor<>(node -> {}));
+      assertEquals(tree.hashCode(), hashedTree.hashCode());
+
+      hashedTree.getRoot().getLeft().getRight().getLeft().setValue(9);
+      tree.getRoot().getLeft().getRight().getLeft().setValue(9);
+      assertEquals(tree.hashCode(), hashedTree.hashCode());
+      assertEquals(HashedNode.copyOf(tree), hashedTree);
+    }
+
+    @Test
+    void testEqualsRejectsDifferentHashes() {
+      var left = HashedNode.copyOf(BinaryTree.of(new Integer[] {1, 2, 3}));
+      var right = HashedNode.copyOf(BinaryTree.of(new Integer[] {1, 2, 4}));
+
+      assertNotEquals(left.getRoot().hashCode(), right.getRoot().hashCode());
+      assertNotEquals(left, right);
+    }
+
+    @Test
+    void testPlainChildIsRejected() {
+      var node = new HashedNode<>(1);
+
+      assertThrows(IllegalArgumentException.class, () -> node.setLeft(new Node<>(2)));
+      assertThrows(IllegalArgumentException.class, () -> node.setRight(new Node<>(2)));
+      assertNull(node.getLeft());
+      assertNull(node.getRight());
+    }
+
+    @Test
+    void testHashCodeOnDegenerateTree() {
+      var depth = 1_000_000;
+      var root = new Node<>(0);
+      var hashedRoot = new HashedNode<>(0);
+      Node<Integer> node = root;
+      Node<Integer> hashedNode = hashedRoot;
+
+      for (int i = 1; i < depth; i++) {
+        node.setLeft(new Node<>(i));
+        node = node.getLeft();
+        hashedNode.setRight(new HashedNode<>(i));
+        hashedNode = hashedNode.getRight();
+      }
+
+      assertEquals(root.hashCode(), new BinaryTree<>(root).deepCopy().getRoot().hashCode());
+      assertEquals(hashedRoot.hashCode(), hashedRoot.hashCode());
+
+      hashedNode.setValue(-1);
+      assertNotEquals(0, hashedRoot.hashCode());
+    }
+  }
+
+  @Nested
+  class HashConsedTreeTest {
+
+    @Test
+    void testIdenticalSubtreesAreShared() {
+      var values = new Integer[(1 << 10) - 1];
+      Arrays.fill(values, 7);
+      var tree = BinaryTree.of(values);
+      var hashConsedTree = HashConsedTree.of(tree, new InternTable<>());
+
+      assertEquals(values.length, hashConsedTree.size());
+      assertEquals(10, hashConsedTree.sharedNodeCount());
+      assertEquals(tree, hashConsedTree.toBinaryTree());
+      assertEquals(tree.hashCode(), hashConsedTree.hashCode());
+    }
+
+    @Test
+    void testEqualsComparesRoots() {
+      var table = new InternTable<Integer>();
+      var tree1 = HashConsedTree.of(BinaryTree.of(1, 2, 3, 2, null, 2), table);
+      var tree2 = HashConsedTree.of(BinaryTree.of(1, 2, 3, 2, null, 2), table);
+      var tree3 = HashConsedTree.of(BinaryTree.of(1, 2, 3, 2, null, 2), new InternTable<>());
+
+      assertEquals(tree1, tree2);
+      assertEquals(tree1, tree3);
+      assertEquals(tree1.hashCode(), tree3.hashCode());
+      assertNotEquals(tree1, HashConsedTree.of(BinaryTree.of(1, 2, 3, 2, null, 4), table));
+      assertEquals(4, tree1.sharedNodeCount());
+    }
+
+    @Test
+    void testRollIsMemoized() {
+      var table = new InternTable<Integer>();
+      var tree = BinaryTree.of(1, 2, 3, 4, 5, 4, 5, null, 6, null, 6, null, 6, null, 6);
+      var hashConsedTree = HashConsedTree.of(tree, table);
+
+      for (var direction : RollDirection.values()) {
+        RollStrategy<Integer> strategy = RollStrategyFactory.createImmutable(direction);
+        var rolledTree = hashConsedTree.roll(strategy);
+        var nodeCount = table.size();
+
+        assertEquals(tree.roll(strategy), rolledTree.toBinaryTree());
+        assertEquals(rolledTree, hashConsedTree.roll(strategy));
+        assertEquals(nodeCount, table.size());
+      }
+
+      var rolledTree =
+          hashConsedTree.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE));
+
+      assertEquals(hashConsedTree,
+          rolledTree.roll(RollStrategyFactory.createImmutable(RollDirection.COUNTERCLOCKWISE)));
+      assertThrows(UnsupportedOperationException.class,
+          () -> hashConsedTree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE)));
+    }
+
+    @Test
+    void testNodesAreImmutable() {
+      var hashConsedTree = HashConsedTree.of(BinaryTree.of(1, 2, 3));
+      var preorderCollector = new NodeCollectorVisitorAction<Integer>();
+
+      hashConsedTree.traverse(new PreorderVisitor<>(preorderCollector));
+
+      assertEquals(List.of(1, 2, 3), preorderCollector.getList());
+      assertThrows(UnsupportedOperationException.class,
+          () -> hashConsedTree.traverse(root -> root.setLeft(null)));
+      assertThrows(UnsupportedOperationException.class,
+          () -> hashConsedTree.traverse(root -> root.setValue(0)));
+    }
+
+    @Test
+    void testOnEmptyTree() {
+      var hashConsedTree = HashConsedTree.of(new BinaryTree<Integer>());
+
+      assertEquals(0, hashConsedTree.size());
+      assertEquals(0, hashConsedTree.sharedNodeCount());
+      assertNull(hashConsedTree.toBinaryTree().getRoot());
+      assertSame(hashConsedTree,
+          hashConsedTree.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE)));
+      assertThrows(IllegalStateException.class,
+          () -> hashConsedTree.traverse(new PreorderVisitor<>(node -> {})));
+    }
+
+    @Test
+    void testUnusedNodesAreDropped() throws InterruptedException {
+      var table = new InternTable<Integer>();
+      var hashConsedTree = HashConsedTree.of(BinaryTree.of(1, 2, 3), table);
+
+      HashConsedTree.of(BinaryTree.of(IntStream.range(0, 10_000).boxed().toArray(Integer[]::new)),
+          table);
+
+      for (var i = 0; i < 50 && table.size() > 3; i++) {
+        System.gc();
+        Thread.sleep(20);
+      }
+
+      assertEquals(3, table.size());
+      assertEquals(3, hashConsedTree.sharedNodeCount());
+    }
+
+    @Test
+    void testRollOnDegenerateTree() {
+      var depth = 100_000;
+      var root = new Node<>(0);
+      var node = root;
+
+      for (int i = 1; i < depth; i++) {
+        node.setRight(new Node<>(i % 2));
+        node = node.getRight();
+      }
+
+      var tree = new BinaryTree<>(root);
+      var hashConsedTree = HashConsedTree.of(tree, new InternTable<>());
+      var rolledTree =
+          hashConsedTree.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE));
+
+      assertEquals(depth, rolledTree.size());
+      assertEquals(tree.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE,
+          RollEngine.ITERATIVE)), rolledTree.toBinaryTree());
+    }
+  }
+
+  @Nested
+  class LinkJournalTest {
+
+    @Test
+    void testRollbackAndRollForwardOfRoll() {
+      var tree = LinkJournal.copyOf(BinaryTree.of(1, 2, 3, 4, 5, null, 6), 64);
+      var journal = tree.getJournal();
+      var original = tree.deepCopy();
+      var originalRoot = tree.getRoot();
+      var version = journal.version();
+
+      tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+      var rolled = tree.deepCopy();
+      var rolledVersion = journal.version();
+
+      assertTrue(rolledVersion > version);
+
+      journal.rollbackTo(version);
+
+      assertEquals(original, tree);
+      assertSame(originalRoot, tree.getRoot());
+      assertEquals(version, journal.version());
+      assertEquals(rolledVersion, journal.latestVersion());
+
+      journal.rollForwardTo(rolledVersion);
+
+      assertEquals(rolled, tree);
+    }
+
+    @Test
+    void testMorrisTraversalsAreNotJournaled() {
+      var tree = LinkJournal.copyOf(BinaryTree.of(1, 2, 3, 4, 5, 6, 7), 1024);
+      var journal = tree.getJournal();
+      var version = journal.version();
+
+      tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+      var rolled = tree.deepCopy();
+      var rolledVersion = journal.version();
+      journal.rollbackTo(version);
+
+      var values = new ArrayList<Integer>();
+      tree.traverse(new MorrisPreorderVisitor<>(node -> values.add(node.getValue())));
+      tree.traverse(new MorrisInorderVisitor<>(node -> values.add(node.getValue())));
+      tree.traverse(new MorrisPostorderVisitor<>(node -> values.add(node.getValue())));
+
+      assertEquals(21, values.size());
+      assertEquals(version, journal.version());
+      assertEquals(rolledVersion, journal.latestVersion());
+
+      journal.rollForwardTo(rolledVersion);
+      assertEquals(rolled, tree);
+    }
+
+    @Test
+    void testParallelRollAndPoolRejectJournaledTree() {
+      var tree = LinkJournal.copyOf(BinaryTree.of(1, 2, 3, 4, 5, 6, 7), 64);
+      var original = tree.deepCopy();
+
+      for (var direction : RollDirection.values()) {
+        assertThrows(IllegalArgumentException.class, () -> tree.roll(
+            RollStrategyFactory.createParallel(direction, ForkJoinPool.commonPool(), 1)));
+      }
+
+      assertThrows(IllegalArgumentException.class, () -> new NodePool<Integer>().release(tree));
+      assertEquals(original, tree);
+      assertEquals(0, tree.getJournal().version());
+      assertEquals(original.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE)),
+          tree.roll(RollStrategyFactory.createImmutableParallel(RollDirection.CLOCKWISE,
+              ForkJoinPool.commonPool(), 1)));
+    }
+
+    @Test
+    void testJournalRecordsOnlyLinkChanges() {
+      var tree = LinkJournal.copyOf(BinaryTree.of(1, 2, 3), 16);
+      var journal = tree.getJournal();
+      var root = tree.getRoot();
+
+      root.setLeft(root.getLeft());
+      root.setValue(10);
+      assertEquals(0, journal.version());
+
+      var node = journal.createNode(4);
+      root.getLeft().setLeft(node);
+      root.setRight(null);
+      assertEquals(2, journal.version());
+
+      journal.rollbackTo(1);
+      assertEquals(BinaryTree.of(10, 2, 3, 4), tree);
+
+      journal.rollbackTo(0);
+      assertEquals(BinaryTree.of(10, 2, 3), tree);
+    }
+
+    @Test
+    void testChangeAfterRollbackDiscardsRolledBackChanges() {
+      var tree = LinkJournal.copyOf(BinaryTree.of(1, 2, 3), 16);
+      var journal = tree.getJournal();
+
+      tree.getRoot().setRight(null);
+      journal.rollbackTo(0);
+      tree.getRoot().setLeft(null);
+
+      assertEquals(1, journal.latestVersion());
+      assertThrows(IllegalArgumentException.class, () -> journal.rollForwardTo(2));
+      assertEquals(BinaryTree.of(1, null, 3), tree);
+    }
+
+    @Test
+    void testJournalForgetsOldestChanges() {
+      var tree = LinkJournal.copyOf(BinaryTree.of(1, 2, 3, 4, 5, 6, 7), 4);
+      var journal = tree.getJournal();
+
+      tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+
+      assertEquals(journal.version() - 4, journal.oldestVersion());
+      assertThrows(IllegalArgumentException.class, () -> journal.rollbackTo(0));
+
+      journal.clear();
+
+      assertEquals(journal.version(), journal.oldestVersion());
+      assertEquals(journal.version(), journal.latestVersion());
+    }
+
+    @Test
+    void testJournaledTreeRejectsForeignNodes() {
+      var tree = LinkJournal.copyOf(BinaryTree.of(1, 2, 3), 16);
+      var other = LinkJournal.copyOf(BinaryTree.of(1, 2, 3), 16);
+
+      assertThrows(IllegalArgumentException.class, () -> tree.getRoot().setLeft(new Node<>(4)));
+      assertThrows(IllegalArgumentException.class,
+          () -> tree.getRoot().setRight(other.getRoot()));
+      assertThrows(IllegalArgumentException.class, () -> tree.setRoot(new Node<>(4)));
+      assertThrows(IllegalArgumentException.class,
+          () -> LinkJournal.copyOf(new BinaryTree<Integer>(), 0));
+    }
+
+    @Test
+    void testImmutableRollOfJournaledTree() {
+      var tree = LinkJournal.copyOf(BinaryTree.of(1, 2, 3, 4), 16);
+
+      var rolledTree = tree.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE));
+
+      assertEquals(0, tree.getJournal().version());
+      assertNull(rolledTree.getJournal());
+      assertFalse(rolledTree.getRoot() instanceof JournaledNode);
+    }
+  }
+
+  @Nested
+  class EqualityTest {
+
+    @Test
+    void testFindMismatchReportsFirstDifferenceInPreorder() {
+      var tree = BinaryTree.of(new Integer[] {1, 2, 3, null, 4, 5, null, 6});
+      var other = BinaryTree.of(new Integer[] {1, 2, 3, null, 4, 9, null, 7});
+
+      var mismatch = tree.findMismatch(other).orElseThrow();
+      assertEquals("LRL", mismatch.path());
+      assertEquals(6, mismatch.node().getValue());
+      assertEquals(7, mismatch.otherNode().getValue());
+
+      assertTrue(tree.findMismatch(tree.deepCopy()).isEmpty());
+      assertTrue(new BinaryTree<>().findMismatch(new BinaryTree<>()).isEmpty());
+    }
+
+    @Test
+    void testFindMismatchReportsMissingNodes() {
+      var tree = BinaryTree.of(new Integer[] {1, 2, 3});
+      var other = BinaryTree.of(new Integer[] {1, 2, 3, 4});
+
+      var mismatch = tree.findMismatch(other).orElseThrow();
+      assertEquals("LL", mismatch.path());
+      assertNull(mismatch.node());
+      assertEquals(4, mismatch.otherNode().getValue());
+
+      assertEquals(new TreeMismatch("", tree.getRoot(), null),
+          tree.findMismatch(new BinaryTree<>()).orElseThrow());
+    }
+
+    @Test
+    void testParallelFindMismatch() {
+      var values = IntStream.range(0, 100_000).boxed().toArray(Integer[]::new);
+      var tree = BinaryTree.of(values);
+      var other = BinaryTree.of(values);
+
+      var pool = new ForkJoinPool(4);
+
+      try {
+        assertTrue(tree.findMismatch(other, pool, 64).isEmpty());
+
+        var node = other.getRoot();
+        while (node.getRight() != null) {
+          node = node.getRight();
+        }
+        node.setValue(-1);
+
+        var mismatch = tree.findMismatch(other, pool, 64).orElseThrow();
+        assertEquals(tree.findMismatch(other).orElseThrow(), mismatch);
+        assertTrue(mismatch.path().chars().allMatch(step -> step == 'R'));
+        assertThrows(IllegalArgumentException.class, () -> tree.findMismatch(other, pool, 0));
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    @Test
+    void testParallelFindMismatchOnDegenerateAndRandomTrees() {
+      var pool = new ForkJoinPool(4);
+      var random = new Random(7);
+      var trees = new ArrayList<BinaryTree<Integer>>();
+
+      for (var leftChain : List.of(true, false)) {
+        var root = new Node<>(0);
+        var node = root;
+
+        for (int i = 1; i < 100_000; i++) {
+          var child = new Node<>(i);
+
+          if (leftChain) {
+            node.setLeft(child);
+          } else {
+            node.setRight(child);
+          }
+
+          node = child;
+        }
+
+        trees.add(new BinaryTree<>(root));
+      }
+
+      var randomRoot = new Node<>(random.nextInt());
+
+      for (int i = 1; i < 100_000; i++) {
+        var value = random.nextInt();
+        var node = randomRoot;
+
+        while (true) {
+          var child = value < node.getValue() ? node.getLeft() : node.getRight();
+
+          if (child == null) {
+            if (value < node.getValue()) {
+              node.setLeft(new Node<>(value));
+            } else {
+              node.setRight(new Node<>(value));
+            }
+
+            break;
+          }
+
+          node = child;
+        }
+      }
+
+      trees.add(new BinaryTree<>(randomRoot));
+
+      try {
+        for (var tree : trees) {
+          var other = tree.deepCopy();
+          assertTrue(tree.findMismatch(other, pool, 1).isEmpty());
+
+          var index = new AtomicInteger();
+          var changed = new AtomicReference<Node<Integer>>();
+          other.traverse(new IterativePreorderVisitor<>(node -> {
+            if (index.getAndIncrement() == 66_666) {
+              changed.set(node);
+            }
+          }));
+          changed.get().setValue(-1);
+
+          var expected = tree.findMismatch(other).orElseThrow();
+
+          for (var threshold : List.of(1, 1000, 1 << 14)) {
+            assertEquals(expected, tree.findMismatch(other, pool, threshold).orElseThrow());
+          }
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    @Test
+    void testEqualsOnDegenerateTree() {
+      var depth = 1_000_000;
+      var root = new Node<>(0);
+      var node = root;
+
+      for (int i = 1; i < depth; i++) {
+        node.setLeft(new Node<>(i));
+        node = node.getLeft();
+      }
+
+      var tree = new BinaryTree<>(root);
+      var copy = tree.deepCopy();
+      assertEquals(tree, copy);
+
+      node.setValue(-1);
+      assertNotEquals(tree, copy);
+      assertEquals(depth - 1, tree.findMismatch(copy).orElseThrow().path().length());
+    }
+
+    @Test
+    void testEqualsComparesCachedSizes() {
+      var tree = BinaryTree.of(IntStream.range(0, 1 << 17).boxed().toArray(Integer[]::new));
+      var copy = tree.deepCopy();
+
+      assertEquals(tree, copy);
+      assertNotEquals(tree, BinaryTree.of(new Integer[] {0, 1, 2}));
+    }
+  }
+
+  @Nested
+  class TreeFormatTest {
+
+    private final BinaryTree<Integer> tree = BinaryTree.of(1, null, 2, 3);
+
+    private String write(TreeFormat<Integer> format, BinaryTree<Integer> tree)
+        throws IOException {
+      var writer = new StringWriter();
+      format.write(tree, writer);
+      return writer.toString();
+    }
+
+    @Test
+    void testJsonFormats() throws IOException {
+      var nested = JsonTreeFormat.nested(Integer::valueOf);
+      var levelOrder = JsonTreeFormat.levelOrder(Integer::valueOf);
+
+      assertEquals("{\"value\":1,\"right\":{\"value\":2,\"left\":{\"value\":3}}}",
+          write(nested, tree));
+      assertEquals("[1,null,2,3]", write(levelOrder, tree));
+      assertEquals("null", write(nested, new BinaryTree<>()));
+      assertEquals("[]", write(levelOrder, new BinaryTree<>()));
+
+      assertEquals(tree, nested.read(new StringReader(
+          " { \"right\" : { \"left\": {\"value\": 3, \"right\": null}, \"value\": 2 },\n"
+              + "\"value\": 1 } ")));
+      assertEquals(tree, levelOrder.read(new StringReader("[ 1, null, 2, 3, null, null ]")));
+      assertNull(nested.read(new StringReader("null")).getRoot());
+      assertNull(levelOrder.read(new StringReader("[]")).getRoot());
+    }
+
+    @Test
+    void testReadDoesNotSpin() throws IOException {
+      var format = JsonTreeFormat.levelOrder(Integer::valueOf);
+      var pipe = Pipe.open();
+      var emptyReads = new StringReader("[1]") {
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+          return 0;
+        }
+      };
+
+      try (var source = pipe.source(); var sink = pipe.sink()) {
+        source.configureBlocking(false);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(
+            IllegalBlockingModeException.class, () -> format.read(source)));
+      }
+
+      assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(
+          IOException.class, () -> format.read(emptyReads)));
+    }
+
+    @Test
+    void testJsonStringsAreEscaped() throws IOException {
+      var strings = BinaryTree.of("a\"b", "c\\d", "e\nf\u0001");
+      var format = JsonTreeFormat.<String>nested(text -> text);
+      var writer = new StringWriter();
+
+      format.write(strings, writer);
+
+      assertEquals("{\"value\":\"a\\\"b\",\"left\":{\"value\":\"c\\\\d\"},"
+          + "\"right\":{\"value\":\"e\\nf\\u0001\"}}", writer.toString());
+      assertEquals(strings, format.read(new StringReader(writer.toString())));
+    }
+
+    @Test
+    void testMalformedJsonIsRejected() {
+      var nested = JsonTreeFormat.nested(Integer::valueOf);
+      var levelOrder = JsonTreeFormat.levelOrder(Integer::valueOf);
+
+      assertThrows(IOException.class, () -> nested.read(new StringReader("{\"value\":1")));
+      assertThrows(IOException.class, () -> nested.read(new StringReader("{\"key\":1}")));
+      assertThrows(IOException.class, () -> nested.read(new StringReader("{} {}")));
+      assertThrows(IOException.class, () -> levelOrder.read(new StringReader("[1 2]")));
+      assertThrows(IOException.class, () -> levelOrder.read(new StringReader("[1,2")));
+    }
+
+    @Test
+    void testDotFormat() throws IOException {
+      var format = new DotTreeFormat<>(Integer::valueOf);
+
+      assertEquals(""
+          + "digraph tree {\n"
+          + "  n0 [label=\"1\"];\n"
+          + "  n1 [label=\"2\"];\n"
+          + "  n0 -> n1 [tailport=se];\n"
+          + "  n2 [label=\"3\"];\n"
+          + "  n1 -> n2 [tailport=sw];\n"
+          + "}\n", write(format, tree));
+      assertEquals("digraph tree {\n}\n", write(format, new BinaryTree<>()));
+
+      var balanced = BinaryTree.of(1, 2, 3, 4, 5, 6, 7, null, 8);
+      assertEquals(balanced, format.read(new StringReader(write(format, balanced))));
+      assertNull(format.read(new StringReader("digraph tree {\n}\n")).getRoot());
+      assertThrows(IOException.class, () -> format.read(new StringReader(
+          "digraph tree {\n  n0 [label=\"1\"];\n  n1 [label=\"2\"];\n}\n")));
+      assertThrows(IOException.class, () -> format.read(new StringReader(
+          "digraph tree {\n  n0 [label=\"1\"];\n")));
+    }
+
+    @Test
+    void testTokenFormat() throws IOException {
+      var format = new TokenTreeFormat<>("#", Integer::valueOf);
+
+      assertEquals("1,#,2,3\n", write(format, tree));
+      assertEquals(tree, format.read(new StringReader("1 # 2,3")));
+      assertEquals(tree, format.read(new ByteArrayInputStream(
+          "1,#,2,3\n".getBytes(StandardCharsets.UTF_8))));
+
+      var output = new ByteArrayOutputStream();
+      format.write(tree, output);
+      assertEquals("1,#,2,3\n", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testNestedJsonOnDegenerateTree() throws IOException {
+      var depth = 1_000_000;
+      var root = new Node<>(0);
+      var node = root;
+
+      for (int i = 1; i < depth; i++) {
+        node.setLeft(new Node<>(i));
+        node = node.getLeft();
+      }
+
+      var format = JsonTreeFormat.nested(Integer::valueOf);
+      var writer = new StringWriter();
+      format.write(new BinaryTree<>(root), writer);
+
+      node = format.read(new StringReader(writer.toString())).getRoot();
+      for (int i = 0; i < depth; i++) {
+        assertEquals(i, node.getValue());
+        assertNull(node.getRight());
+        node = node.getLeft();
+      }
+      assertNull(node);
+    }
+  }
+
+  @Nested
+  class MappedBinaryTreeTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testCreateAndOpen() throws IOException {
+      var tree = BinaryTree.of(1.5, 2.5, 3.5, null, null, 4.5, 5.5, null, 6.5);
+      var path = directory.resolve("tree.bin");
+
+      try (var mappedTree = MappedBinaryTree.create(path, tree, ValueCodec.ofDouble())) {
+        assertEquals(6, mappedTree.size());
+        assertEquals(4, mappedTree.height());
+        assertEquals(tree, mappedTree.toBinaryTree());
+      }
+
+      try (var mappedTree = MappedBinaryTree.open(path, ValueCodec.ofDouble())) {
+        var postorderCollector = new NodeCollectorVisitorAction<Double>();
+        mappedTree.traverse(new PostorderVisitor<>(postorderCollector));
+        assertEquals(List.of(2.5, 6.5, 4.5, 5.5, 3.5, 1.5), postorderCollector.getList());
+      }
+    }
+
+    @Test
+    void testRollIsPersisted() throws IOException {
+      var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+      var path = directory.resolve("tree.bin");
+
+      try (var mappedTree = MappedBinaryTree.create(path, tree, ValueCodec.ofInteger())) {
+        var rolledTree = mappedTree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+        assertSame(mappedTree, rolledTree);
+        assertThrows(UnsupportedOperationException.class, () ->
+            mappedTree.roll(RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE)));
+      }
+
+      tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+
+      try (var mappedTree = MappedBinaryTree.open(path, ValueCodec.ofInteger())) {
+        assertEquals(tree, mappedTree.toBinaryTree());
+
+        try (var copy = mappedTree.copyTo(directory.resolve("copy.bin"))) {
+          copy.roll(RollStrategyFactory.create(RollDirection.COUNTERCLOCKWISE));
+          tree.roll(RollStrategyFactory.create(RollDirection.COUNTERCLOCKWISE));
+
+          assertEquals(tree, copy.toBinaryTree());
+          assertNotEquals(tree, mappedTree.toBinaryTree());
+        }
+      }
+    }
+
+    @Test
+    void testCopyToOwnFile() throws IOException {
+      var tree = BinaryTree.of(1, 2, 3);
+      var path = directory.resolve("tree.bin");
+
+      try (var mappedTree = MappedBinaryTree.create(path, tree, ValueCodec.ofInteger())) {
+        assertThrows(IllegalArgumentException.class, () -> mappedTree.copyTo(path));
+        assertThrows(IllegalArgumentException.class,
+            () -> mappedTree.copyTo(directory.resolve(".").resolve("tree.bin")));
+        assertEquals(tree, mappedTree.toBinaryTree());
+      }
+
+      try (var mappedTree = MappedBinaryTree.open(path, ValueCodec.ofInteger())) {
+        assertEquals(tree, mappedTree.toBinaryTree());
+      }
+    }
+
+    @Test
+    void testEmptyTree() throws IOException {
+      var path = directory.resolve("tree.bin");
+
+      try (var mappedTree = MappedBinaryTree.create(path, new BinaryTree<>(null),
+          ValueCodec.ofInteger())) {
+        assertEquals(0, mappedTree.size());
+        assertEquals(new BinaryTree<>(null), mappedTree.toBinaryTree());
+      }
+
+      try (var mappedTree = MappedBinaryTree.open(path, ValueCodec.ofInteger())) {
+        assertEquals(0, mappedTree.size());
+      }
+    }
+
+    @Test
+    void testOpenInvalidFile() throws IOException {
+      var path = Files.write(directory.resolve("tree.bin"), new byte[32]);
+
+      assertThrows(IOException.class, () -> MappedBinaryTree.open(path, ValueCodec.ofInteger()));
+    }
+
+    @Test
+    void testOpenCorruptedFile() throws IOException {
+      var path = directory.resolve("tree.bin");
+      MappedBinaryTree.create(path, BinaryTree.of(1, 2, 3, 4), ValueCodec.ofInteger()).close();
+      var content = Files.readAllBytes(path);
+
+      assertCorrupted(path, content, 1, 9, "node 1 has the child index 9");
+      assertCorrupted(path, content, 2, 3, "node 3 is a child of node 2 and of another node");
+      assertCorrupted(path, content, 2, 0, "node 0 is the root, but also a child of node 2");
+      assertCorrupted(path, content, 0, -1, "node 1 is not reachable from the root");
+    }
+
+    @Test
+    void testOpenCorruptedFileWithoutValidation() throws IOException {
+      var path = directory.resolve("tree.bin");
+      MappedBinaryTree.create(path, BinaryTree.of(1, 2, 3, 4), ValueCodec.ofInteger()).close();
+      var content = Files.readAllBytes(path);
+      ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN).putInt(16 + 8, 9);
+      Files.write(path, content);
+
+      try (var mappedTree = MappedBinaryTree.open(path, ValueCodec.ofInteger())) {
+        assertEquals(4, mappedTree.size());
+
+        var exception = assertThrows(UncheckedIOException.class, mappedTree::toBinaryTree);
+        assertTrue(exception.getMessage().contains("node 1 has the child index 9"),
+            exception.getMessage());
+        assertThrows(UncheckedIOException.class,
+            () -> mappedTree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE)));
+      }
+    }
+
+    /**
+     * Writes the given file content with the left child of the given node replaced, and checks
+     * that opening it with validation fails with the given message. Nodes are numbered in
+     * preorder.
+     */
+    private void assertCorrupted(Path path, byte[] content, int node, int leftChild,
+        String message) throws IOException {
+      var corrupted = content.clone();
+      ByteBuffer.wrap(corrupted).order(ByteOrder.LITTLE_ENDIAN).putInt(16 + node * 8, leftChild);
+      Files.write(path, corrupted);
+
+      var exception = assertThrows(IOException.class,
+          () -> MappedBinaryTree.open(path, ValueCodec.ofInteger(), true));
+      assertTrue(exception.getMessage().contains(message), exception.getMessage());
+    }
+
+    @Test
+    void testClose() throws IOException {
+      var path = directory.resolve("tree.bin");
+      var mappedTree =
+          MappedBinaryTree.create(path, BinaryTree.of(1, 2, 3), ValueCodec.ofInteger());
+
+      assertTrue(mappedTree.isOpen());
+      mappedTree.close();
+      mappedTree.close();
+
+      assertFalse(mappedTree.isOpen());
+      assertThrows(IllegalStateException.class, mappedTree::size);
+      assertThrows(IllegalStateException.class, mappedTree::force);
+    }
+  }
+
+  @Nested
+  class PrinterTest {
+
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    private final BinaryTreePrinter<Integer> printer =
+        new BinaryTreePrinter<>(new PrintStream(outputStream));
+
+    @AfterEach
+    void tearDown() {
+      outputStream.reset();
+    }
+
+    @Test
+    void testPrint() {
+      printer.print("test");
+      assertEquals("test", outputStream.toString());
+    }
+
+    @Test
+    void testPrintln() {
+      printer.println("test");
+      assertEquals("test".concat(System.lineSeparator()), outputStream.toString());
+    }
+
+    @Test
+    void testCloseStream() {
+      printer.closeStream();
+      printer.print("test");
+      assertTrue(outputStream.toString().isEmpty());
+    }
+
+    @Test
+    void testPrintTree() {
+      var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+
+      printer.printTree(tree);
+
+      assertTrue(outputStream.toString().contains("1"));
+      assertTrue(outputStream.toString().contains("2"));
+      assertTrue(outputStream.toString().contains("3"));
+      assertTrue(outputStream.toString().contains("4"));
+      assertTrue(outputStream.toString().contains("5"));
+      assertTrue(outputStream.toString().contains("6"));
+    }
+
+    @Test
+    void testPrintTreeLayout() {
+      var output = new StringBuilder();
+      var stringPrinter = new BinaryTreePrinter<Integer>(output);
+      var ls = System.lineSeparator();
+
+      stringPrinter.printTree(BinaryTree.of(10, 2, 300, 4, 5, null, 7, null, 8, 9, null, 11));
+      stringPrinter.printTree(new BinaryTree<>());
+
+      assertEquals(""
+          + "               7 ————┐\n"
+          + "               │     11\n"
+          + "       300 ————┘\n"
+          + "10 ————┤\n"
+          + "       │     5 ————┐\n"
+          + "       │     │     9\n"
+          + "       2 ————┤\n"
+          + "             │     8\n"
+          + "             4 ————┘\n"
+          + ls
+          + "NULL" + ls
+          + ls, output.toString());
+    }
+
+    @Test
+    void testPrintTreeOnDegenerateTree() {
+      var depth = 100_000;
+      var root = new Node<>(0);
+      var node = root;
+
+      for (int i = 1; i < depth; i++) {
+        node.setLeft(new Node<>(0));
+        node = node.getLeft();
+      }
+
+      var lines = new int[1];
+      var lineCounter = new Appendable() {
+        @Override
+        public Appendable append(CharSequence csq) {
+          return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+          return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+          lines[0] += c == '\n' ? 1 : 0;
+          return this;
+        }
+      };
+
+      new BinaryTreePrinter<Integer>(lineCounter).printTree(new BinaryTree<>(root));
+      assertEquals(depth, lines[0]);
+    }
+
+    @Test
+    void testPrinterRethrowsIOException() {
+      var failingPrinter = new BinaryTreePrinter<Integer>(new Writer() {
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+          throw new IOException("test");
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+      });
+
+      assertThrows(UncheckedIOException.class,
+          () -> failingPrinter.printPreorder(BinaryTree.of(1, 2, 3)));
+    }
+
+    @Test
+    void testPrintPreorder() {
+      var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+
+      printer.printPreorder(tree);
+      var digits = outputStream.toString().replaceAll("[^0-9]", "");
+
+      assertEquals("123465", digits);
+    }
+
+
+    @Test
+    void testPrintInorder() {
+      var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+
+      printer.printInorder(tree);
+      var digits = outputStream.toString().replaceAll("[^0-9]", "");
+
+      assertEquals("214635", digits);
+    }
+
+    @Test
+    void testPrintPostorder() {
+      var tree = BinaryTree.of(1, 2, 3, null, null, 4, 5, null, 6);
+
+      printer.printPostorder(tree);
+      var digits = outputStream.toString().replaceAll("[^0-9]", "");
+
+      assertEquals("264531", digits);
+    }
+  }
+
+  @Nested
+  class BatchRollExecutorTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+      executor.shutdownNow();
+    }
+
+    private List<BinaryTree<Integer>> trees(int count) {
+      var random = new Random(7);
+      var trees = new ArrayList<BinaryTree<Integer>>();
+
+      for (var i = 0; i < count; i++) {
+        var values = random.ints(random.nextInt(50) + 1, 0, 100).boxed().toArray(Integer[]::new);
+        values[0] = i;
+        trees.add(BinaryTree.of(values));
+      }
+
+      return trees;
+    }
+
+    @Test
+    void testRollAllReturnsFuturesInOrder() {
+      var batch = new BatchRollExecutor(executor, 3);
+      var trees = trees(200);
+      RollStrategy<Integer> strategy = RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE);
+
+      var futures = batch.rollAll(trees, strategy);
+      var streamFutures = batch.rollAll(trees.stream(), strategy);
+
+      assertEquals(trees.size(), futures.size());
+
+      for (var i = 0; i < trees.size(); i++) {
+        assertEquals(trees.get(i).roll(strategy), futures.get(i).join());
+        assertEquals(trees.get(i).roll(strategy), streamFutures.get(i).join());
+      }
+    }
+
+    @Test
+    void testRollAllBoundsConcurrency() {
+      var running = new AtomicInteger();
+      var maxRunning = new AtomicInteger();
+      Executor countingExecutor = task -> executor.execute(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+
+        try {
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          running.decrementAndGet();
+        }
+
+        task.run();
+      });
+      var batch = new BatchRollExecutor(countingExecutor, 2);
+
+      var futures = batch.rollAll(trees(50), RollStrategyFactory.create(RollDirection.CLOCKWISE));
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+      assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    void testPublisherDeliversInOrderOnDemand() throws InterruptedException {
+      var batch = new BatchRollExecutor(executor, 4);
+      var trees = trees(100);
+      RollStrategy<Integer> strategy =
+          RollStrategyFactory.createImmutable(RollDirection.COUNTERCLOCKWISE);
+      var expected = trees.stream().map(tree -> tree.roll(strategy)).collect(Collectors.toList());
+      var received = Collections.synchronizedList(new ArrayList<BinaryTree<Integer>>());
+      var completed = new CountDownLatch(1);
+
+      batch.publish(trees.stream(), strategy)
+          .subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+              this.subscription = subscription;
+              subscription.request(1);
+            }
+
+            @Override
+            public void onNext(BinaryTree<Integer> item) {
+              received.add(item);
+              subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+              completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+              completed.countDown();
+            }
+          });
+
+      assertTrue(completed.await(10, TimeUnit.SECONDS));
+      assertEquals(expected, received);
+    }
+
+    @Test
+    void testPublisherStopsOnFailedRoll() throws InterruptedException {
+      var batch = new BatchRollExecutor(executor, 2);
+      var trees = trees(10);
+      trees.set(5, null);
+      var error = new AtomicReference<Throwable>();
+      var received = new AtomicInteger();
+      var completed = new CountDownLatch(1);
+
+      batch.publish(trees, RollStrategyFactory.<Integer>create(RollDirection.CLOCKWISE))
+          .subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+              subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(BinaryTree<Integer> item) {
+              received.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+              error.set(throwable);
+              completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+              completed.countDown();
+            }
+          });
+
+      assertTrue(completed.await(10, TimeUnit.SECONDS));
+      assertNotNull(error.get());
+      assertEquals(5, received.get());
+    }
+
+    @Test
+    void testInvalidConcurrency() {
+      assertThrows(IllegalArgumentException.class, () -> new BatchRollExecutor(executor, 0));
+    }
+  }
+
+  @Nested
+  class MetricsTest {
+
+    @Test
+    void testInstrumentedRollRecordsMetrics() {
+      var metrics = new RecordingTreeMetrics();
+      RollStrategy<Integer> strategy = RollStrategyFactory.createInstrumented(
+          RollStrategyFactory.create(RollDirection.CLOCKWISE), metrics);
+      var tree = BinaryTree.of(1, 2, 3, 4, 5, 6, 7, null, 8);
+      var expected = tree.deepCopy().roll(RollStrategyFactory.create(RollDirection.CLOCKWISE));
+
+      var rolledTree = tree.roll(strategy);
+
+      assertEquals(expected, rolledTree);
+      assertEquals(RollDirection.CLOCKWISE, strategy.getDirection());
+      assertFalse(strategy.isImmutable());
+      assertEquals(1, metrics.count(TreeOperation.ROLL));
+      assertEquals(8, metrics.nodes(TreeOperation.ROLL));
+      assertEquals(4, metrics.maxInputHeight(TreeOperation.ROLL));
+      assertEquals(1, metrics.latency(TreeOperation.ROLL).count());
+      assertEquals(0, metrics.count(TreeOperation.COPY));
+    }
+
+    @Test
+    void testInstrumentedCopyAndTraversalRecordMetrics() {
+      var metrics = new RecordingTreeMetrics();
+      var tree = BinaryTree.of(1, 2, 3, 4, 5);
+      var values = new ArrayList<Integer>();
+
+      var copy = TreeInstrumentation.deepCopy(tree, metrics);
+      TreeInstrumentation.traverse(copy, new IterativePreorderVisitor<>(n -> values.add(
+          n.getValue())), metrics);
+
+      assertEquals(tree, copy);
+      assertEquals(List.of(1, 2, 4, 5, 3), values);
+      assertEquals(1, metrics.count(TreeOperation.COPY));
+      assertEquals(5, metrics.nodes(TreeOperation.COPY));
+      assertEquals(1, metrics.count(TreeOperation.TRAVERSE));
+      assertEquals(3, metrics.maxInputHeight(TreeOperation.TRAVERSE));
+      assertTrue(metrics.allocatedBytes(TreeOperation.COPY) > 0);
+    }
+
+    @Test
+    void testInstrumentationDoesNotWalkUncachedTrees() {
+      var metrics = new RecordingTreeMetrics();
+      var tree = new BinaryTree<>(BinaryTree.of(1, 2, 3, 4, 5).getRoot());
+
+      TreeInstrumentation.traverse(tree, new IterativePreorderVisitor<>(n -> {}), metrics);
+      tree.roll(RollStrategyFactory.createInstrumented(
+          RollStrategyFactory.create(RollDirection.CLOCKWISE), metrics));
+
+      assertFalse(tree.spliterator(TraversalOrder.PREORDER).hasCharacteristics(Spliterator.SIZED));
+      assertEquals(-1, tree.cachedSize());
+      assertEquals(-1, tree.cachedHeight());
+      assertEquals(0, metrics.nodes(TreeOperation.TRAVERSE));
+      assertEquals(0, metrics.maxInputHeight(TreeOperation.ROLL));
+      assertEquals(1, metrics.count(TreeOperation.ROLL));
+
+      assertEquals(5, tree.size());
+      TreeInstrumentation.traverse(tree, new IterativePreorderVisitor<>(n -> {}), metrics);
+      assertEquals(5, metrics.nodes(TreeOperation.TRAVERSE));
+      assertEquals(tree.height(), metrics.maxInputHeight(TreeOperation.TRAVERSE));
+    }
+
+    @Test
+    void testDisabledMetricsAreNotMeasured() {
+      var calls = new int[1];
+      var metrics = new TreeMetrics() {
+        @Override
+        public boolean isEnabled() {
+          return false;
+        }
+
+        @Override
+        public void record(TreeOperation operation, long durationNanos, long nodes,
+            int inputHeight, long allocatedBytes) {
+          calls[0]++;
+        }
+      };
+      RollStrategy<Integer> strategy = RollStrategyFactory.createInstrumented(
+          RollStrategyFactory.createImmutable(RollDirection.COUNTERCLOCKWISE), metrics);
+
+      var tree = BinaryTree.of(1, 2, 3);
+      var rolledTree = tree.roll(strategy);
+
+      assertEquals(tree.roll(RollStrategyFactory.createImmutable(RollDirection.COUNTERCLOCKWISE)),
+          rolledTree);
+      assertTrue(strategy.isImmutable());
+      assertEquals(0, calls[0]);
+      assertFalse(TreeMetrics.disabled().isEnabled());
+    }
+
+    @Test
+    void testLatencyHistogramPercentiles() {
+      var histogram = new LatencyHistogram();
+
+      assertEquals(0, histogram.percentile(50));
+
+      for (var i = 0; i < 99; i++) {
+        histogram.record(100);
+      }
+      histogram.record(5000);
+
+      assertEquals(100, histogram.count());
+      assertEquals(127, histogram.percentile(50));
+      assertEquals(127, histogram.percentile(99));
+      assertEquals(8191, histogram.percentile(100));
+      assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+    }
+
+    @Test
+    void testRollEventsAreRecorded(@TempDir Path tempDir) throws IOException {
+      var file = tempDir.resolve("rolls.jfr");
+      RollStrategy<Integer> strategy = RollStrategyFactory.createInstrumented(
+          RollStrategyFactory.create(RollDirection.CLOCKWISE), TreeMetrics.disabled());
+
+      try (var recording = new Recording()) {
+        recording.enable("com.gtanev.binarytreeroll.Roll");
+        recording.start();
+        BinaryTree.of(1, 2, 3, 4).roll(strategy);
+        recording.stop();
+        recording.dump(file);
+      }
+
+      var events = RecordingFile.readAllEvents(file);
+
+      assertEquals(1, events.size());
+      assertEquals("CLOCKWISE", events.get(0).getString("direction"));
+      assertEquals(4, events.get(0).getLong("nodes"));
+      assertEquals(3, events.get(0).getInt("inputHeight"));
+    }
+  }
+
+  @Nested
+  class RollPlanTest {
+
+    @Test
+    void testPlanCancelsOppositeRolls() {
+      var cw = RollDirection.CLOCKWISE;
+      var ccw = RollDirection.COUNTERCLOCKWISE;
+
+      assertTrue(RollPlan.of().isIdentity());
+      assertTrue(RollPlan.of(cw, ccw, ccw, cw).isIdentity());
+      assertNull(RollPlan.of(ccw, cw).getDirection());
+      assertEquals(RollPlan.of(cw), RollPlan.of(cw, cw, ccw));
+      assertEquals(RollPlan.of(ccw, ccw), RollPlan.of(ccw, cw, ccw, ccw));
+      assertEquals(2, RollPlan.of(ccw, cw, ccw, ccw).getRollCount());
+      assertEquals(ccw, RollPlan.of(ccw, cw, ccw, ccw).getDirection());
+      assertNotEquals(RollPlan.of(cw), RollPlan.of(ccw));
+      assertEquals("RollPlan[CLOCKWISE x 3]", RollPlan.of(cw, cw, cw).toString());
+    }
+
+    @Test
+    void testIdentityPlan() {
+      var tree = BinaryTree.of(1, 2, 3, 4);
+      var plan = RollPlan.of(RollDirection.CLOCKWISE, RollDirection.COUNTERCLOCKWISE);
+
+      assertSame(tree, plan.apply(tree));
+
+      var copy = plan.applyImmutable(tree);
+
+      assertEquals(tree, copy);
+      assertNotSame(tree.getRoot(), copy.getRoot());
+    }
+
+    @Test
+    void testPlanOnEmptyTree() {
+      var plan = RollPlan.of(RollDirection.CLOCKWISE, RollDirection.CLOCKWISE);
+
+      assertNull(plan.apply(new BinaryTree<Integer>()).getRoot());
+      assertNull(plan.applyImmutable(new BinaryTree<Integer>()).getRoot());
+    }
+
+    @Test
+    void testPlanRejectsNullDirections() {
+      assertThrows(NullPointerException.class,
+          () -> RollPlan.of(Arrays.asList(RollDirection.CLOCKWISE, null)));
+    }
+  }
+
+  @Nested
+  class RollTest {
+
+    @Test
+    void testRollStrategyClockwise() {
+      var clockwiseStrategy = RollStrategyFactory.create(RollDirection.CLOCKWISE);
+
+      assertNotNull(clockwiseStrategy);
+      assertTrue(RollStrategy.class.isAssignableFrom(clockwiseStrategy.getClass()));
+    }
+
+    @Test
+    void testRollStrategyCounterclockwise() {
+      var counterclockwiseStrategy = RollStrategyFactory.create(RollDirection.COUNTERCLOCKWISE);
+
+      assertNotNull(counterclockwiseStrategy);
+      assertTrue(RollStrategy.class.isAssignableFrom(counterclockwiseStrategy.getClass()));
+    }
+
+    @Test
+    void testRollStrategyIterative() {
+      var clockwiseStrategy =
+          RollStrategyFactory.create(RollDirection.CLOCKWISE, RollEngine.ITERATIVE);
+      var immutableStrategy =
+          RollStrategyFactory.createImmutable(RollDirection.COUNTERCLOCKWISE, RollEngine.ITERATIVE);
+
+      assertNotNull(clockwiseStrategy);
+      assertNotNull(immutableStrategy);
+    }
+
+    @Test
+    void testRollStrategyFused() {
+      var immutableStrategy =
+          RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE, RollEngine.FUSED);
+
+      assertNotNull(immutableStrategy);
+      assertThrows(IllegalArgumentException.class,
+          () -> RollStrategyFactory.create(RollDirection.CLOCKWISE, RollEngine.FUSED));
+    }
+
+    @Test
+    void testRollStrategyParallel() {
+      var random = new Random(42);
+      var values = new Integer[200_000];
+
+      for (int i = 0; i < values.length; i++) {
+        values[i] = random.nextInt(4) == 0 ? null : i;
+      }
+
+      var tree = BinaryTree.of(values);
+      var pool = new ForkJoinPool(4);
+
+      try {
+        for (var direction : RollDirection.values()) {
+          var expected = tree.deepCopy().roll(RollStrategyFactory.create(direction,
+              RollEngine.ITERATIVE));
+
+          assertEquals(expected,
+              tree.roll(RollStrategyFactory.createImmutableParallel(direction, pool, 64)));
+          assertEquals(expected,
+              tree.deepCopy().roll(RollStrategyFactory.createParallel(direction, pool, 64)));
+        }
+      } finally {
+        pool.shutdown();
+      }
+
+      assertThrows(IllegalArgumentException.class,
+          () -> RollStrategyFactory.createParallel(RollDirection.CLOCKWISE, pool, 0));
+      assertThrows(NullPointerException.class,
+          () -> RollStrategyFactory.createParallel(RollDirection.CLOCKWISE, null, 64));
+    }
+
+    @Test
+    void testParallelRollOnDegenerateTree() {
+      var depth = 100_000;
+      var pool = new ForkJoinPool(4);
+
+      try {
+        for (var leftChain : List.of(true, false)) {
+          var root = new Node<>(0);
+          var node = root;
+
+          for (int i = 1; i < depth; i++) {
+            var child = new Node<>(i);
+
+            if (leftChain) {
+              node.setLeft(child);
+            } else {
+              node.setRight(child);
+            }
+
+            node = child;
+          }
+
+          var tree = new BinaryTree<>(root);
+          assertEquals(depth, tree.size());
+
+          for (var direction : RollDirection.values()) {
+            var expected = tree.deepCopy().roll(RollStrategyFactory.create(direction,
+                RollEngine.ITERATIVE));
+            var strategies = List.<RollStrategy<Integer>>of(
+                RollStrategyFactory.create(direction, RollEngine.PARALLEL),
+                RollStrategyFactory.createParallel(direction, pool, 1 << 14),
+                RollStrategyFactory.createParallel(direction, pool, 1));
+
+            for (var strategy : strategies) {
+              var rolledTree = tree.deepCopy().roll(strategy);
+              assertTrue(expected.findMismatch(rolledTree).isEmpty());
+              assertEquals(depth, rolledTree.height());
+            }
+          }
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    @Test
+    void testIterativeRollOnDegenerateTree() {
+      var depth = 1_000_000;
+      var root = new Node<>(0);
+      var node = root;
+
+      for (int i = 1; i < depth; i++) {
+        node.setLeft(new Node<>(i));
+        node = node.getLeft();
+      }
+
+      var tree = new BinaryTree<>(root);
+      tree.roll(RollStrategyFactory.create(RollDirection.CLOCKWISE, RollEngine.ITERATIVE));
+
+      node = tree.getRoot();
+      for (int i = depth - 1; i >= 0; i--) {
+        assertEquals(i, node.getValue());
+        assertNull(node.getLeft());
+        node = node.getRight();
+      }
+      assertNull(node);
+
+      tree.roll(RollStrategyFactory.create(RollDirection.COUNTERCLOCKWISE, RollEngine.ITERATIVE));
+
+      node = tree.getRoot();
+      for (int i = 0; i < depth; i++) {
+        assertEquals(i, node.getValue());
+        assertNull(node.getRight());
+        node = node.getLeft();
+      }
+      assertNull(node);
+    }
+
+    @Test
+    void testRollStrategyFactoryNPE() {
+      assertThrows(NullPointerException.class, () -> RollStrategyFactory.create(null));
+    }
+
+    @Test
+    void testFactoryReturnsSharedStrategies() {
+      for (var direction : RollDirection.values()) {
+        for (var engine : RollEngine.values()) {
+          assertSame(RollStrategyFactory.createImmutable(direction, engine),
+              RollStrategyFactory.createImmutable(direction, engine));
+
+          if (engine != RollEngine.FUSED) {
+            assertSame(RollStrategyFactory.create(direction, engine),
+                RollStrategyFactory.create(direction, engine));
+          }
+        }
+      }
+
+      assertSame(RollStrategyFactory.create(RollDirection.CLOCKWISE),
+          RollStrategyFactory.create(RollDirection.CLOCKWISE, RollEngine.RECURSIVE));
+      assertNotSame(RollStrategyFactory.create(RollDirection.CLOCKWISE),
+          RollStrategyFactory.create(RollDirection.COUNTERCLOCKWISE));
+      var pool = ForkJoinPool.commonPool();
+      assertNotSame(RollStrategyFactory.createParallel(RollDirection.CLOCKWISE, pool, 64),
+          RollStrategyFactory.createParallel(RollDirection.CLOCKWISE, pool, 64));
+      assertThrows(NullPointerException.class,
+          () -> RollStrategyFactory.createImmutable(null, RollEngine.FUSED));
+    }
+
+    @Test
+    void testSharedStrategiesRollConcurrently() throws Exception {
+      var values = IntStream.range(0, 5_000).boxed().toArray(Integer[]::new);
+      var expected = BinaryTree.of(values)
+          .roll(RollStrategyFactory.create(RollDirection.CLOCKWISE, RollEngine.RECURSIVE));
+      var executor = Executors.newFixedThreadPool(4);
+
+      try {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (var i = 0; i < 8; i++) {
+          var engine = i % 2 == 0 ? RollEngine.ITERATIVE : RollEngine.FUSED;
+          futures.add(CompletableFuture.runAsync(() -> {
+            RollStrategy<Integer> immutable =
+                RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE, engine);
+            RollStrategy<Integer> mutable =
+                RollStrategyFactory.create(RollDirection.CLOCKWISE, RollEngine.ITERATIVE);
+
+            for (var j = 0; j < 20; j++) {
+              var tree = BinaryTree.of(values);
+              assertEquals(expected, tree.roll(immutable));
+              assertEquals(expected, tree.roll(mutable));
+            }
+          }, executor));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+            .get(1, TimeUnit.MINUTES);
+      } finally {
+        executor.shutdown();
+      }
+    }
+
+    @Test
+    void testFailedRollDoesNotAffectLaterRolls() {
+      var inorder = new ArrayList<Integer>();
+      BinaryTree.of(1, 2, 3, 4, 5, 6, 7)
+          .traverse(new InorderVisitor<>(node -> inorder.add(node.getValue())));
+
+      List<RollStrategy<Integer>> strategies = List.of(
+          RollStrategyFactory.create(RollDirection.CLOCKWISE, RollEngine.ITERATIVE),
+          RollStrategyFactory.createImmutable(RollDirection.CLOCKWISE, RollEngine.FUSED));
+
+      for (var strategy : strategies) {
+        var failing = new Node<Integer>(0) {
+          @Override
+          public Node<Integer> getLeft() {
+            throw new IllegalStateException("Unreadable node.");
+          }
+        };
+        var root = new Node<>(1);
+        root.setLeft(new Node<>(2));
+        root.setRight(new Node<>(4));
+        root.getLeft().setLeft(failing);
+        root.getLeft().setRight(new Node<>(3));
+
+        assertThrows(IllegalStateException.class, () -> new BinaryTree<>(root).roll(strategy));
+
+        var preorder = new ArrayList<Integer>();
+        BinaryTree.of(1, 2, 3, 4, 5, 6, 7).roll(strategy)
+            .traverse(new PreorderVisitor<>(node -> preorder.add(node.getValue())));
+
+        assertEquals(inorder, preorder);
+      }
     }
   }
 }